@@ -22,9 +22,7 @@ import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.lib.NullProgressMonitor;
-import org.maestro.client.exchange.MaestroTopics;
 import org.maestro.client.notes.*;
-import org.maestro.client.notes.InternalError;
 import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.Constants;
 import org.maestro.common.client.exceptions.MalformedNoteException;
@@ -275,12 +273,12 @@ public class MaestroAgent extends MaestroWorkerManager implements MaestroAgentEv
 
             thread.start();
 
-            this.getClient().replyOk();
+            this.getClient().replyOk(note.getCorrelationId());
 
         } catch (Exception e) {
             e.printStackTrace();
             logger.error("Error during callback execution: {}", e.getMessage(), e);
-            this.getClient().publish(MaestroTopics.MAESTRO_TOPIC, new InternalError());
+            this.getClient().replyInternalError(note.getCorrelationId());
         }
     }
 
@@ -368,10 +366,10 @@ public class MaestroAgent extends MaestroWorkerManager implements MaestroAgentEv
             logger.info("Source directory for project created at {}", repositoryDir);
             extensionPoints.add(new ExtensionPoint(new File(repositoryDir, "requests"), true));
 
-            getClient().replyOk();
+            getClient().replyOk(note.getCorrelationId());
         } catch (GitAPIException e) {
             logger.error("Unable to clone repository: {}", e.getMessage(), e);
-            getClient().replyInternalError();
+            getClient().replyInternalError(note.getCorrelationId());
         }
     }
 }
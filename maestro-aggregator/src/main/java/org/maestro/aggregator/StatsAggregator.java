@@ -0,0 +1,234 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.aggregator;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.client.notes.StatsResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+
+/**
+ * Merges the stats published by the peers running on a host. The stats of the peers are merged per role (ie.: the
+ * senders and the receivers of a host are merged into separate stats responses): the message counts, rates and
+ * child counts are summed and the latency histograms are added, so that the latency percentiles are computed over
+ * all the local peers of the role. The last stats of each peer are kept as the (compressed) peer details of the
+ * merged stats.
+ *
+ * The last stats of each peer are kept across the intervals until they expire, so that a peer missing an interval
+ * does not make the merged counts drop. The latency histograms, on the other hand, are only merged once: only the
+ * ones of the intervals not merged yet are added to the merged stats.
+ */
+public class StatsAggregator {
+    private static final Logger logger = LoggerFactory.getLogger(StatsAggregator.class);
+
+    private static final class PeerStats {
+        private StatsResponse last;
+        private long lastUpdate;
+        private long lastIntervalEnd;
+        private Histogram histogram;
+    }
+
+    private final String host;
+    private final String id;
+    private final long expiry;
+    private final Map<String, PeerStats> peers = new HashMap<>();
+
+    /**
+     * Constructor
+     * @param host the host of the peers, reported on the name of the merged stats (ie.: role@host)
+     * @param id the id of the aggregator, used as the base for the id of the merged stats of each role
+     * @param expiry the time, in milliseconds, after which the stats of a peer that stopped publishing are dropped
+     */
+    public StatsAggregator(final String host, final String id, long expiry) {
+        this.host = host;
+        this.id = id;
+        this.expiry = expiry;
+    }
+
+    /**
+     * Records the stats published by a peer
+     * @param statsResponse the stats published by the peer
+     */
+    public void record(final StatsResponse statsResponse) {
+        record(statsResponse, System.currentTimeMillis());
+    }
+
+    /**
+     * Records the stats published by a peer. The last stats of the peer replace the previous ones and its latency
+     * histogram is added unless it was already recorded (ie.: if the peer publishes more than once on the same
+     * interval of its own)
+     * @param statsResponse the stats published by the peer
+     * @param now the current time in milliseconds
+     */
+    synchronized void record(final StatsResponse statsResponse, long now) {
+        PeerStats peerStats = peers.computeIfAbsent(statsResponse.getId(), id -> new PeerStats());
+
+        peerStats.last = statsResponse;
+        peerStats.lastUpdate = now;
+
+        try {
+            final Histogram histogram = statsResponse.getLatencyHistogram();
+
+            if (histogram == null) {
+                return;
+            }
+
+            // The peers that don't send the end of the interval cannot be checked for duplicates
+            final long intervalEnd = histogram.getEndTimeStamp();
+            if (intervalEnd != 0) {
+                if (intervalEnd <= peerStats.lastIntervalEnd) {
+                    logger.trace("Ignoring the latencies already recorded for {}", statsResponse.getName());
+                    return;
+                }
+
+                peerStats.lastIntervalEnd = intervalEnd;
+            }
+
+            if (peerStats.histogram == null) {
+                peerStats.histogram = histogram;
+                peerStats.histogram.setAutoResize(true);
+            }
+            else {
+                peerStats.histogram.add(histogram);
+            }
+        }
+        catch (DataFormatException e) {
+            logger.warn("Ignoring the invalid latency histogram sent by {}: {}", statsResponse.getName(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Merges the stats of the peers, per role, and starts a new interval
+     * @return the merged stats of each role or an empty list if no peer published any stats (or all of them expired)
+     * @throws IOException if unable to encode the peer details
+     */
+    public List<StatsResponse> aggregate() throws IOException {
+        return aggregate(System.currentTimeMillis());
+    }
+
+    /**
+     * Merges the stats of the peers, per role, and starts a new interval
+     * @param now the current time in milliseconds
+     * @return the merged stats of each role or an empty list if no peer published any stats (or all of them expired)
+     * @throws IOException if unable to encode the peer details
+     */
+    List<StatsResponse> aggregate(long now) throws IOException {
+        final Map<String, List<StatsResponse>> lastStats = new TreeMap<>();
+        final Map<String, Histogram> histograms = new HashMap<>();
+
+        synchronized (this) {
+            final Iterator<PeerStats> iterator = peers.values().iterator();
+
+            while (iterator.hasNext()) {
+                final PeerStats peerStats = iterator.next();
+
+                if (now - peerStats.lastUpdate > expiry) {
+                    logger.debug("Dropping the expired stats of {}", peerStats.last.getName());
+                    iterator.remove();
+                    continue;
+                }
+
+                final String role = peerStats.last.getRole();
+                lastStats.computeIfAbsent(role, r -> new ArrayList<>()).add(peerStats.last);
+
+                if (peerStats.histogram != null) {
+                    final Histogram histogram = histograms.get(role);
+
+                    if (histogram == null) {
+                        histograms.put(role, peerStats.histogram);
+                    }
+                    else {
+                        histogram.add(peerStats.histogram);
+                    }
+
+                    peerStats.histogram = null;
+                }
+            }
+        }
+
+        final List<StatsResponse> merged = new ArrayList<>(lastStats.size());
+        for (Map.Entry<String, List<StatsResponse>> entry : lastStats.entrySet()) {
+            merged.add(merge(entry.getKey(), entry.getValue(), histograms.get(entry.getKey()), now));
+        }
+
+        return merged;
+    }
+
+    private StatsResponse merge(final String role, final List<StatsResponse> details, final Histogram histogram,
+                                long now) throws IOException {
+        final StatsResponse merged = new StatsResponse();
+
+        int childCount = 0;
+        long count = 0;
+        double rate = 0;
+        double latency = 0;
+
+        for (StatsResponse last : details) {
+            childCount += last.getChildCount();
+            count += last.getCount();
+            rate += last.getRate();
+            latency = Math.max(latency, last.getLatency());
+
+            // Without histograms, the worst percentiles are the best upper bound that can be reported
+            merged.setLatencyP50(Math.max(merged.getLatencyP50(), last.getLatencyP50()));
+            merged.setLatencyP90(Math.max(merged.getLatencyP90(), last.getLatencyP90()));
+            merged.setLatencyP99(Math.max(merged.getLatencyP99(), last.getLatencyP99()));
+            merged.setLatencyP999(Math.max(merged.getLatencyP999(), last.getLatencyP999()));
+            merged.setLatencyMax(Math.max(merged.getLatencyMax(), last.getLatencyMax()));
+
+            merged.setStatsType(last.getStatsType());
+        }
+
+        merged.setName(role + "@" + host);
+        merged.setId(id + "-" + role);
+        merged.setRole(role);
+        merged.setChildCount(childCount);
+        merged.setCount(count);
+        merged.setRate(rate);
+        merged.setRoleInfo(details.size() + " peers");
+        merged.setTimestamp(Long.toString(now));
+
+        if (histogram != null && histogram.getTotalCount() > 0) {
+            merged.setLatency(histogram.getMean());
+            merged.setLatencyP50(histogram.getValueAtPercentile(50));
+            merged.setLatencyP90(histogram.getValueAtPercentile(90));
+            merged.setLatencyP99(histogram.getValueAtPercentile(99));
+            merged.setLatencyP999(histogram.getValueAtPercentile(99.9));
+            merged.setLatencyMax(histogram.getMaxValue());
+
+            histogram.setEndTimeStamp(now);
+        }
+        else {
+            merged.setLatency(latency);
+        }
+
+        merged.setLatencyHistogram(histogram);
+        merged.setPeerDetails(details);
+
+        return merged;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.aggregator.main;
+
+import org.maestro.aggregator.StatsAggregator;
+import org.maestro.client.MaestroReceiverClient;
+import org.maestro.client.exchange.AbstractMaestroPeer;
+import org.maestro.client.exchange.MaestroDeserializer;
+import org.maestro.client.exchange.MaestroTopics;
+import org.maestro.client.notes.StatsResponse;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.exceptions.MaestroException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A daemon that collects the stats published by the peers running on its host (on the host telemetry topic) and
+ * publishes them, merged, on the telemetry topic. The front-end receives a single note per role, host and interval
+ * instead of one note per peer.
+ */
+public class MaestroAggregator extends AbstractMaestroPeer<MaestroNote> {
+    private static final Logger logger = LoggerFactory.getLogger(MaestroAggregator.class);
+
+    private static final long INTERVAL = ConfigurationWrapper.getConfig()
+            .getLong("maestro.aggregator.interval", 1000);
+    private static final long EXPIRY = ConfigurationWrapper.getConfig()
+            .getLong("maestro.aggregator.expiry", 5 * INTERVAL);
+
+    private final String host;
+    private final MaestroReceiverClient client;
+    private final StatsAggregator aggregator;
+    private volatile boolean running = true;
+
+    public MaestroAggregator(final String maestroUrl, final String host) throws MaestroException {
+        super(maestroUrl, "aggregator", MaestroDeserializer::deserialize);
+
+        this.host = host;
+        client = new MaestroReceiverClient(maestroUrl, clientName, host, id);
+        aggregator = new StatsAggregator(host, id, EXPIRY);
+    }
+
+    @Override
+    protected void noteArrived(MaestroNote note) {
+        if (note instanceof StatsResponse) {
+            aggregator.record((StatsResponse) note);
+        }
+        else {
+            logger.trace("Ignoring note: {}", note);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    private void publish() {
+        try {
+            // Published as is: the merged stats are named after the role of the peers (ie.: role@host)
+            for (StatsResponse statsResponse : aggregator.aggregate()) {
+                client.publish(MaestroTopics.TELEMETRY_TOPIC, statsResponse);
+            }
+        }
+        catch (Exception e) {
+            logger.warn("Unable to publish the aggregated stats: {}", e.getMessage(), e);
+        }
+    }
+
+    public int run() throws MaestroException {
+        final String topic = MaestroTopics.hostTelemetryTopic(host);
+
+        logger.info("Aggregating the stats published on {} every {} ms", topic, INTERVAL);
+
+        connect();
+        client.connect();
+        subscribe(new String[] { topic });
+
+        try {
+            while (running) {
+                try {
+                    Thread.sleep(INTERVAL);
+                } catch (InterruptedException e) {
+                    logger.info("Interrupted while waiting for the stats");
+                    running = false;
+                }
+
+                publish();
+            }
+        }
+        finally {
+            disconnect();
+            client.disconnect();
+        }
+
+        return 0;
+    }
+}
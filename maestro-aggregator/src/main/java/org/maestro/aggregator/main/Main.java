@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.aggregator.main;
+
+import org.apache.commons.cli.*;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.Constants;
+import org.maestro.common.LogConfigurator;
+import org.maestro.common.NetworkUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.UnknownHostException;
+
+
+public class Main {
+    private static CommandLine cmdLine;
+
+    private static String maestroUrl;
+    private static String host;
+
+    /**
+     * Prints the help for the action and exit
+     * @param options the options object
+     * @param code the exit code
+     */
+    private static void help(final Options options, int code) {
+        HelpFormatter formatter = new HelpFormatter();
+
+        System.out.println("maestro " + Constants.VERSION + "\n");
+        formatter.printHelp(Constants.BIN_NAME, options);
+        System.exit(code);
+    }
+
+    private static void processCommand(String[] args) {
+        CommandLineParser parser = new DefaultParser();
+
+        Options options = new Options();
+
+        options.addOption("h", "help", false, "prints the help");
+        options.addOption("m", "maestro-url", true,
+                "maestro URL to connect to");
+        options.addOption("H", "host", true,
+                "optional hostname of the peers to aggregate (to override auto-detection)");
+
+        try {
+            cmdLine = parser.parse(options, args);
+        } catch (ParseException e) {
+            help(options, -1);
+        }
+
+        if (cmdLine.hasOption("help")) {
+            help(options, 0);
+        }
+
+        maestroUrl = cmdLine.getOptionValue('m');
+        if (maestroUrl == null) {
+            help(options, -1);
+        }
+
+        host = cmdLine.getOptionValue('H');
+        if (host == null) {
+            try {
+                host = NetworkUtils.getHost("maestro.aggregator.host");
+            } catch (UnknownHostException e) {
+                System.err.println("Unable to determine the hostname and the peer hostname is missing (set with option -H)");
+                help(options, -1);
+            }
+        }
+    }
+
+
+    public static void main(String[] args) {
+        try {
+            ConfigurationWrapper.initConfiguration(Constants.MAESTRO_CONFIG_DIR, "maestro-aggregator.properties");
+        } catch (Exception e) {
+            System.err.println("Unable to initialize configuration file: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+
+        processCommand(args);
+
+        LogConfigurator.defaultForDaemons();
+
+        try {
+            MaestroAggregator aggregator = new MaestroAggregator(maestroUrl, host);
+
+            System.exit(aggregator.run());
+        } catch (Exception e) {
+            Logger logger = LoggerFactory.getLogger(Main.class);
+
+            logger.error("Unable to start Maestro aggregator: {}", e.getMessage(), e);
+
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.aggregator;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+import org.maestro.client.exchange.MaestroDeserializer;
+import org.maestro.client.notes.StatsResponse;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatsAggregatorTest {
+    private static final long EXPIRY = 5000;
+
+    private static StatsResponse peerStats(final String id, final String role, long count, double rate,
+                                           long intervalEnd, long from, long to) throws Exception {
+        StatsResponse statsResponse = new StatsResponse();
+
+        statsResponse.setName(role + "@host");
+        statsResponse.setId(id);
+        statsResponse.setRole(role);
+        statsResponse.setRoleInfo("");
+        statsResponse.setTimestamp("0");
+        statsResponse.setChildCount(2);
+        statsResponse.setCount(count);
+        statsResponse.setRate(rate);
+
+        Histogram histogram = new Histogram(3);
+        for (long i = from; i <= to; i++) {
+            histogram.recordValue(i);
+        }
+        histogram.setEndTimeStamp(intervalEnd);
+        statsResponse.setLatencyHistogram(histogram);
+
+        // As received from the peers
+        return (StatsResponse) MaestroDeserializer.deserialize(statsResponse.serialize());
+    }
+
+    private static StatsResponse received(final StatsResponse merged) throws Exception {
+        return (StatsResponse) MaestroDeserializer.deserialize(merged.serialize());
+    }
+
+    @Test
+    public void aggregatePeerStats() throws Exception {
+        StatsAggregator aggregator = new StatsAggregator("host", "aggregator", EXPIRY);
+
+        aggregator.record(peerStats("receiver-1", "receiver", 100, 10, 1000, 1, 500), 0);
+        aggregator.record(peerStats("receiver-2", "receiver", 200, 20, 1000, 501, 900), 0);
+        // A second publish of the same interval replaces the counters of the peer but doesn't add its latencies again
+        aggregator.record(peerStats("receiver-2", "receiver", 300, 30, 1000, 501, 900), 0);
+        // A new interval of the peer is added
+        aggregator.record(peerStats("receiver-2", "receiver", 300, 30, 2000, 901, 1000), 0);
+
+        List<StatsResponse> aggregated = aggregator.aggregate(0);
+        assertEquals(1, aggregated.size());
+
+        StatsResponse merged = received(aggregated.get(0));
+
+        assertEquals("receiver@host", merged.getName());
+        assertEquals("receiver", merged.getRole());
+        assertEquals(4, merged.getChildCount());
+        assertEquals(400, merged.getCount());
+        assertEquals(40, merged.getRate(), 0.0);
+        assertEquals(1000, merged.getLatencyHistogram().getTotalCount());
+        assertEquals(500, merged.getLatencyP50(), 1);
+        assertEquals(1000, merged.getLatencyMax(), 1);
+
+        List<StatsResponse> peers = merged.getPeerDetails();
+        assertEquals(2, peers.size());
+
+        long count = 0;
+        for (StatsResponse peer : peers) {
+            assertEquals("receiver", peer.getRole());
+            count += peer.getCount();
+        }
+        assertEquals(400, count);
+    }
+
+    @Test
+    public void aggregatePerRole() throws Exception {
+        StatsAggregator aggregator = new StatsAggregator("host", "aggregator", EXPIRY);
+
+        aggregator.record(peerStats("sender-1", "sender", 100, 10, 1000, 1, 100), 0);
+        aggregator.record(peerStats("sender-2", "sender", 150, 15, 1000, 1, 100), 0);
+        aggregator.record(peerStats("receiver-1", "receiver", 90, 9, 1000, 101, 200), 0);
+
+        List<StatsResponse> aggregated = aggregator.aggregate(0);
+        assertEquals(2, aggregated.size());
+
+        for (StatsResponse stats : aggregated) {
+            StatsResponse merged = received(stats);
+
+            if (merged.getRole().equals("sender")) {
+                assertEquals("sender@host", merged.getName());
+                assertEquals(250, merged.getCount());
+                assertEquals(25, merged.getRate(), 0.0);
+                assertEquals(200, merged.getLatencyHistogram().getTotalCount());
+                assertEquals(100, merged.getLatencyMax(), 1);
+            }
+            else {
+                assertEquals("receiver", merged.getRole());
+                assertEquals("receiver@host", merged.getName());
+                assertEquals(90, merged.getCount());
+                assertEquals(9, merged.getRate(), 0.0);
+                assertEquals(100, merged.getLatencyHistogram().getTotalCount());
+                assertEquals(200, merged.getLatencyMax(), 1);
+            }
+        }
+
+        assertNotEquals(aggregated.get(0).getId(), aggregated.get(1).getId());
+    }
+
+    @Test
+    public void aggregateWithMissedInterval() throws Exception {
+        StatsAggregator aggregator = new StatsAggregator("host", "aggregator", EXPIRY);
+
+        aggregator.record(peerStats("receiver-1", "receiver", 100, 10, 1000, 1, 100), 0);
+        aggregator.record(peerStats("receiver-2", "receiver", 100, 10, 1000, 1, 100), 0);
+        assertEquals(200, aggregator.aggregate(1000).get(0).getCount());
+
+        // The second peer misses this interval: its last counts are kept, but its latencies are not added again
+        aggregator.record(peerStats("receiver-1", "receiver", 150, 10, 2000, 1, 50), 1500);
+
+        StatsResponse merged = received(aggregator.aggregate(2000).get(0));
+        assertEquals(250, merged.getCount());
+        assertEquals(20, merged.getRate(), 0.0);
+        assertEquals(2, merged.getPeerDetails().size());
+        assertEquals(50, merged.getLatencyHistogram().getTotalCount());
+
+        // Without any new interval, there are no latencies to merge
+        StatsResponse idle = received(aggregator.aggregate(3000).get(0));
+        assertEquals(250, idle.getCount());
+        assertNull(idle.getLatencyHistogram());
+
+        // Once expired, the second peer is no longer accounted
+        StatsResponse expired = received(aggregator.aggregate(1500 + EXPIRY).get(0));
+        assertEquals(150, expired.getCount());
+        assertEquals(1, expired.getPeerDetails().size());
+
+        assertTrue(aggregator.aggregate(1501 + EXPIRY).isEmpty());
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.benchmarks;
+
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.JnaDirectNativeClock;
+import org.maestro.common.duration.JnaStructNativeClock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of reading the time with each of the {@link EpochMicroClock} implementations, which is paid
+ * twice for every message exchanged by the workers. Run it with more threads (ie.: -t 4) to see how the shared
+ * clocks scale.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EpochClockBenchmark {
+
+    @State(Scope.Thread)
+    public static class ExclusiveClocks {
+        EpochMicroClock jnaDirect;
+        EpochMicroClock jnaStruct;
+        EpochMicroClock calibrated;
+
+        @Setup
+        public void setUp() {
+            jnaDirect = new JnaDirectNativeClock();
+            jnaStruct = new JnaStructNativeClock();
+            calibrated = EpochClocks.calibratedMicro();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedClocks {
+        EpochMicroClock calibrated;
+        EpochMicroClock shared;
+
+        @Setup
+        public void setUp() {
+            calibrated = EpochClocks.calibratedMicro();
+            shared = EpochClocks.sharedMicro();
+        }
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long jnaDirect(final ExclusiveClocks clocks) {
+        return clocks.jnaDirect.microTime();
+    }
+
+    @Benchmark
+    public long jnaStruct(final ExclusiveClocks clocks) {
+        return clocks.jnaStruct.microTime();
+    }
+
+    @Benchmark
+    public long calibrated(final ExclusiveClocks clocks) {
+        return clocks.calibrated.microTime();
+    }
+
+    @Benchmark
+    public long calibratedShared(final SharedClocks clocks) {
+        return clocks.calibrated.microTime();
+    }
+
+    @Benchmark
+    public long shared(final SharedClocks clocks) {
+        return clocks.shared.microTime();
+    }
+}
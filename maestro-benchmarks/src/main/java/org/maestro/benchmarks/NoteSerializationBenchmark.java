@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.benchmarks;
+
+import org.HdrHistogram.Histogram;
+import org.maestro.client.exchange.MaestroDeserializer;
+import org.maestro.client.notes.SetRequest;
+import org.maestro.client.notes.StatsResponse;
+import org.maestro.common.client.notes.MaestroNote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of serializing and deserializing the notes exchanged most often with the front-end: the stats
+ * responses, which every peer sends periodically, and the set requests sent before every test. Run it with the
+ * -prof gc profiler to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NoteSerializationBenchmark {
+    private StatsResponse statsResponse;
+    private SetRequest setRequest;
+    private byte[] serializedStatsResponse;
+    private byte[] serializedSetRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        statsResponse = new StatsResponse();
+        statsResponse.setId("c8a5f1b2-3a54-4a5e-9d27-3f8e4a0f3b6e");
+        statsResponse.setName("sender@localhost");
+        statsResponse.setChildCount(4);
+        statsResponse.setRole("sender");
+        statsResponse.setRoleInfo("");
+        statsResponse.setTimestamp("1540000000");
+        statsResponse.setCount(1_000_000);
+        statsResponse.setRate(10_000);
+        statsResponse.setLatency(1.5);
+
+        final Histogram histogram = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+        for (int i = 1; i <= 10_000; i++) {
+            histogram.recordValue(i);
+        }
+        statsResponse.setLatencyHistogram(histogram);
+
+        setRequest = new SetRequest();
+        setRequest.setBroker("amqp://localhost:5672/test.performance.queue");
+
+        serializedStatsResponse = statsResponse.serialize();
+        serializedSetRequest = setRequest.serialize();
+    }
+
+    @Benchmark
+    public byte[] serializeStatsResponse() throws IOException {
+        return statsResponse.serialize();
+    }
+
+    @Benchmark
+    public MaestroNote deserializeStatsResponse() throws IOException {
+        return MaestroDeserializer.deserialize(serializedStatsResponse);
+    }
+
+    @Benchmark
+    public MaestroNote roundTripStatsResponse() throws IOException {
+        return MaestroDeserializer.deserialize(statsResponse.serialize());
+    }
+
+    @Benchmark
+    public MaestroNote roundTripSetRequest() throws IOException {
+        return MaestroDeserializer.deserialize(setRequest.serialize());
+    }
+
+    @Benchmark
+    public MaestroNote deserializeSetRequest() throws IOException {
+        return MaestroDeserializer.deserialize(serializedSetRequest);
+    }
+}
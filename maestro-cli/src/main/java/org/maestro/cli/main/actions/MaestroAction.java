@@ -77,7 +77,7 @@ public class MaestroAction extends Action {
                     break;
                 }
                 case "stats": {
-                    maestro.statsRequest();
+                    maestro.pollStats();
                     break;
                 }
                 case "halt": {
@@ -20,18 +20,24 @@ import org.maestro.client.exchange.MaestroCollector;
 import org.maestro.client.exchange.MaestroCollectorExecutor;
 import org.maestro.client.exchange.MaestroMqttClient;
 import org.maestro.client.exchange.MaestroTopics;
+import org.maestro.client.exchange.PendingReplies;
 import org.maestro.client.notes.*;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.client.MaestroClient;
 import org.maestro.common.client.MaestroRequester;
 import org.maestro.common.client.notes.GetOption;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.maestro.common.exceptions.MaestroException;
+import org.maestro.common.worker.ClockCorrections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -45,6 +51,10 @@ public final class Maestro implements MaestroRequester {
     private MaestroClient maestroClient;
     private final MaestroCollectorExecutor collectorExecutor;
     private final Thread collectorThread;
+    private final boolean telemetry = ConfigurationWrapper.getConfig().getBoolean("maestro.stats.telemetry", false);
+    private final long telemetryTimeout = ConfigurationWrapper.getConfig()
+            .getLong("maestro.stats.telemetry.timeout", 5000);
+    private boolean telemetryLate = false;
 
     /**
      * Constructor
@@ -116,6 +126,56 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Sends a ping request and waits for the replies of the peers
+     * @param topic the topic to send the request to
+     * @param expect the number of replies to wait for
+     * @param timeout how long to wait for the replies
+     * @param unit the unit of the timeout
+     * @return a future completed with the replies
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     * @see #request(String, MaestroNote, int, long, TimeUnit)
+     */
+    public CompletableFuture<List<MaestroNote>> pingRequest(final String topic, int expect, long timeout,
+                                                            final TimeUnit unit) throws MaestroConnectionException {
+        return request(topic, new PingRequest(), expect, timeout, unit);
+    }
+
+
+    /**
+     * Sends a request and waits, in background, for the replies of the peers. The replies are matched to the
+     * request by a correlation id, so they are not returned by the collect methods
+     * @param topic the topic to send the request to
+     * @param note the request
+     * @param expect the number of replies to wait for (usually, the number of peers subscribed to the topic)
+     * @param timeout how long to wait for the replies
+     * @param unit the unit of the timeout
+     * @return a future completed with the replies as soon as the expected number of them arrive or, on timeout,
+     * with the replies received so far. It may contain error replies
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public CompletableFuture<List<MaestroNote>> request(final String topic, final MaestroNote note, int expect,
+                                                        long timeout, final TimeUnit unit)
+            throws MaestroConnectionException {
+        final PendingReplies pendingReplies = collectorExecutor.getCollector().getPendingReplies();
+        final String correlationId = PendingReplies.newCorrelationId();
+
+        note.setCorrelationId(correlationId);
+        final CompletableFuture<List<MaestroNote>> replies = pendingReplies.register(correlationId, expect, timeout,
+                unit);
+
+        try {
+            maestroClient.publish(topic, note);
+        }
+        catch (MaestroException e) {
+            pendingReplies.cancel(correlationId);
+            throw e;
+        }
+
+        return replies;
+    }
+
+
     /**
      * Sends a set broker request
      * @param value The value to set the (remote) parameter to
@@ -321,6 +381,63 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Sends a set latency highest trackable value request
+     * @param value The highest latency value, in microseconds, or "auto" for auto-resizing histograms
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setLatencyHighestValue(final String value) throws MaestroConnectionException {
+        SetRequest maestroNote = new SetRequest();
+
+        maestroNote.setLatencyHighestValue(value);
+
+        maestroClient.publish(MaestroTopics.ALL_DAEMONS, maestroNote);
+    }
+
+
+    /**
+     * Sends a set latency precision request
+     * @param value The number of significant digits kept by the latency histograms
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setLatencyPrecision(final int value) throws MaestroConnectionException {
+        SetRequest maestroNote = new SetRequest();
+
+        maestroNote.setLatencyPrecision(Integer.toString(value));
+
+        maestroClient.publish(MaestroTopics.ALL_DAEMONS, maestroNote);
+    }
+
+
+    /**
+     * Sends a set clock corrections request to the receivers
+     * @param corrections The clock corrections, in microseconds, indexed by the receiver id
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setClockCorrections(final Map<String, Long> corrections) throws MaestroConnectionException {
+        SetRequest maestroNote = new SetRequest();
+
+        maestroNote.setClockCorrections(ClockCorrections.format(corrections));
+
+        maestroClient.publish(MaestroTopics.RECEIVER_DAEMONS, maestroNote);
+    }
+
+
+    /**
+     * Sends a set clock offsets request to all the peers
+     * @param offsets How far ahead of the front-end clock the clock of each peer is, in microseconds, indexed by
+     *                the peer id
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void setClockOffsets(final Map<String, Long> offsets) throws MaestroConnectionException {
+        SetRequest maestroNote = new SetRequest();
+
+        maestroNote.setClockOffsets(ClockCorrections.format(offsets));
+
+        maestroClient.publish(MaestroTopics.ALL_DAEMONS, maestroNote);
+    }
+
+
     /**
      * Sets the management interface URL
      * @param value The management interface URL
@@ -372,6 +489,19 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Sends a start sender request scheduled to a given instant, so that all the senders start at the same time
+     * @param startEpochMicros the instant the test should start, in microseconds since the epoch. It should leave
+     *                         enough time for the peers to receive the request and prepare the workers
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void startSender(long startEpochMicros) throws MaestroConnectionException {
+        StartSender maestroNote = new StartSender(startEpochMicros);
+
+        maestroClient.publish(MaestroTopics.SENDER_DAEMONS, maestroNote);
+    }
+
+
     /**
      * Sends a stop sender request
      * @throws MaestroConnectionException if unable to send the MQTT request
@@ -393,6 +523,19 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Sends a start receiver request scheduled to a given instant, so that all the receivers start at the same time
+     * @param startEpochMicros the instant the test should start, in microseconds since the epoch. It should leave
+     *                         enough time for the peers to receive the request and prepare the workers
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public void startReceiver(long startEpochMicros) throws MaestroConnectionException {
+        StartReceiver maestroNote = new StartReceiver(startEpochMicros);
+
+        maestroClient.publish(MaestroTopics.RECEIVER_DAEMONS, maestroNote);
+    }
+
+
     /**
      * Sends a stop receiver request
      * @throws MaestroConnectionException if unable to send the MQTT request
@@ -415,6 +558,50 @@ public final class Maestro implements MaestroRequester {
     }
 
 
+    /**
+     * Sends a stats request, unless the peers publish their stats on their own (ie.: if maestro.stats.telemetry is
+     * enabled). If no stats were published within maestro.stats.telemetry.timeout milliseconds (ie.: if the peers
+     * were not configured to publish them), it sends the request anyway, so the stats are still received
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    public synchronized void pollStats() throws MaestroConnectionException {
+        if (telemetry) {
+            final long elapsed = System.currentTimeMillis() - getCollector().getLastTelemetryMillis();
+
+            if (elapsed <= telemetryTimeout) {
+                if (telemetryLate) {
+                    logger.info("Receiving the stats telemetry again: not requesting the stats anymore");
+                    telemetryLate = false;
+                }
+
+                return;
+            }
+
+            if (!telemetryLate) {
+                logger.warn("No stats telemetry received in the last {} ms: requesting the stats", elapsed);
+                telemetryLate = true;
+            }
+        }
+
+        statsRequest();
+    }
+
+
+    /**
+     * Sends a stats request and waits for the replies of the peers
+     * @param expect the number of replies to wait for
+     * @param timeout how long to wait for the replies
+     * @param unit the unit of the timeout
+     * @return a future completed with the replies
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     * @see #request(String, MaestroNote, int, long, TimeUnit)
+     */
+    public CompletableFuture<List<MaestroNote>> statsRequest(int expect, long timeout, final TimeUnit unit)
+            throws MaestroConnectionException {
+        return request(MaestroTopics.ALL_DAEMONS, new StatsRequest(), expect, timeout, unit);
+    }
+
+
     /**
      * Sends a halt request
      * @throws MaestroConnectionException if unable to send the MQTT request
@@ -47,12 +47,13 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         this.epochMicroClock = EpochClocks.exclusiveMicro();
     }
 
-    public void replyOk() {
+    public void replyOk(final String correlationId) {
         logger.trace("Sending the OK response from {}", this.toString());
         OkResponse okResponse = new OkResponse();
 
         okResponse.setName(clientName + "@" + host);
         okResponse.setId(id);
+        okResponse.setCorrelationId(correlationId);
 
         try {
             super.publish(MaestroTopics.MAESTRO_TOPIC, okResponse);
@@ -61,12 +62,13 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         }
     }
 
-    public void replyInternalError() {
+    public void replyInternalError(final String correlationId) {
         logger.trace("Sending the internal error response from {}", this.toString());
         InternalError errResponse = new InternalError();
 
         errResponse.setName(clientName + "@" + host);
         errResponse.setId(id);
+        errResponse.setCorrelationId(correlationId);
 
         try {
             super.publish(MaestroTopics.MAESTRO_TOPIC, errResponse);
@@ -75,7 +77,7 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         }
     }
 
-    public void pingResponse(long sec, long uSec) {
+    public void pingResponse(long sec, long uSec, final String correlationId) {
         logger.trace("Creation seconds.micro: {}.{}", sec, uSec);
 
         final long creationEpochMicros = TimeUnit.SECONDS.toMicros(sec) + uSec;
@@ -88,6 +90,10 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
         response.setElapsed(TimeUnit.MICROSECONDS.toMillis(elapsedMicros));
         response.setName(clientName + "@" + host);
         response.setId(id);
+        response.setCorrelationId(correlationId);
+        response.setRequestEpochMicros(creationEpochMicros);
+        response.setReceiveEpochMicros(nowMicros);
+        response.setResponseEpochMicros(epochMicroClock.microTime());
 
         super.publish(MaestroTopics.MAESTRO_TOPIC, response);
     }
@@ -135,10 +141,12 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
     /**
      * Publishes a stats response as a reply to a stats request
      * @param statsResponse the stats response to publish
+     * @param correlationId the correlation id of the stats request or null if it is not correlated
      */
-    public void statsResponse(final StatsResponse statsResponse) {
+    public void statsResponse(final StatsResponse statsResponse, final String correlationId) {
         statsResponse.setName(clientName + "@" + host);
         statsResponse.setId(id);
+        statsResponse.setCorrelationId(correlationId);
 
         try {
             super.publish(MaestroTopics.MAESTRO_TOPIC, statsResponse, 0, false);
@@ -148,13 +156,40 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
     }
 
 
+    /**
+     * Publishes the periodic stats of this peer on the telemetry topic. They are not a reply to any request
+     * @param statsResponse the stats to publish
+     */
+    public void telemetry(final StatsResponse statsResponse) {
+        statsResponse.setName(clientName + "@" + host);
+        statsResponse.setId(id);
+
+        super.publish(MaestroTopics.TELEMETRY_TOPIC, statsResponse, 0, false);
+    }
+
+
+    /**
+     * Publishes the periodic stats of this peer to the aggregator running on its host, which merges them with the
+     * stats of the other local peers before publishing them on the telemetry topic
+     * @param statsResponse the stats to publish
+     */
+    public void hostTelemetry(final StatsResponse statsResponse) {
+        statsResponse.setName(clientName + "@" + host);
+        statsResponse.setId(id);
+
+        super.publish(MaestroTopics.hostTelemetryTopic(host), statsResponse, 0, false);
+    }
+
+
     /**
      * Publishes a get response as a reply to a get request
      * @param getResponse the get response to publish
+     * @param correlationId the correlation id of the get request or null if it is not correlated
      */
-    public void getResponse(final GetResponse getResponse) {
+    public void getResponse(final GetResponse getResponse, final String correlationId) {
         getResponse.setName(clientName + "@" + host);
         getResponse.setId(id);
+        getResponse.setCorrelationId(correlationId);
 
         try {
             super.publish(MaestroTopics.MAESTRO_TOPIC, getResponse, 0, false);
@@ -166,10 +201,12 @@ public class MaestroReceiverClient extends MaestroMqttClient implements MaestroR
     /**
      *  Publishes a agent general response as a reply to a agent general request
      * @param userCommand1Response the agent general response to publish
+     * @param correlationId the correlation id of the agent general request or null if it is not correlated
      */
-    public void AgentGeneralResponse(final UserCommand1Response userCommand1Response) {
+    public void AgentGeneralResponse(final UserCommand1Response userCommand1Response, final String correlationId) {
         userCommand1Response.setName(clientName + "@" + host);
         userCommand1Response.setId(id);
+        userCommand1Response.setCorrelationId(correlationId);
 
         // @TODO jstejska: delete after test
         logger.debug(userCommand1Response.toString());
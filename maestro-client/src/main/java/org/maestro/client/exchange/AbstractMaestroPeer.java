@@ -19,6 +19,7 @@ package org.maestro.client.exchange;
 import org.eclipse.paho.client.mqttv3.*;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.maestro.common.URLUtils;
+import org.maestro.common.affinity.CpuAffinity;
 import org.maestro.common.client.exceptions.MalformedNoteException;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.exceptions.MaestroConnectionException;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.UUID;
 
 
@@ -46,6 +48,8 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
     protected String clientName;
     protected String id;
     private final MaestroNoteDeserializer<? extends T> deserializer;
+    private volatile BitSet callbackCores = new BitSet();
+    private Thread pinnedCallbackThread;
 
     public AbstractMaestroPeer(final String url, final String clientName, MaestroNoteDeserializer<? extends T> deserializer) throws MaestroConnectionException {
 
@@ -70,6 +74,14 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
         this.deserializer = deserializer;
     }
 
+    /**
+     * Sets the CPU cores the MQTT callback thread is pinned to. The thread is pinned when the next message arrives
+     * @param callbackCores the set of cores (empty to leave the thread unpinned)
+     */
+    public void setCallbackAffinity(final BitSet callbackCores) {
+        this.callbackCores = callbackCores;
+    }
+
     public String getClientName() {
         return clientName;
     }
@@ -159,6 +171,13 @@ public abstract class AbstractMaestroPeer<T extends MaestroNote> implements Mqtt
     public void messageArrived(String s, MqttMessage mqttMessage) {
         logger.trace("Message arrived on topic {}", s);
 
+        // The callback thread may be replaced by the MQTT client (ie.: on reconnection)
+        final Thread currentThread = Thread.currentThread();
+        if (pinnedCallbackThread != currentThread && !callbackCores.isEmpty()) {
+            CpuAffinity.pinCurrentThread(callbackCores);
+            pinnedCallbackThread = currentThread;
+        }
+
         byte[] payload = mqttMessage.getPayload();
 
         try {
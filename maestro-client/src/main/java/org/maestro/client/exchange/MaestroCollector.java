@@ -16,36 +16,110 @@
 
 package org.maestro.client.exchange;
 
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.maestro.client.callback.MaestroNoteCallback;
+import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-
-
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+
+/**
+ * Collects the notes sent to the front-end. The notes are dispatched to the callbacks subscribed to their commands
+ * and queued to be collected later. The notes arrive on the MQTT callback thread, so the callbacks that may take a
+ * while should be subscribed with {@link #subscribeAsync(MaestroCommand, MaestroNoteCallback)}, which runs them, in
+ * the order the notes arrive, on a dispatcher thread.
+ */
 public class MaestroCollector extends AbstractMaestroPeer<MaestroNote> {
     private static final Logger logger = LoggerFactory.getLogger(MaestroCollector.class);
-    private boolean running = true;
-
-    private final List<MaestroNote> collected = Collections.synchronizedList(new LinkedList<MaestroNote>());
-    private final List<MaestroNoteCallback> callbacks = new LinkedList<>();
+    private volatile boolean running = true;
+
+    // The notes are queued by the MQTT callback thread only and drained by collect(), which is synchronized
+    private final Queue<MaestroNote> collected = new ManyToOneConcurrentLinkedQueue<>();
+    private final List<MaestroNoteCallback> callbacks = new CopyOnWriteArrayList<>();
+    // All the commands are mapped upfront, so that the map itself is never modified after construction
+    private final Map<MaestroCommand, List<MaestroNoteCallback>> subscriptions = new EnumMap<>(MaestroCommand.class);
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "maestro-collector-dispatcher");
+
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final PendingReplies pendingReplies = new PendingReplies();
+    private volatile long lastTelemetryMillis = System.currentTimeMillis();
 
     public MaestroCollector(final String url) throws MaestroConnectionException {
         super(url, "maestro-java-collector",MaestroDeserializer::deserialize);
+
+        for (MaestroCommand command : MaestroCommand.values()) {
+            subscriptions.put(command, new CopyOnWriteArrayList<>());
+        }
+    }
+
+
+    private static void call(final MaestroNoteCallback callback, final MaestroNote note) {
+        try {
+            callback.call(note);
+        }
+        catch (Exception e) {
+            logger.error("Unhandled exception on a note callback: {}", e.getMessage(), e);
+        }
     }
 
+    @Override
+    public void messageArrived(String topic, MqttMessage mqttMessage) {
+        if (MaestroTopics.TELEMETRY_TOPIC.equals(topic)) {
+            lastTelemetryMillis = System.currentTimeMillis();
+        }
+
+        super.messageArrived(topic, mqttMessage);
+    }
 
     @Override
     protected void noteArrived(MaestroNote note) {
         for (MaestroNoteCallback callback : callbacks) {
-            callback.call(note);
+            call(callback, note);
+        }
+
+        for (MaestroNoteCallback callback : subscriptions.get(note.getMaestroCommand())) {
+            call(callback, note);
+        }
+
+        // Replies to the requests waiting for them are not collected
+        if (!pendingReplies.offer(note)) {
+            collected.offer(note);
         }
+    }
+
+    /**
+     * Subscribes a callback to the notes with the given command. The callback is run on the MQTT callback thread,
+     * so it must return quickly
+     * @param command the command
+     * @param callback the callback
+     */
+    public void subscribe(final MaestroCommand command, final MaestroNoteCallback callback) {
+        subscriptions.get(command).add(callback);
+    }
 
-        collected.add(note);
+    /**
+     * Subscribes a callback to the notes with the given command. The callback is run on the dispatcher thread
+     * shared by all the asynchronous callbacks of this collector
+     * @param command the command
+     * @param callback the callback
+     */
+    public void subscribeAsync(final MaestroCommand command, final MaestroNoteCallback callback) {
+        subscribe(command, note -> dispatcher.execute(() -> call(callback, note)));
     }
 
     public void setRunning(boolean running) {
@@ -59,15 +133,43 @@ public class MaestroCollector extends AbstractMaestroPeer<MaestroNote> {
 
     public synchronized List<MaestroNote> collect() {
         logger.trace("Collecting messages");
-        List<MaestroNote> ret = new LinkedList<>(collected);
+        List<MaestroNote> ret = new ArrayList<>();
 
-        collected.clear();
+        MaestroNote note;
+        while ((note = collected.poll()) != null) {
+            ret.add(note);
+        }
 
         logger.trace("Number of messages collected: {}", ret.size());
         return ret;
     }
 
+    /**
+     * Gets when the last note was received on the telemetry topic or, if none was received yet, when this collector
+     * was created
+     * @return the time in milliseconds since the epoch
+     */
+    public long getLastTelemetryMillis() {
+        return lastTelemetryMillis;
+    }
+
+    public PendingReplies getPendingReplies() {
+        return pendingReplies;
+    }
+
+    /**
+     * Gets the callbacks called for every note. It is safe to add callbacks while the notes are arriving
+     * @return the list of callbacks
+     */
     public List<MaestroNoteCallback> getCallbacks() {
         return callbacks;
     }
+
+    /**
+     * Stops dispatching the notes to the asynchronous callbacks and completes the pending requests
+     */
+    public void close() {
+        dispatcher.shutdown();
+        pendingReplies.close();
+    }
 }
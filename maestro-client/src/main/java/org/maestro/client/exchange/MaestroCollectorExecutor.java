@@ -16,6 +16,7 @@
 
 package org.maestro.client.exchange;
 
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.slf4j.Logger;
@@ -41,7 +42,13 @@ public class MaestroCollectorExecutor extends AbstractMaestroExecutor {
         logger.trace("Created a new maestro collector executor");
 
         getMaestroPeer().connect();
-        getMaestroPeer().subscribe(MaestroTopics.MAESTRO_TOPICS);
+        // The telemetry is only received when used, since the peers may publish it even if no one does
+        if (ConfigurationWrapper.getConfig().getBoolean("maestro.stats.telemetry", false)) {
+            getMaestroPeer().subscribe(MaestroTopics.MAESTRO_TELEMETRY_TOPICS);
+        }
+        else {
+            getMaestroPeer().subscribe(MaestroTopics.MAESTRO_TOPICS);
+        }
     }
 
 
@@ -61,6 +68,7 @@ public class MaestroCollectorExecutor extends AbstractMaestroExecutor {
         MaestroCollector maestroCollector = (MaestroCollector) super.getMaestroPeer();
 
         maestroCollector.setRunning(false);
+        maestroCollector.close();
     }
 
     public MaestroCollector getCollector() {
@@ -16,180 +16,105 @@
 
 package org.maestro.client.exchange;
 
-import org.maestro.client.notes.*;
-import org.maestro.client.notes.InternalError;
+import org.maestro.client.notes.CorrelationIds;
+import org.maestro.client.notes.MaestroEvent;
+import org.maestro.client.notes.MessagePackPool;
 import org.maestro.common.client.exceptions.MalformedNoteException;
 import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.client.notes.MaestroNoteType;
-import org.msgpack.core.MessagePack;
 import org.msgpack.core.MessageUnpacker;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.msgpack.core.buffer.ArrayBufferInput;
 
 import java.io.IOException;
-import java.util.Objects;
 
+/**
+ * Deserializes the notes using the factories registered on the {@link MaestroNoteRegistry}. The unpackers are
+ * pooled per thread.
+ */
 public class MaestroDeserializer {
-    private static final Logger logger = LoggerFactory.getLogger(MaestroDeserializer.class);
 
-    private static MaestroNotification deserializeNotification(MessageUnpacker unpacker) throws IOException, MalformedNoteException {
-        long tmpCommand = unpacker.unpackLong();
-        MaestroCommand command = MaestroCommand.from(tmpCommand);
+    /*
+     * The correlation id, if any, is the last value of the note. It is read before anything else and then left out
+     * of the input, so that the notes reading their own optional trailing fields never see it.
+     */
+    private static String unpackCorrelationId(final MessageUnpacker unpacker, final byte[] bytes) throws IOException {
+        int lastValueOffset = 0;
 
-        switch (Objects.requireNonNull(command)) {
-            case MAESTRO_NOTE_NOTIFY_FAIL: {
-                return new TestFailedNotification(unpacker);
-            }
-            case MAESTRO_NOTE_NOTIFY_SUCCESS: {
-                return new TestSuccessfulNotification(unpacker);
-            }
-            case MAESTRO_NOTE_ABNORMAL_DISCONNECT: {
-                return new AbnormalDisconnect(unpacker);
-            }
-            default: {
-                throw new MalformedNoteException("Invalid notification command: " + tmpCommand);
-            }
+        while (unpacker.hasNext()) {
+            lastValueOffset = (int) unpacker.getTotalReadBytes();
+            unpacker.skipValue();
         }
+
+        unpacker.reset(new ArrayBufferInput(bytes, lastValueOffset, bytes.length - lastValueOffset));
+        final String correlationId = CorrelationIds.unpack(unpacker);
+
+        final int fieldsLength = correlationId == null ? bytes.length : lastValueOffset;
+        unpacker.reset(new ArrayBufferInput(bytes, 0, fieldsLength));
+
+        return correlationId;
     }
 
-    private static MaestroResponse deserializeResponse(MessageUnpacker unpacker) throws IOException, MalformedNoteException {
-        long tmpCommand = unpacker.unpackLong();
-        MaestroCommand command = MaestroCommand.from(tmpCommand);
+    private static MaestroNoteType unpackType(MessageUnpacker unpacker) throws IOException, MalformedNoteException {
+        final short tmpType = unpacker.unpackShort();
+        final MaestroNoteType type = MaestroNoteType.from(tmpType);
 
-        switch (Objects.requireNonNull(command)) {
-            case MAESTRO_NOTE_OK: {
-                return new OkResponse();
-            }
-            case MAESTRO_NOTE_PING: {
-                return new PingResponse(unpacker);
-            }
-            case MAESTRO_NOTE_INTERNAL_ERROR: {
-                return new InternalError();
-            }
-            case MAESTRO_NOTE_PROTOCOL_ERROR: {
-                return new ProtocolError();
-            }
-            case MAESTRO_NOTE_STATS: {
-                return new StatsResponse(unpacker);
-            }
-            case MAESTRO_NOTE_GET: {
-                return new GetResponse(unpacker);
-            }
-            case MAESTRO_NOTE_USER_COMMAND_1: {
-                return new UserCommand1Response(unpacker);
-            }
-            case MAESTRO_NOTE_START_RECEIVER:
-            case MAESTRO_NOTE_STOP_RECEIVER:
-            case MAESTRO_NOTE_START_SENDER:
-            case MAESTRO_NOTE_STOP_SENDER:
-            case MAESTRO_NOTE_START_INSPECTOR:
-            case MAESTRO_NOTE_STOP_INSPECTOR:
-            case MAESTRO_NOTE_FLUSH:
-            case MAESTRO_NOTE_SET:
-            case MAESTRO_NOTE_HALT:
-            case MAESTRO_NOTE_START_AGENT:
-            case MAESTRO_NOTE_STOP_AGENT:{
-                logger.warn("Unexpected maestro command for a response: {}", tmpCommand);
-            }
-            default: {
-                logger.error("Type unknown: {}", command.getClass());
-                throw new MalformedNoteException("Invalid response command: " + tmpCommand);
-            }
+        if (type == null) {
+            throw new MalformedNoteException("Invalid note type: " + tmpType);
         }
 
+        return type;
     }
 
-    private static MaestroRequest deserializeRequest(MessageUnpacker unpacker) throws IOException, MalformedNoteException {
-        long tmpCommand = unpacker.unpackLong();
-        MaestroCommand command = MaestroCommand.from(tmpCommand);
+    private static MaestroNote deserialize(final MaestroNoteType type, final MessageUnpacker unpacker,
+                                           final String correlationId) throws IOException, MalformedNoteException {
+        final long tmpCommand = unpacker.unpackLong();
+        final MaestroCommand command = MaestroCommand.from(tmpCommand);
 
-        switch (Objects.requireNonNull(command)) {
-            case MAESTRO_NOTE_PING: {
-                return new PingRequest(unpacker);
-            }
-            case MAESTRO_NOTE_FLUSH: {
-                return new FlushRequest();
-            }
-            case MAESTRO_NOTE_STATS: {
-                return new StatsRequest();
-            }
-            case MAESTRO_NOTE_START_RECEIVER: {
-                return new StartReceiver();
-            }
-            case MAESTRO_NOTE_STOP_RECEIVER: {
-                return new StopReceiver();
-            }
-            case MAESTRO_NOTE_START_SENDER: {
-                return new StartSender();
-            }
-            case MAESTRO_NOTE_STOP_SENDER: {
-                return new StopSender();
-            }
-            case MAESTRO_NOTE_START_INSPECTOR: {
-                return new StartInspector(unpacker);
-            }
-            case MAESTRO_NOTE_STOP_INSPECTOR: {
-                return new StopInspector();
-            }
-            case MAESTRO_NOTE_SET: {
-                return new SetRequest(unpacker);
-            }
-            case MAESTRO_NOTE_HALT: {
-                return new Halt();
-            }
-            case MAESTRO_NOTE_GET: {
-                return new GetRequest(unpacker);
-            }
-            case MAESTRO_NOTE_START_AGENT: {
-                return new StartAgent();
-            }
-            case MAESTRO_NOTE_STOP_AGENT: {
-                return new StopAgent();
-            }
-            case MAESTRO_NOTE_USER_COMMAND_1: {
-                return new UserCommand1Request(unpacker);
-            }
-            case MAESTRO_NOTE_AGENT_SOURCE: {
-                return new AgentSourceRequest(unpacker);
-            }
-            default: {
-                throw new MalformedNoteException("Invalid request command: " + tmpCommand);
-            }
+        final MaestroNoteFactory<?> factory = command == null ? null : MaestroNoteRegistry.get(type, command);
+        if (factory == null) {
+            throw new MalformedNoteException("Invalid command for a note of type " + type + ": " + tmpCommand);
         }
+
+        final MaestroNote note = factory.create(unpacker);
+        note.setCorrelationId(correlationId);
+
+        return note;
     }
 
     public static MaestroEvent deserializeEvent(byte[] bytes) throws IOException, MalformedNoteException {
-        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes)){
-            final short tmpType = unpacker.unpackShort();
-            final MaestroNoteType type = MaestroNoteType.from(tmpType);
-
-            switch (Objects.requireNonNull(type)) {
-                case MAESTRO_TYPE_REQUEST:
-                    return deserializeRequest(unpacker);
-                case MAESTRO_TYPE_NOTIFICATION:
-                    return deserializeNotification(unpacker);
-                default:
-                    throw new MalformedNoteException("Invalid event type: " + tmpType);
+        final MessageUnpacker unpacker = MessagePackPool.acquireUnpacker(bytes);
+
+        try {
+            final String correlationId = unpackCorrelationId(unpacker, bytes);
+            final MaestroNoteType type = unpackType(unpacker);
+
+            if (type != MaestroNoteType.MAESTRO_TYPE_REQUEST && type != MaestroNoteType.MAESTRO_TYPE_NOTIFICATION) {
+                throw new MalformedNoteException("Invalid event type: " + type);
             }
+
+            final MaestroNote note = deserialize(type, unpacker, correlationId);
+            if (!(note instanceof MaestroEvent)) {
+                throw new MalformedNoteException("The note is not an event: " + note);
+            }
+
+            return (MaestroEvent) note;
+        }
+        finally {
+            MessagePackPool.releaseUnpacker(unpacker);
         }
     }
 
     public static MaestroNote deserialize(byte[] bytes) throws IOException, MalformedNoteException {
-        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(bytes)){
-            final short tmpType = unpacker.unpackShort();
-            final MaestroNoteType type = MaestroNoteType.from(tmpType);
-
-            switch (Objects.requireNonNull(type)) {
-                case MAESTRO_TYPE_REQUEST:
-                    return deserializeRequest(unpacker);
-                case MAESTRO_TYPE_RESPONSE:
-                    return deserializeResponse(unpacker);
-                case MAESTRO_TYPE_NOTIFICATION:
-                    return deserializeNotification(unpacker);
-                default:
-                    throw new MalformedNoteException("Invalid note type: " + tmpType);
-            }
+        final MessageUnpacker unpacker = MessagePackPool.acquireUnpacker(bytes);
+
+        try {
+            final String correlationId = unpackCorrelationId(unpacker, bytes);
+
+            return deserialize(unpackType(unpacker), unpacker, correlationId);
+        }
+        finally {
+            MessagePackPool.releaseUnpacker(unpacker);
         }
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.client.exchange;
+
+import org.maestro.common.client.notes.MaestroNote;
+import org.msgpack.core.MessageUnpacker;
+
+import java.io.IOException;
+
+/**
+ * Creates a note from its body. The note type, the correlation id and the command are already read from the
+ * unpacker when it is called.
+ * @param <T> the type of the note created
+ */
+@FunctionalInterface
+public interface MaestroNoteFactory<T extends MaestroNote> {
+
+    /**
+     * Creates the note
+     * @param unpacker the unpacker positioned at the start of the note body
+     * @return the note
+     * @throws IOException if unable to read the note body
+     */
+    T create(MessageUnpacker unpacker) throws IOException;
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.client.exchange;
+
+import org.maestro.client.notes.*;
+import org.maestro.client.notes.InternalError;
+import org.maestro.common.client.notes.MaestroCommand;
+import org.maestro.common.client.notes.MaestroNoteType;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.maestro.common.client.notes.MaestroCommand.*;
+import static org.maestro.common.client.notes.MaestroNoteType.*;
+
+/**
+ * The factories used to deserialize the notes, indexed by their type and command. The factories of the Maestro
+ * protocol notes are registered by default, and extensions can register factories for the notes they exchange
+ * (ie.: their own user command responses) or replace the default ones.
+ */
+public final class MaestroNoteRegistry {
+    private static final int COMMAND_COUNT = MaestroCommand.values().length;
+
+    private static final AtomicReferenceArray<MaestroNoteFactory<?>> factories =
+            new AtomicReferenceArray<>(MaestroNoteType.values().length * COMMAND_COUNT);
+
+    static {
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_PING, PingRequest::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_FLUSH, unpacker -> new FlushRequest());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_STATS, unpacker -> new StatsRequest());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_START_RECEIVER, StartReceiver::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_STOP_RECEIVER, unpacker -> new StopReceiver());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_START_SENDER, StartSender::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_STOP_SENDER, unpacker -> new StopSender());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_START_INSPECTOR, StartInspector::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_STOP_INSPECTOR, unpacker -> new StopInspector());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_SET, SetRequest::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_HALT, unpacker -> new Halt());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_GET, GetRequest::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_START_AGENT, unpacker -> new StartAgent());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_STOP_AGENT, unpacker -> new StopAgent());
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_USER_COMMAND_1, UserCommand1Request::new);
+        register(MAESTRO_TYPE_REQUEST, MAESTRO_NOTE_AGENT_SOURCE, AgentSourceRequest::new);
+
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_OK, OkResponse::new);
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_PING, PingResponse::new);
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_INTERNAL_ERROR, InternalError::new);
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_PROTOCOL_ERROR, ProtocolError::new);
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_STATS, StatsResponse::new);
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_GET, GetResponse::new);
+        register(MAESTRO_TYPE_RESPONSE, MAESTRO_NOTE_USER_COMMAND_1, UserCommand1Response::new);
+
+        register(MAESTRO_TYPE_NOTIFICATION, MAESTRO_NOTE_NOTIFY_FAIL, TestFailedNotification::new);
+        register(MAESTRO_TYPE_NOTIFICATION, MAESTRO_NOTE_NOTIFY_SUCCESS, TestSuccessfulNotification::new);
+        register(MAESTRO_TYPE_NOTIFICATION, MAESTRO_NOTE_ABNORMAL_DISCONNECT, AbnormalDisconnect::new);
+    }
+
+    private MaestroNoteRegistry() {}
+
+    private static int index(final MaestroNoteType type, final MaestroCommand command) {
+        return type.ordinal() * COMMAND_COUNT + command.ordinal();
+    }
+
+    /**
+     * Registers the factory for the notes of a given type and command, replacing the current one (if any)
+     * @param type the note type
+     * @param command the note command
+     * @param factory the factory
+     */
+    public static void register(final MaestroNoteType type, final MaestroCommand command,
+                                final MaestroNoteFactory<?> factory) {
+        factories.set(index(type, command), Objects.requireNonNull(factory));
+    }
+
+    /**
+     * Gets the factory for the notes of a given type and command
+     * @param type the note type
+     * @param command the note command
+     * @return the factory or null if there's no factory registered for them
+     */
+    public static MaestroNoteFactory<?> get(final MaestroNoteType type, final MaestroCommand command) {
+        return factories.get(index(type, command));
+    }
+}
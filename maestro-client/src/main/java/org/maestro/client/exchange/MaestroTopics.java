@@ -30,6 +30,17 @@ public class MaestroTopics {
      */
     public final static String NOTIFICATION_TOPIC = "/mpt/notifications";
 
+    /**
+     * This topic is used by the peers to publish their periodic stats, when configured to do so
+     */
+    public final static String TELEMETRY_TOPIC = "/mpt/telemetry";
+
+    /**
+     * This topic prefix is used by the peers to publish their periodic stats to the aggregator running on their
+     * host, which merges them and publishes them on the telemetry topic
+     */
+    public final static String HOST_TELEMETRY_TOPIC_PREFIX = "/mpt/telemetry/host/";
+
     /**
      * This topic is used to publish requests for all daemons
      */
@@ -60,6 +71,11 @@ public class MaestroTopics {
      */
     public final static String[] MAESTRO_TOPICS = {MAESTRO_TOPIC, NOTIFICATION_TOPIC};
 
+    /**
+     * These topics are the ones subscribed by a Maestro client that relies on the stats published by the peers
+     */
+    public final static String[] MAESTRO_TELEMETRY_TOPICS = {MAESTRO_TOPIC, NOTIFICATION_TOPIC, TELEMETRY_TOPIC};
+
     /**
      * These topics are the ones subscribed by a Maestro sender
      */
@@ -81,4 +97,13 @@ public class MaestroTopics {
     public final static String[] MAESTRO_AGENT_TOPICS = {ALL_DAEMONS, NOTIFICATION_TOPIC, AGENT_DAEMONS};
 
     private MaestroTopics() {}
+
+    /**
+     * Gets the topic used by the peers to publish their periodic stats to the aggregator running on the given host
+     * @param host the host name
+     * @return the topic name
+     */
+    public static String hostTelemetryTopic(final String host) {
+        return HOST_TELEMETRY_TOPIC_PREFIX + host;
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.client.exchange;
+
+import org.maestro.common.client.notes.MaestroNote;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the requests waiting for replies. The replies are matched to the requests by the correlation id the peers
+ * copy from the request to their responses, and the future of a request is completed as soon as the expected number
+ * of replies arrive or, with whatever replies arrived so far, when it times out.
+ */
+public class PendingReplies {
+    private static final Logger logger = LoggerFactory.getLogger(PendingReplies.class);
+
+    private static final class PendingRequest {
+        private final int expect;
+        private final List<MaestroNote> replies;
+        private final CompletableFuture<List<MaestroNote>> future = new CompletableFuture<>();
+        private volatile ScheduledFuture<?> timeout;
+
+        PendingRequest(int expect) {
+            this.expect = expect;
+            this.replies = new ArrayList<>(Math.max(expect, 1));
+        }
+
+        /**
+         * @return true if the request got all the replies it expected
+         */
+        synchronized boolean add(final MaestroNote note) {
+            replies.add(note);
+
+            return replies.size() >= expect;
+        }
+
+        synchronized void complete() {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+
+            future.complete(new ArrayList<>(replies));
+        }
+    }
+
+    private final Map<String, PendingRequest> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "maestro-reply-timeout");
+
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Generates a new correlation id
+     * @return a new correlation id that is unique across the front-ends sharing the same broker
+     */
+    public static String newCorrelationId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Starts waiting for the replies to a request. It must be called before sending the request, so that no reply
+     * is missed
+     * @param correlationId the correlation id of the request
+     * @param expect the number of replies to wait for
+     * @param timeout how long to wait for the replies
+     * @param unit the unit of the timeout
+     * @return a future completed with the replies
+     */
+    public CompletableFuture<List<MaestroNote>> register(final String correlationId, int expect, long timeout,
+                                                         final TimeUnit unit) {
+        final PendingRequest request = new PendingRequest(expect);
+
+        pending.put(correlationId, request);
+        request.timeout = timer.schedule(() -> {
+            if (pending.remove(correlationId, request)) {
+                logger.debug("Timed out waiting for the replies to the request {}", correlationId);
+                request.complete();
+            }
+        }, timeout, unit);
+
+        return request.future;
+    }
+
+    /**
+     * Stops waiting for the replies to a request, completing its future with the replies received so far
+     * @param correlationId the correlation id of the request
+     */
+    public void cancel(final String correlationId) {
+        final PendingRequest request = pending.remove(correlationId);
+
+        if (request != null) {
+            request.complete();
+        }
+    }
+
+    /**
+     * Offers a note to the pending request it replies to, if any
+     * @param note the note
+     * @return true if the note is a reply to a pending request or false otherwise
+     */
+    public boolean offer(final MaestroNote note) {
+        final String correlationId = note.getCorrelationId();
+
+        if (correlationId == null) {
+            return false;
+        }
+
+        final PendingRequest request = pending.get(correlationId);
+        if (request == null) {
+            return false;
+        }
+
+        if (request.add(note) && pending.remove(correlationId, request)) {
+            request.complete();
+        }
+
+        return true;
+    }
+
+    /**
+     * Completes all the pending requests with the replies received so far and stops tracking requests
+     */
+    public void close() {
+        pending.keySet().forEach(this::cancel);
+        timer.shutdownNow();
+    }
+}
@@ -20,13 +20,13 @@ import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.client.notes.MaestroNoteType;
 import org.msgpack.core.MessageBufferPacker;
-import org.msgpack.core.MessagePack;
 
 import java.io.IOException;
 
 abstract class AbtractMaestroNote implements MaestroNote {
     private MaestroNoteType noteType;
     private MaestroCommand maestroCommand;
+    private String correlationId;
 
     public AbtractMaestroNote(MaestroNoteType type, MaestroCommand command) {
         setNoteType(type);
@@ -49,8 +49,16 @@ abstract class AbtractMaestroNote implements MaestroNote {
         this.maestroCommand = maestroCommand;
     }
 
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
     protected MessageBufferPacker pack() throws IOException {
-        MessageBufferPacker packer = MessagePack.newDefaultBufferPacker();
+        MessageBufferPacker packer = MessagePackPool.acquirePacker();
 
         packer.packShort(noteType.getValue());
         packer.packLong(maestroCommand.getValue());
@@ -61,9 +69,14 @@ abstract class AbtractMaestroNote implements MaestroNote {
     final public byte[] serialize() throws IOException {
         MessageBufferPacker packer = pack();
 
-        packer.close();
+        try {
+            CorrelationIds.pack(packer, correlationId);
 
-        return packer.toByteArray();
+            return packer.toByteArray();
+        }
+        finally {
+            MessagePackPool.releasePacker(packer);
+        }
     }
 
     @Override
@@ -71,6 +84,7 @@ abstract class AbtractMaestroNote implements MaestroNote {
         return "MaestroNote{" +
                 "noteType=" + noteType +
                 ", maestroCommand=" + maestroCommand +
+                ", correlationId=" + correlationId +
                 '}';
     }
 
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.client.notes;
+
+import org.msgpack.core.MessagePacker;
+import org.msgpack.core.MessageUnpacker;
+import org.msgpack.value.ExtensionValue;
+import org.msgpack.value.ValueType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The correlation id is an optional field trailing the fields of a note. It is packed as an extension value, so
+ * that it cannot be mistaken for the optional trailing fields of the notes themselves (ie.: when a note omits
+ * them). Peers unaware of it ignore it like any other trailing field they don't know about.
+ */
+public final class CorrelationIds {
+    /**
+     * The msgpack extension type of the correlation id
+     */
+    public static final byte EXTENSION_TYPE = 1;
+
+    private CorrelationIds() {}
+
+    static void pack(final MessagePacker packer, final String correlationId) throws IOException {
+        if (correlationId == null) {
+            return;
+        }
+
+        final byte[] payload = correlationId.getBytes(StandardCharsets.UTF_8);
+
+        packer.packExtensionTypeHeader(EXTENSION_TYPE, payload.length);
+        packer.writePayload(payload);
+    }
+
+    /**
+     * Unpacks the correlation id
+     * @param unpacker the unpacker positioned at the last value of the note
+     * @return the correlation id or null if the value is not a correlation id
+     * @throws IOException if unable to unpack the value
+     */
+    public static String unpack(final MessageUnpacker unpacker) throws IOException {
+        if (!unpacker.hasNext() || unpacker.getNextFormat().getValueType() != ValueType.EXTENSION) {
+            return null;
+        }
+
+        final ExtensionValue value = unpacker.unpackValue().asExtensionValue();
+        if (value.getType() != EXTENSION_TYPE) {
+            return null;
+        }
+
+        return new String(value.getData(), StandardCharsets.UTF_8);
+    }
+}
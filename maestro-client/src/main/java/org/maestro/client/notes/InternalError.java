@@ -17,12 +17,19 @@
 package org.maestro.client.notes;
 
 import org.maestro.common.client.notes.MaestroCommand;
+import org.msgpack.core.MessageUnpacker;
+
+import java.io.IOException;
 
 public class InternalError extends MaestroResponse {
     public InternalError() {
         super(MaestroCommand.MAESTRO_NOTE_INTERNAL_ERROR);
     }
 
+    public InternalError(MessageUnpacker unpacker) throws IOException {
+        super(MaestroCommand.MAESTRO_NOTE_INTERNAL_ERROR, unpacker);
+    }
+
     @Override
     public String toString() {
         return "InternalError{} " + super.toString();
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.client.notes;
+
+import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessageUnpacker;
+import org.msgpack.core.buffer.ArrayBufferInput;
+
+import java.io.IOException;
+
+/**
+ * Per-thread pools of the packers and unpackers used to serialize and deserialize the notes, so that their buffers
+ * are reused instead of allocated for every note. An acquired packer or unpacker must be released by the same
+ * thread once it is no longer used. Acquiring another one before releasing it (ie.: serializing a note while packing
+ * another) is safe: a new instance is used in that case.
+ */
+public final class MessagePackPool {
+    // Packers that grew beyond this size are not kept in the pool, so a large note doesn't pin its buffer forever
+    private static final int MAX_POOLED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<MessageBufferPacker> packers = new ThreadLocal<>();
+    private static final ThreadLocal<MessageUnpacker> unpackers = new ThreadLocal<>();
+
+    private MessagePackPool() {}
+
+    /**
+     * Acquires an empty packer
+     * @return an empty packer
+     */
+    public static MessageBufferPacker acquirePacker() {
+        final MessageBufferPacker packer = packers.get();
+
+        if (packer == null) {
+            return MessagePack.newDefaultBufferPacker();
+        }
+
+        packers.set(null);
+        return packer;
+    }
+
+    /**
+     * Releases a packer, so that it can be reused
+     * @param packer the packer
+     */
+    public static void releasePacker(final MessageBufferPacker packer) {
+        if (packer.getBufferSize() > MAX_POOLED_BUFFER_SIZE) {
+            return;
+        }
+
+        packer.clear();
+        packers.set(packer);
+    }
+
+    /**
+     * Acquires an unpacker reading from the given bytes
+     * @param bytes the bytes to read
+     * @return an unpacker reading from the given bytes
+     * @throws IOException if unable to reset a pooled unpacker
+     */
+    public static MessageUnpacker acquireUnpacker(final byte[] bytes) throws IOException {
+        final MessageUnpacker unpacker = unpackers.get();
+
+        if (unpacker == null) {
+            return MessagePack.newDefaultUnpacker(bytes);
+        }
+
+        unpackers.set(null);
+        unpacker.reset(new ArrayBufferInput(bytes));
+        return unpacker;
+    }
+
+    /**
+     * Releases an unpacker, so that it can be reused
+     * @param unpacker the unpacker
+     */
+    public static void releaseUnpacker(final MessageUnpacker unpacker) {
+        unpackers.set(unpacker);
+    }
+}
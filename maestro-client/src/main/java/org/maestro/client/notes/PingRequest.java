@@ -17,11 +17,12 @@
 package org.maestro.client.notes;
 
 import org.maestro.common.client.notes.MaestroCommand;
+import org.maestro.common.duration.EpochClocks;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
 import java.io.IOException;
-import java.time.Instant;
+import java.util.concurrent.TimeUnit;
 
 public class PingRequest extends MaestroRequest<MaestroEventListener> {
     private long sec;
@@ -30,9 +31,10 @@ public class PingRequest extends MaestroRequest<MaestroEventListener> {
     public PingRequest() {
         super(MaestroCommand.MAESTRO_NOTE_PING);
 
-        Instant instant = Instant.now();
-        sec = instant.getEpochSecond();
-        usec = instant.getNano() / 1000;
+        // Uses the same clock as the peers, so that the requester can estimate their clock offsets
+        final long epochMicros = EpochClocks.sharedMicro().microTime();
+        sec = TimeUnit.MICROSECONDS.toSeconds(epochMicros);
+        usec = epochMicros - TimeUnit.SECONDS.toMicros(sec);
     }
 
     public PingRequest(MessageUnpacker unpacker) throws IOException {
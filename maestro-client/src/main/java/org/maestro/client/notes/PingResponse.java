@@ -24,6 +24,10 @@ import java.io.IOException;
 
 public class PingResponse extends MaestroResponse {
     private long elapsed;
+    // The timestamps used to estimate the peer clock offset. All of them are in microseconds since the epoch
+    private long requestEpochMicros;
+    private long receiveEpochMicros;
+    private long responseEpochMicros;
 
     public PingResponse() {
         super(MaestroCommand.MAESTRO_NOTE_PING);
@@ -33,6 +37,12 @@ public class PingResponse extends MaestroResponse {
         super(MaestroCommand.MAESTRO_NOTE_PING, unpacker);
 
         elapsed = unpacker.unpackLong();
+
+        if (unpacker.hasNext()) {
+            requestEpochMicros = unpacker.unpackLong();
+            receiveEpochMicros = unpacker.unpackLong();
+            responseEpochMicros = unpacker.unpackLong();
+        }
     }
 
     public long getElapsed() {
@@ -43,11 +53,52 @@ public class PingResponse extends MaestroResponse {
         this.elapsed = elapsed;
     }
 
+    /**
+     * Gets the time the request was created, as set by the requester
+     * @return the time the request was created or 0 if unknown
+     */
+    public long getRequestEpochMicros() {
+        return requestEpochMicros;
+    }
+
+    public void setRequestEpochMicros(long requestEpochMicros) {
+        this.requestEpochMicros = requestEpochMicros;
+    }
+
+    /**
+     * Gets the time the request was received by the peer, as read by the peer clock
+     * @return the time the request was received or 0 if unknown
+     */
+    public long getReceiveEpochMicros() {
+        return receiveEpochMicros;
+    }
+
+    public void setReceiveEpochMicros(long receiveEpochMicros) {
+        this.receiveEpochMicros = receiveEpochMicros;
+    }
+
+    /**
+     * Gets the time the response was sent by the peer, as read by the peer clock
+     * @return the time the response was sent or 0 if unknown
+     */
+    public long getResponseEpochMicros() {
+        return responseEpochMicros;
+    }
+
+    public void setResponseEpochMicros(long responseEpochMicros) {
+        this.responseEpochMicros = responseEpochMicros;
+    }
+
     @Override
     protected MessageBufferPacker pack() throws IOException {
         MessageBufferPacker packer = super.pack();
 
         packer.packLong(this.elapsed);
+        if (receiveEpochMicros > 0) {
+            packer.packLong(this.requestEpochMicros);
+            packer.packLong(this.receiveEpochMicros);
+            packer.packLong(this.responseEpochMicros);
+        }
 
         return packer;
     }
@@ -56,6 +107,9 @@ public class PingResponse extends MaestroResponse {
     public String toString() {
         return "PingResponse{" +
                 "elapsed=" + elapsed +
+                ", requestEpochMicros=" + requestEpochMicros +
+                ", receiveEpochMicros=" + receiveEpochMicros +
+                ", responseEpochMicros=" + responseEpochMicros +
                 "} " + super.toString();
     }
 }
@@ -41,7 +41,15 @@ public class SetRequest extends MaestroRequest<MaestroEventListener> {
         /** Set fail condition  */
         MAESTRO_NOTE_OPT_FCL(7),
         /** Sets the management interface */
-        MAESTRO_NOTE_OPT_SET_MI(8);
+        MAESTRO_NOTE_OPT_SET_MI(8),
+        /** Set the highest value tracked by the latency histograms (or auto) */
+        MAESTRO_NOTE_OPT_SET_LATENCY_HIGHEST_VALUE(9),
+        /** Set the precision (significant digits) of the latency histograms */
+        MAESTRO_NOTE_OPT_SET_LATENCY_PRECISION(10),
+        /** Set the clock corrections of the receivers */
+        MAESTRO_NOTE_OPT_SET_CLOCK_CORRECTIONS(11),
+        /** Set the clock offsets of the peers relative to the front-end */
+        MAESTRO_NOTE_OPT_SET_CLOCK_OFFSETS(12);
 
         private long value;
 
@@ -68,6 +76,10 @@ public class SetRequest extends MaestroRequest<MaestroEventListener> {
                 case 6: return MAESTRO_NOTE_OPT_SET_RATE;
                 case 7: return MAESTRO_NOTE_OPT_FCL;
                 case 8: return MAESTRO_NOTE_OPT_SET_MI;
+                case 9: return MAESTRO_NOTE_OPT_SET_LATENCY_HIGHEST_VALUE;
+                case 10: return MAESTRO_NOTE_OPT_SET_LATENCY_PRECISION;
+                case 11: return MAESTRO_NOTE_OPT_SET_CLOCK_CORRECTIONS;
+                case 12: return MAESTRO_NOTE_OPT_SET_CLOCK_OFFSETS;
             }
 
             return null;
@@ -129,6 +141,22 @@ public class SetRequest extends MaestroRequest<MaestroEventListener> {
         set(Option.MAESTRO_NOTE_OPT_SET_MI, value);
     }
 
+    public void setLatencyHighestValue(final String value) {
+        set(Option.MAESTRO_NOTE_OPT_SET_LATENCY_HIGHEST_VALUE, value);
+    }
+
+    public void setLatencyPrecision(final String value) {
+        set(Option.MAESTRO_NOTE_OPT_SET_LATENCY_PRECISION, value);
+    }
+
+    public void setClockCorrections(final String value) {
+        set(Option.MAESTRO_NOTE_OPT_SET_CLOCK_CORRECTIONS, value);
+    }
+
+    public void setClockOffsets(final String value) {
+        set(Option.MAESTRO_NOTE_OPT_SET_CLOCK_OFFSETS, value);
+    }
+
     public Option getOption() {
         return option;
     }
@@ -17,12 +17,56 @@
 package org.maestro.client.notes;
 
 import org.maestro.common.client.notes.MaestroCommand;
+import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessageUnpacker;
+
+import java.io.IOException;
 
 public class StartReceiver extends MaestroRequest<MaestroReceiverEventListener> {
+    private long startEpochMicros;
+
     public StartReceiver() {
         super(MaestroCommand.MAESTRO_NOTE_START_RECEIVER);
     }
 
+    /**
+     * Constructor
+     * @param startEpochMicros the instant (in microseconds since the epoch) the test should start on every peer
+     */
+    public StartReceiver(long startEpochMicros) {
+        this();
+
+        this.startEpochMicros = startEpochMicros;
+    }
+
+    public StartReceiver(MessageUnpacker unpacker) throws IOException {
+        this();
+
+        // The start instant is optional, so that peers unaware of it can still start the test
+        if (unpacker.hasNext()) {
+            this.startEpochMicros = unpacker.unpackLong();
+        }
+    }
+
+    /**
+     * Gets the instant the test should start
+     * @return the start instant in microseconds since the epoch or 0 to start as soon as possible
+     */
+    public long getStartEpochMicros() {
+        return startEpochMicros;
+    }
+
+    @Override
+    protected MessageBufferPacker pack() throws IOException {
+        MessageBufferPacker packer = super.pack();
+
+        if (startEpochMicros > 0) {
+            packer.packLong(startEpochMicros);
+        }
+
+        return packer;
+    }
+
     @Override
     public void notify(MaestroReceiverEventListener visitor) {
         visitor.handle(this);
@@ -30,6 +74,8 @@ public class StartReceiver extends MaestroRequest<MaestroReceiverEventListener>
 
     @Override
     public String toString() {
-        return "StartReceiver{} " + super.toString();
+        return "StartReceiver{" +
+                "startEpochMicros=" + startEpochMicros +
+                "} " + super.toString();
     }
 }
@@ -16,11 +16,19 @@
 
 package org.maestro.client.notes;
 
+import org.HdrHistogram.Histogram;
 import org.maestro.common.client.notes.MaestroCommand;
 import org.msgpack.core.MessageBufferPacker;
 import org.msgpack.core.MessageUnpacker;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 public class StatsResponse extends MaestroResponse {
     private int childCount;
@@ -33,6 +41,22 @@ public class StatsResponse extends MaestroResponse {
     private double rate;
     private double latency;
 
+    // Latency percentiles (in microseconds) of the last reported interval
+    private long latencyP50;
+    private long latencyP90;
+    private long latencyP99;
+    private long latencyP999;
+    private long latencyMax;
+
+    // The last interval histogram, using the HdrHistogram compressed encoding (optional)
+    private byte[] encodedLatencyHistogram;
+
+    // The end of the interval of the histogram (in milliseconds since the epoch), which identifies it (optional)
+    private long latencyHistogramEndTimeStamp;
+
+    // The summary of each peer merged into these stats, deflated (optional, only sent by the aggregators)
+    private byte[] encodedPeerDetails;
+
     public StatsResponse() {
         super(MaestroCommand.MAESTRO_NOTE_STATS);
     }
@@ -49,6 +73,37 @@ public class StatsResponse extends MaestroResponse {
         count = unpacker.unpackLong();
         rate = unpacker.unpackDouble();
         latency = unpacker.unpackDouble();
+
+        // Not sent by older peers
+        if (unpacker.hasNext()) {
+            latencyP50 = unpacker.unpackLong();
+            latencyP90 = unpacker.unpackLong();
+            latencyP99 = unpacker.unpackLong();
+            latencyP999 = unpacker.unpackLong();
+            latencyMax = unpacker.unpackLong();
+        }
+
+        if (unpacker.hasNext()) {
+            if (unpacker.tryUnpackNil()) {
+                encodedLatencyHistogram = null;
+            }
+            else {
+                encodedLatencyHistogram = unpacker.readPayload(unpacker.unpackBinaryHeader());
+            }
+        }
+
+        if (unpacker.hasNext()) {
+            if (unpacker.tryUnpackNil()) {
+                encodedPeerDetails = null;
+            }
+            else {
+                encodedPeerDetails = unpacker.readPayload(unpacker.unpackBinaryHeader());
+            }
+        }
+
+        if (unpacker.hasNext()) {
+            latencyHistogramEndTimeStamp = unpacker.unpackLong();
+        }
     }
 
     @Override
@@ -63,6 +118,29 @@ public class StatsResponse extends MaestroResponse {
         packer.packLong(this.count);
         packer.packDouble(this.rate);
         packer.packDouble(this.latency);
+        packer.packLong(this.latencyP50);
+        packer.packLong(this.latencyP90);
+        packer.packLong(this.latencyP99);
+        packer.packLong(this.latencyP999);
+        packer.packLong(this.latencyMax);
+
+        if (this.encodedLatencyHistogram == null) {
+            packer.packNil();
+        }
+        else {
+            packer.packBinaryHeader(this.encodedLatencyHistogram.length);
+            packer.writePayload(this.encodedLatencyHistogram);
+        }
+
+        if (this.encodedPeerDetails == null) {
+            packer.packNil();
+        }
+        else {
+            packer.packBinaryHeader(this.encodedPeerDetails.length);
+            packer.writePayload(this.encodedPeerDetails);
+        }
+
+        packer.packLong(this.latencyHistogramEndTimeStamp);
 
         return packer;
     }
@@ -131,6 +209,219 @@ public class StatsResponse extends MaestroResponse {
         this.latency = latency;
     }
 
+    public long getLatencyP50() {
+        return latencyP50;
+    }
+
+    public void setLatencyP50(long latencyP50) {
+        this.latencyP50 = latencyP50;
+    }
+
+    public long getLatencyP90() {
+        return latencyP90;
+    }
+
+    public void setLatencyP90(long latencyP90) {
+        this.latencyP90 = latencyP90;
+    }
+
+    public long getLatencyP99() {
+        return latencyP99;
+    }
+
+    public void setLatencyP99(long latencyP99) {
+        this.latencyP99 = latencyP99;
+    }
+
+    public long getLatencyP999() {
+        return latencyP999;
+    }
+
+    public void setLatencyP999(long latencyP999) {
+        this.latencyP999 = latencyP999;
+    }
+
+    public long getLatencyMax() {
+        return latencyMax;
+    }
+
+    public void setLatencyMax(long latencyMax) {
+        this.latencyMax = latencyMax;
+    }
+
+    /**
+     * Sets the latency histogram of the last interval. It is encoded using the HdrHistogram compressed encoding
+     * so that the receiving end can merge the histograms from multiple peers. The end time stamp of the histogram
+     * is sent along with it, so that the receiving end can tell whether it already merged that interval
+     * @param histogram the histogram or null to not send any
+     */
+    public void setLatencyHistogram(final Histogram histogram) {
+        if (histogram == null) {
+            this.encodedLatencyHistogram = null;
+            this.latencyHistogramEndTimeStamp = 0;
+
+            return;
+        }
+
+        this.latencyHistogramEndTimeStamp = histogram.getEndTimeStamp();
+
+        final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+
+        this.encodedLatencyHistogram = new byte[length];
+        buffer.flip();
+        buffer.get(this.encodedLatencyHistogram);
+    }
+
+    /**
+     * Gets the latency histogram of the last interval
+     * @return the decoded histogram or null if none was sent
+     * @throws DataFormatException if the histogram cannot be decoded
+     */
+    public Histogram getLatencyHistogram() throws DataFormatException {
+        if (encodedLatencyHistogram == null) {
+            return null;
+        }
+
+        final Histogram histogram = Histogram.decodeFromCompressedByteBuffer(
+                ByteBuffer.wrap(encodedLatencyHistogram), 0);
+
+        histogram.setEndTimeStamp(latencyHistogramEndTimeStamp);
+        return histogram;
+    }
+
+    /**
+     * Gets the end of the interval of the latency histogram
+     * @return the end of the interval in milliseconds since the epoch or 0 if unknown (ie.: sent by older peers)
+     */
+    public long getLatencyHistogramEndTimeStamp() {
+        return latencyHistogramEndTimeStamp;
+    }
+
+    /**
+     * Sets the details of the peers whose stats were merged into these ones. Only the name, id, role, child
+     * count, message count, rate and latency values of each peer are kept (not their histograms) and they are
+     * deflated, so that a single note can carry the details of many peers
+     * @param peers the stats of the peers or null to not send any
+     * @throws IOException if unable to encode the details
+     */
+    public void setPeerDetails(final List<StatsResponse> peers) throws IOException {
+        if (peers == null) {
+            this.encodedPeerDetails = null;
+
+            return;
+        }
+
+        final MessageBufferPacker packer = MessagePackPool.acquirePacker();
+        try {
+            packer.packArrayHeader(peers.size());
+            for (StatsResponse peer : peers) {
+                packer.packString(peer.getName());
+                packer.packString(peer.getId());
+                packer.packString(peer.role);
+                packer.packInt(peer.childCount);
+                packer.packLong(peer.count);
+                packer.packDouble(peer.rate);
+                packer.packDouble(peer.latency);
+                packer.packLong(peer.latencyP50);
+                packer.packLong(peer.latencyP90);
+                packer.packLong(peer.latencyP99);
+                packer.packLong(peer.latencyP999);
+                packer.packLong(peer.latencyMax);
+            }
+
+            this.encodedPeerDetails = deflate(packer.toByteArray());
+        }
+        finally {
+            MessagePackPool.releasePacker(packer);
+        }
+    }
+
+    /**
+     * Gets the details of the peers whose stats were merged into these ones
+     * @return the stats of each peer (without their histograms) or an empty list if none was sent
+     * @throws IOException if unable to decode the details
+     * @throws DataFormatException if the details cannot be inflated
+     */
+    public List<StatsResponse> getPeerDetails() throws IOException, DataFormatException {
+        final List<StatsResponse> peers = new ArrayList<>();
+
+        if (encodedPeerDetails == null) {
+            return peers;
+        }
+
+        final MessageUnpacker unpacker = MessagePackPool.acquireUnpacker(inflate(encodedPeerDetails));
+        try {
+            final int size = unpacker.unpackArrayHeader();
+            for (int i = 0; i < size; i++) {
+                StatsResponse peer = new StatsResponse();
+
+                peer.setName(unpacker.unpackString());
+                peer.setId(unpacker.unpackString());
+                peer.role = unpacker.unpackString();
+                peer.childCount = unpacker.unpackInt();
+                peer.count = unpacker.unpackLong();
+                peer.rate = unpacker.unpackDouble();
+                peer.latency = unpacker.unpackDouble();
+                peer.latencyP50 = unpacker.unpackLong();
+                peer.latencyP90 = unpacker.unpackLong();
+                peer.latencyP99 = unpacker.unpackLong();
+                peer.latencyP999 = unpacker.unpackLong();
+                peer.latencyMax = unpacker.unpackLong();
+
+                peers.add(peer);
+            }
+        }
+        finally {
+            MessagePackPool.releaseUnpacker(unpacker);
+        }
+
+        return peers;
+    }
+
+    private static byte[] deflate(final byte[] bytes) {
+        final Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+            final byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return out.toByteArray();
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(final byte[] bytes) throws DataFormatException {
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes);
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 4);
+            final byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                final int length = inflater.inflate(buffer);
+
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("The peer details are truncated");
+                }
+
+                out.write(buffer, 0, length);
+            }
+
+            return out.toByteArray();
+        }
+        finally {
+            inflater.end();
+        }
+    }
+
     @Override
     public String toString() {
         return "StatsResponse{" +
@@ -142,6 +433,15 @@ public class StatsResponse extends MaestroResponse {
                 ", count=" + count +
                 ", rate=" + rate +
                 ", latency=" + latency +
+                ", latencyP50=" + latencyP50 +
+                ", latencyP90=" + latencyP90 +
+                ", latencyP99=" + latencyP99 +
+                ", latencyP999=" + latencyP999 +
+                ", latencyMax=" + latencyMax +
+                ", encodedLatencyHistogram=" + (encodedLatencyHistogram == null ? "none" :
+                    encodedLatencyHistogram.length + " bytes") +
+                ", encodedPeerDetails=" + (encodedPeerDetails == null ? "none" :
+                    encodedPeerDetails.length + " bytes") +
                 "} " + super.toString();
     }
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.maestro;
+
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.junit.Test;
+import org.maestro.client.exchange.MaestroCollector;
+import org.maestro.client.exchange.MaestroTopics;
+import org.maestro.client.notes.PingResponse;
+import org.maestro.client.notes.StatsResponse;
+import org.maestro.common.client.notes.MaestroCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MaestroCollectorTest {
+
+    private static MqttMessage statsMessage() throws Exception {
+        return statsMessage(0);
+    }
+
+    private static MqttMessage statsMessage(long count) throws Exception {
+        StatsResponse statsResponse = new StatsResponse();
+
+        statsResponse.setRole("sender");
+        statsResponse.setRoleInfo("");
+        statsResponse.setTimestamp(Long.toString(System.currentTimeMillis()));
+        statsResponse.setCount(count);
+        return new MqttMessage(statsResponse.serialize());
+    }
+
+    private static MqttMessage pingMessage() throws Exception {
+        PingResponse pingResponse = new PingResponse();
+
+        pingResponse.setElapsed(1);
+        return new MqttMessage(pingResponse.serialize());
+    }
+
+    @Test
+    public void testTracksTheTelemetry() throws Exception {
+        // Not connected: the messages are delivered directly
+        MaestroCollector collector = new MaestroCollector("mqtt://localhost:1883");
+
+        try {
+            final long created = collector.getLastTelemetryMillis();
+
+            Thread.sleep(50);
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, statsMessage());
+            assertEquals("A stats reply is not telemetry", created, collector.getLastTelemetryMillis());
+
+            collector.messageArrived(MaestroTopics.TELEMETRY_TOPIC, statsMessage());
+            assertTrue(collector.getLastTelemetryMillis() > created);
+
+            assertEquals(2, collector.collect().size());
+        }
+        finally {
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testDispatchesToTheSubscribedCallbacksOnly() throws Exception {
+        MaestroCollector collector = new MaestroCollector("mqtt://localhost:1883");
+
+        try {
+            final AtomicInteger stats = new AtomicInteger();
+            final AtomicInteger pings = new AtomicInteger();
+            final AtomicInteger all = new AtomicInteger();
+
+            collector.subscribe(MaestroCommand.MAESTRO_NOTE_STATS, note -> stats.incrementAndGet());
+            collector.subscribe(MaestroCommand.MAESTRO_NOTE_PING, note -> pings.incrementAndGet());
+            collector.getCallbacks().add(note -> all.incrementAndGet());
+
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, statsMessage());
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, statsMessage());
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, pingMessage());
+
+            assertEquals(2, stats.get());
+            assertEquals(1, pings.get());
+            assertEquals("The callbacks not bound to a command get every note", 3, all.get());
+            assertEquals(3, collector.collect().size());
+        }
+        finally {
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testAsyncCallbacksRunInArrivalOrder() throws Exception {
+        MaestroCollector collector = new MaestroCollector("mqtt://localhost:1883");
+
+        try {
+            final int notes = 100;
+            final List<Long> dispatched = new CopyOnWriteArrayList<>();
+            final AtomicReference<Thread> dispatcherThread = new AtomicReference<>();
+            final CountDownLatch done = new CountDownLatch(notes);
+
+            collector.subscribeAsync(MaestroCommand.MAESTRO_NOTE_STATS, note -> {
+                dispatcherThread.set(Thread.currentThread());
+                dispatched.add(((StatsResponse) note).getCount());
+                done.countDown();
+            });
+
+            for (long i = 0; i < notes; i++) {
+                collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, statsMessage(i));
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+
+            List<Long> expected = new ArrayList<>();
+            for (long i = 0; i < notes; i++) {
+                expected.add(i);
+            }
+
+            assertEquals(expected, dispatched);
+            assertNotSame("The async callbacks must not run on the calling thread", Thread.currentThread(),
+                    dispatcherThread.get());
+        }
+        finally {
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testThrowingCallbackDoesNotStopTheOthers() throws Exception {
+        MaestroCollector collector = new MaestroCollector("mqtt://localhost:1883");
+
+        try {
+            final AtomicInteger called = new AtomicInteger();
+            final CountDownLatch asyncCalled = new CountDownLatch(2);
+
+            collector.getCallbacks().add(note -> { throw new IllegalStateException("failing callback"); });
+            collector.subscribe(MaestroCommand.MAESTRO_NOTE_STATS, note -> {
+                throw new IllegalStateException("failing callback");
+            });
+            collector.subscribe(MaestroCommand.MAESTRO_NOTE_STATS, note -> called.incrementAndGet());
+            collector.subscribeAsync(MaestroCommand.MAESTRO_NOTE_STATS, note -> {
+                throw new IllegalStateException("failing callback");
+            });
+            collector.subscribeAsync(MaestroCommand.MAESTRO_NOTE_STATS, note -> asyncCalled.countDown());
+
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, statsMessage());
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, statsMessage());
+
+            assertEquals(2, called.get());
+            assertTrue("The dispatcher must survive a failing callback", asyncCalled.await(10, TimeUnit.SECONDS));
+            assertEquals("The notes are collected anyway", 2, collector.collect().size());
+        }
+        finally {
+            collector.close();
+        }
+    }
+
+    @Test
+    public void testSubscribeWhileNotesArrive() throws Exception {
+        MaestroCollector collector = new MaestroCollector("mqtt://localhost:1883");
+
+        try {
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final AtomicReference<Throwable> failure = new AtomicReference<>();
+            final AtomicInteger called = new AtomicInteger();
+            final MqttMessage message = statsMessage();
+
+            Thread arrivals = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, message);
+                        collector.collect();
+                    }
+                }
+                catch (Throwable t) {
+                    failure.set(t);
+                }
+            });
+
+            arrivals.start();
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    collector.subscribe(MaestroCommand.MAESTRO_NOTE_STATS, note -> called.incrementAndGet());
+                    collector.getCallbacks().add(note -> called.incrementAndGet());
+                }
+            }
+            finally {
+                running.set(false);
+                arrivals.join();
+            }
+
+            assertNull("Subscribing while the notes arrive must be safe", failure.get());
+
+            called.set(0);
+            collector.messageArrived(MaestroTopics.MAESTRO_TOPIC, message);
+            assertEquals("All the callbacks subscribed meanwhile should be called", 2000, called.get());
+        }
+        finally {
+            collector.close();
+        }
+    }
+}
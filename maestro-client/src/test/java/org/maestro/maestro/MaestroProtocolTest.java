@@ -16,8 +16,11 @@
 
 package org.maestro.maestro;
 
+import org.HdrHistogram.Histogram;
 import org.junit.Test;
 import org.maestro.client.exchange.MaestroDeserializer;
+import org.maestro.client.exchange.MaestroNoteFactory;
+import org.maestro.client.exchange.MaestroNoteRegistry;
 import org.maestro.client.notes.*;
 import org.maestro.common.client.notes.GetOption;
 import org.maestro.common.client.notes.MaestroCommand;
@@ -25,6 +28,8 @@ import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.client.notes.MaestroNoteType;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class MaestroProtocolTest {
@@ -47,6 +52,100 @@ public class MaestroProtocolTest {
         assertTrue(((PingRequest) parsed).getUsec() != 0);
     }
 
+    @Test
+    public void serializePingResponse() throws Exception {
+        PingResponse pingResponse = new PingResponse();
+
+        pingResponse.setId("id");
+        pingResponse.setName("receiver@localhost");
+        pingResponse.setElapsed(1);
+        pingResponse.setRequestEpochMicros(1_540_000_000_000_000L);
+        pingResponse.setReceiveEpochMicros(1_540_000_000_000_500L);
+        pingResponse.setResponseEpochMicros(1_540_000_000_000_600L);
+
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(pingResponse));
+
+        assertTrue(parsed instanceof PingResponse);
+        assertEquals(1_540_000_000_000_000L, ((PingResponse) parsed).getRequestEpochMicros());
+        assertEquals(1_540_000_000_000_500L, ((PingResponse) parsed).getReceiveEpochMicros());
+        assertEquals(1_540_000_000_000_600L, ((PingResponse) parsed).getResponseEpochMicros());
+    }
+
+    @Test
+    public void serializeCorrelationId() throws Exception {
+        StatsRequest statsRequest = new StatsRequest();
+
+        statsRequest.setCorrelationId("request-1");
+        MaestroNote parsedRequest = MaestroDeserializer.deserialize(doSerialize(statsRequest));
+        assertEquals("request-1", parsedRequest.getCorrelationId());
+
+        OkResponse okResponse = new OkResponse();
+
+        okResponse.setId("id");
+        okResponse.setName("sender@localhost");
+        okResponse.setCorrelationId("request-1");
+        MaestroNote parsedResponse = MaestroDeserializer.deserialize(doSerialize(okResponse));
+        assertEquals("request-1", parsedResponse.getCorrelationId());
+        assertEquals("id", ((OkResponse) parsedResponse).getId());
+
+        assertNull(MaestroDeserializer.deserialize(doSerialize(new FlushRequest())).getCorrelationId());
+    }
+
+    @Test
+    public void serializeCorrelationIdWithoutOptionalFields() throws Exception {
+        StartSender startSender = new StartSender();
+
+        startSender.setCorrelationId("request-2");
+        MaestroNote parsedStart = MaestroDeserializer.deserialize(doSerialize(startSender));
+        assertEquals("request-2", parsedStart.getCorrelationId());
+        assertEquals(0, ((StartSender) parsedStart).getStartEpochMicros());
+
+        AgentSourceRequest sourceRequest = new AgentSourceRequest();
+
+        sourceRequest.setSourceUrl("https://localhost/repository.git");
+        sourceRequest.setCorrelationId("request-3");
+        MaestroNote parsedSource = MaestroDeserializer.deserialize(doSerialize(sourceRequest));
+        assertEquals("request-3", parsedSource.getCorrelationId());
+        assertNull(((AgentSourceRequest) parsedSource).getBranch());
+    }
+
+    @Test
+    public void serializeWithPooledPackers() throws Exception {
+        StatsResponse statsResponse = new StatsResponse();
+
+        statsResponse.setRole("tester");
+        statsResponse.setRoleInfo("");
+        statsResponse.setTimestamp("1521027548");
+        statsResponse.setCount(10);
+
+        // The same thread packs and unpacks notes of different sizes, reusing the same packer and unpacker
+        byte[] serializedStats = doSerialize(statsResponse);
+        byte[] serializedFlush = doSerialize(new FlushRequest());
+
+        assertTrue(MaestroDeserializer.deserialize(serializedFlush) instanceof FlushRequest);
+        assertEquals(10, ((StatsResponse) MaestroDeserializer.deserialize(serializedStats)).getCount());
+        assertTrue(MaestroDeserializer.deserialize(doSerialize(new FlushRequest())) instanceof FlushRequest);
+    }
+
+    @Test
+    public void deserializeWithRegisteredFactory() throws Exception {
+        MaestroNoteFactory<?> defaultFactory = MaestroNoteRegistry.get(MaestroNoteType.MAESTRO_TYPE_REQUEST,
+                MaestroCommand.MAESTRO_NOTE_HALT);
+
+        try {
+            MaestroNoteRegistry.register(MaestroNoteType.MAESTRO_TYPE_REQUEST, MaestroCommand.MAESTRO_NOTE_HALT,
+                    unpacker -> new StopAgent());
+
+            assertTrue(MaestroDeserializer.deserialize(doSerialize(new Halt())) instanceof StopAgent);
+        }
+        finally {
+            MaestroNoteRegistry.register(MaestroNoteType.MAESTRO_TYPE_REQUEST, MaestroCommand.MAESTRO_NOTE_HALT,
+                    defaultFactory);
+        }
+
+        assertTrue(MaestroDeserializer.deserialize(doSerialize(new Halt())) instanceof Halt);
+    }
+
     @Test
     public void serializeFlushRequest() throws Exception {
         MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(new FlushRequest()));
@@ -59,6 +158,26 @@ public class MaestroProtocolTest {
     }
 
 
+    @Test
+    public void serializeStartSender() throws Exception {
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(new StartSender()));
+
+        assertTrue(parsed instanceof StartSender);
+        assertTrue(parsed.getMaestroCommand() == MaestroCommand.MAESTRO_NOTE_START_SENDER);
+        assertEquals(0, ((StartSender) parsed).getStartEpochMicros());
+    }
+
+    @Test
+    public void serializeScheduledStartReceiver() throws Exception {
+        final long startEpochMicros = 1_540_000_000_000_000L;
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(new StartReceiver(startEpochMicros)));
+
+        assertTrue(parsed instanceof StartReceiver);
+        assertTrue(parsed.getMaestroCommand() == MaestroCommand.MAESTRO_NOTE_START_RECEIVER);
+        assertEquals(startEpochMicros, ((StartReceiver) parsed).getStartEpochMicros());
+    }
+
+
     @Test
     public void serializeOkResponse() throws Exception {
         MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(new OkResponse()));
@@ -167,4 +286,35 @@ public class MaestroProtocolTest {
         assertTrue(1.123 == ((StatsResponse) parsed).getLatency());
         assertEquals("1521027548", ((StatsResponse) parsed).getTimestamp());
     }
+
+
+    @Test
+    public void serializeStatsResponseWithLatencyHistogram() throws Exception {
+        StatsResponse statsResponse = new StatsResponse();
+
+        statsResponse.setChildCount(0);
+
+        statsResponse.setRole("tester");
+        statsResponse.setRoleInfo("");
+        statsResponse.setTimestamp("1521027548");
+
+        Histogram histogram = new Histogram(3);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.recordValue(i);
+        }
+
+        statsResponse.setLatencyP99(histogram.getValueAtPercentile(99.0));
+        statsResponse.setLatencyMax(histogram.getMaxValue());
+        statsResponse.setLatencyHistogram(histogram);
+
+        MaestroNote parsed = MaestroDeserializer.deserialize(doSerialize(statsResponse));
+
+        assertTrue(parsed instanceof StatsResponse);
+        assertEquals(histogram.getValueAtPercentile(99.0), ((StatsResponse) parsed).getLatencyP99());
+        assertEquals(histogram.getMaxValue(), ((StatsResponse) parsed).getLatencyMax());
+
+        Histogram parsedHistogram = ((StatsResponse) parsed).getLatencyHistogram();
+        assertNotNull(parsedHistogram);
+        assertEquals(histogram, parsedHistogram);
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.maestro;
+
+import org.junit.Test;
+import org.maestro.client.exchange.PendingReplies;
+import org.maestro.client.notes.OkResponse;
+import org.maestro.common.client.notes.MaestroNote;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PendingRepliesTest {
+
+    private static MaestroNote reply(final String correlationId) {
+        OkResponse okResponse = new OkResponse();
+
+        okResponse.setCorrelationId(correlationId);
+        return okResponse;
+    }
+
+    @Test
+    public void testCompletesWhenTheExpectedRepliesArrive() throws Exception {
+        PendingReplies pendingReplies = new PendingReplies();
+
+        try {
+            CompletableFuture<List<MaestroNote>> future = pendingReplies.register("request", 2, 1, TimeUnit.HOURS);
+
+            assertFalse(pendingReplies.offer(reply(null)));
+            assertFalse(pendingReplies.offer(reply("other")));
+
+            assertTrue(pendingReplies.offer(reply("request")));
+            assertFalse(future.isDone());
+
+            assertTrue(pendingReplies.offer(reply("request")));
+            assertEquals(2, future.get(0, TimeUnit.SECONDS).size());
+
+            assertFalse("A completed request should not take more replies",
+                    pendingReplies.offer(reply("request")));
+        }
+        finally {
+            pendingReplies.close();
+        }
+    }
+
+    @Test
+    public void testCompletesWithTheRepliesReceivedOnTimeout() throws Exception {
+        PendingReplies pendingReplies = new PendingReplies();
+
+        try {
+            CompletableFuture<List<MaestroNote>> future = pendingReplies.register("request", 2, 500,
+                    TimeUnit.MILLISECONDS);
+
+            pendingReplies.offer(reply("request"));
+            assertEquals(1, future.get(10, TimeUnit.SECONDS).size());
+        }
+        finally {
+            pendingReplies.close();
+        }
+    }
+}
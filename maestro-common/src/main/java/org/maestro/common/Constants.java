@@ -66,6 +66,11 @@ public final class Constants {
      */
     public static final String FILE_HINT_INSPECTOR = "inspector";
 
+    /**
+     * File hint for the sampled per-message trace files
+     */
+    public static final String FILE_HINT_TRACE = "trace";
+
     /**
      * Restricted constructor
      */
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.affinity;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.BitSet;
+
+/**
+ * Pins threads to a set of CPU cores using sched_setaffinity. It is only supported on Linux: on other platforms
+ * the threads are left unpinned.
+ */
+public final class CpuAffinity {
+    private static final Logger logger = LoggerFactory.getLogger(CpuAffinity.class);
+    private static final boolean SUPPORTED;
+
+    static {
+        boolean supported = false;
+
+        if (Platform.isLinux()) {
+            try {
+                Native.register(Platform.C_LIBRARY_NAME);
+                supported = true;
+            }
+            catch (Throwable t) {
+                logger.warn("Unable to register the native methods used to set the CPU affinity: {}", t.getMessage());
+            }
+        }
+
+        SUPPORTED = supported;
+    }
+
+    private static native int sched_setaffinity(int pid, NativeLong cpuSetSize, Pointer mask) throws LastErrorException;
+
+    private CpuAffinity() {}
+
+    /**
+     * Checks whether setting the CPU affinity is supported on this platform
+     * @return true if supported or false otherwise
+     */
+    public static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * Parses a list of cores in the format used by taskset/cpuset (ie.: 0-3,8,10-11)
+     * @param coreList the list of cores
+     * @return the set of cores (empty if the list is null or empty)
+     */
+    public static BitSet parseCoreList(final String coreList) {
+        final BitSet cores = new BitSet();
+
+        if (coreList == null || coreList.trim().isEmpty()) {
+            return cores;
+        }
+
+        for (String entry : coreList.split(",")) {
+            final String range = entry.trim();
+
+            if (range.isEmpty()) {
+                continue;
+            }
+
+            try {
+                final int separator = range.indexOf('-');
+
+                if (separator < 0) {
+                    cores.set(Integer.parseInt(range));
+                }
+                else {
+                    final int first = Integer.parseInt(range.substring(0, separator).trim());
+                    final int last = Integer.parseInt(range.substring(separator + 1).trim());
+
+                    if (first > last) {
+                        throw new IllegalArgumentException("Invalid core range " + range + " in " + coreList);
+                    }
+
+                    cores.set(first, last + 1);
+                }
+            }
+            catch (NumberFormatException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid core list " + coreList, e);
+            }
+        }
+
+        return cores;
+    }
+
+    /**
+     * Formats a set of cores as a list of cores (ie.: 0-3,8,10-11)
+     * @param cores the set of cores
+     * @return the list of cores
+     */
+    public static String toCoreList(final BitSet cores) {
+        final StringBuilder builder = new StringBuilder();
+
+        int first = cores.nextSetBit(0);
+        while (first >= 0) {
+            final int last = cores.nextClearBit(first) - 1;
+
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+
+            builder.append(first);
+            if (last > first) {
+                builder.append('-').append(last);
+            }
+
+            first = cores.nextSetBit(last + 1);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Gets the core assigned to the n-th thread when spreading threads over a set of cores, one core per thread
+     * @param cores the set of cores
+     * @param n the thread index
+     * @return the set containing only the assigned core or an empty set if there are no cores
+     */
+    public static BitSet nthCore(final BitSet cores, int n) {
+        final BitSet core = new BitSet();
+        final int cardinality = cores.cardinality();
+
+        if (cardinality == 0) {
+            return core;
+        }
+
+        int index = cores.nextSetBit(0);
+        for (int i = 0; i < n % cardinality; i++) {
+            index = cores.nextSetBit(index + 1);
+        }
+
+        core.set(index);
+        return core;
+    }
+
+    /**
+     * Pins the calling thread to a set of cores
+     * @param cores the set of cores. If empty, the thread is left unpinned
+     * @return true if the thread was pinned or false otherwise
+     */
+    public static boolean pinCurrentThread(final BitSet cores) {
+        if (cores.isEmpty()) {
+            return false;
+        }
+
+        final String threadName = Thread.currentThread().getName();
+
+        if (!SUPPORTED) {
+            logger.warn("Unable to pin the thread {} to the cores {}: not supported on this platform", threadName,
+                    toCoreList(cores));
+
+            return false;
+        }
+
+        final long[] words = cores.toLongArray();
+        final Memory mask = new Memory(words.length * Long.BYTES);
+        for (int i = 0; i < words.length; i++) {
+            mask.setLong(i * Long.BYTES, words[i]);
+        }
+
+        try {
+            sched_setaffinity(0, new NativeLong(mask.size()), mask);
+        }
+        catch (LastErrorException e) {
+            logger.warn("Unable to pin the thread {} to the cores {}: error {}", threadName, toCoreList(cores),
+                    e.getErrorCode());
+
+            return false;
+        }
+
+        logger.debug("Pinned the thread {} to the cores {}", threadName, toCoreList(cores));
+        return true;
+    }
+}
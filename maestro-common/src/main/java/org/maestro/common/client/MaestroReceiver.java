@@ -28,18 +28,21 @@ public interface MaestroReceiver {
      * elapsed seconds/microseconds
      * @param sec Epoch seconds
      * @param uSec Microseconds within the second
+     * @param correlationId the correlation id of the ping request or null if it is not correlated
      */
-    void pingResponse(long sec, long uSec);
+    void pingResponse(long sec, long uSec, String correlationId);
 
     /**
      * Publishes a OK reply in the maestro broker
+     * @param correlationId the correlation id of the request being replied or null if it is not correlated
      */
-    void replyOk();
+    void replyOk(String correlationId);
 
     /**
      * Publishes an internal error reply in the Maestro broker
+     * @param correlationId the correlation id of the request being replied or null if it is not correlated
      */
-    void replyInternalError();
+    void replyInternalError(String correlationId);
 
     /**
      * Publishes a test success notification message in the broker
@@ -19,6 +19,8 @@ package org.maestro.common.client;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.maestro.common.exceptions.MaestroException;
 
+import java.util.Map;
+
 @SuppressWarnings("unused")
 public interface MaestroRequester {
 
@@ -185,6 +187,39 @@ public interface MaestroRequester {
     void setFCL(final int value) throws MaestroConnectionException;
 
 
+    /**
+     * Sends a set latency highest trackable value request
+     * @param value The highest latency value, in microseconds, or "auto" for auto-resizing histograms
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setLatencyHighestValue(final String value) throws MaestroConnectionException;
+
+
+    /**
+     * Sends a set latency precision request
+     * @param value The number of significant digits kept by the latency histograms
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setLatencyPrecision(final int value) throws MaestroConnectionException;
+
+
+    /**
+     * Sends a set clock corrections request to the receivers
+     * @param corrections The clock corrections, in microseconds, indexed by the receiver id
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setClockCorrections(final Map<String, Long> corrections) throws MaestroConnectionException;
+
+
+    /**
+     * Sends a set clock offsets request to all the peers
+     * @param offsets How far ahead of the front-end clock the clock of each peer is, in microseconds, indexed by
+     *                the peer id
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void setClockOffsets(final Map<String, Long> offsets) throws MaestroConnectionException;
+
+
     /**
      * Sends a start inspector request
      * @throws MaestroConnectionException if unable to send the MQTT request
@@ -206,6 +241,14 @@ public interface MaestroRequester {
     void startSender() throws MaestroConnectionException;
 
 
+    /**
+     * Sends a start sender request scheduled to a given instant, so that all the senders start at the same time
+     * @param startEpochMicros the instant the test should start, in microseconds since the epoch
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void startSender(long startEpochMicros) throws MaestroConnectionException;
+
+
     /**
      * Sends a stop sender request
      * @throws MaestroConnectionException if unable to send the MQTT request
@@ -220,6 +263,14 @@ public interface MaestroRequester {
     void startReceiver() throws MaestroConnectionException;
 
 
+    /**
+     * Sends a start receiver request scheduled to a given instant, so that all the receivers start at the same time
+     * @param startEpochMicros the instant the test should start, in microseconds since the epoch
+     * @throws MaestroConnectionException if unable to send the MQTT request
+     */
+    void startReceiver(long startEpochMicros) throws MaestroConnectionException;
+
+
     /**
      * Sends a stop receiver request
      * @throws MaestroConnectionException if unable to send the MQTT request
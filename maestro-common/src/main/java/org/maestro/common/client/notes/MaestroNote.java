@@ -35,6 +35,18 @@ public interface MaestroNote {
      */
     MaestroCommand getMaestroCommand();
 
+    /**
+     * Gets the id that correlates the replies with the request that caused them
+     * @return the correlation id or null if the note is not correlated to any request
+     */
+    String getCorrelationId();
+
+    /**
+     * Sets the id that correlates the replies with the request that caused them
+     * @param correlationId the correlation id or null if the note is not correlated to any request
+     */
+    void setCorrelationId(String correlationId);
+
     /**
      * Serialize the note
      * @return The serialized note
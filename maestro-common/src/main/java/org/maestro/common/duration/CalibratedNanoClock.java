@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An {@link EpochMicroClock} that reads {@link System#nanoTime()} and adds an offset to it, instead of asking the OS
+ * for the wall clock time on every call. The offset is periodically recalibrated against a reference (wall) clock,
+ * so the drift between them is bounded by how much they can diverge within the calibration interval. A
+ * recalibration may step the time slightly backwards. It is safe to be used by many threads.
+ */
+public final class CalibratedNanoClock implements EpochMicroClock {
+    // The calibration keeps the offset of the sample read with the shortest round trip
+    private static final int CALIBRATION_SAMPLES = 5;
+
+    private final EpochMicroClock referenceClock;
+    private final long calibrationIntervalNanos;
+    private final AtomicBoolean calibrating = new AtomicBoolean();
+    private volatile long offsetNanos;
+    private volatile long nextCalibrationNanos;
+
+    /**
+     * Constructor
+     * @param referenceClock the clock used to calibrate this one. It is only used by one thread at a time
+     * @param calibrationInterval how often to recalibrate
+     * @param unit the unit of the calibration interval
+     */
+    CalibratedNanoClock(final EpochMicroClock referenceClock, long calibrationInterval, final TimeUnit unit) {
+        this.referenceClock = referenceClock;
+        this.calibrationIntervalNanos = unit.toNanos(calibrationInterval);
+
+        calibrate();
+    }
+
+    private void calibrate() {
+        long bestRoundTrip = Long.MAX_VALUE;
+        long bestOffset = offsetNanos;
+
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            final long before = System.nanoTime();
+            final long reference = referenceClock.microTime();
+            final long after = System.nanoTime();
+
+            final long roundTrip = after - before;
+            if (roundTrip < bestRoundTrip) {
+                bestRoundTrip = roundTrip;
+                bestOffset = TimeUnit.MICROSECONDS.toNanos(reference) - (before + (roundTrip / 2));
+            }
+        }
+
+        offsetNanos = bestOffset;
+        nextCalibrationNanos = System.nanoTime() + calibrationIntervalNanos;
+    }
+
+    private void tryCalibrate() {
+        // Only one thread recalibrates: the others keep using the current offset meanwhile
+        if (calibrating.compareAndSet(false, true)) {
+            try {
+                calibrate();
+            }
+            finally {
+                calibrating.set(false);
+            }
+        }
+    }
+
+    /**
+     * Gets the calibration interval
+     * @return the calibration interval in nanoseconds
+     */
+    public long getCalibrationIntervalNanos() {
+        return calibrationIntervalNanos;
+    }
+
+    @Override
+    public long microTime() {
+        final long now = System.nanoTime();
+
+        if (now - nextCalibrationNanos >= 0) {
+            tryCalibrate();
+        }
+
+        return (now + offsetNanos) / 1000;
+    }
+}
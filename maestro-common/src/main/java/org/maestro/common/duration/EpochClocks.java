@@ -17,30 +17,93 @@
 
 package org.maestro.common.duration;
 
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Factory to create different implementations of {@link EpochMicroClock} depending on the precision allowed by the OS.
+ * Factory to create different implementations of {@link EpochMicroClock} depending on the precision allowed by the OS
+ * and on the clock set on 'maestro.worker.clock':
+ * <ul>
+ *     <li>native: reads the OS realtime clock on every call (default)</li>
+ *     <li>calibrated: adds an offset, periodically recalibrated against the OS realtime clock, to the JVM
+ *     monotonic clock. It is cheaper to read than the native one</li>
+ *     <li>millis: uses the (milliseconds precision) JVM wall clock</li>
+ * </ul>
  */
 public final class EpochClocks {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EpochClocks.class);
+    private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+    public static final String NATIVE_CLOCK = "native";
+    public static final String CALIBRATED_CLOCK = "calibrated";
+    public static final String MILLIS_CLOCK = "millis";
+
     private static final EpochMicroClock SHARED_CLOCK;
     private static final boolean SUPPORT_MICRO_CLOCKS;
+    private static final String CLOCK;
+    private static final long CALIBRATION_INTERVAL_MILLIS;
+    // How close to the awaited instant it stops sleeping and starts spinning
+    private static final long SPIN_THRESHOLD_MICROS = TimeUnit.MILLISECONDS.toMicros(2);
 
     static {
-        //TODO handle any failures while loading the native libs
         final String OS_NAME = System.getProperty("os.name").toLowerCase();
         if (OS_NAME.indexOf("linux") >= 0) {
-            SUPPORT_MICRO_CLOCKS = true;
-            SHARED_CLOCK = new ThreadLocalEpochMicroClock(JnaDirectNativeClock::new);
+            SUPPORT_MICRO_CLOCKS = canUseNativeClock();
         } else {
             SUPPORT_MICRO_CLOCKS = false;
-            SHARED_CLOCK = null;
-            LOGGER.warn("Microseconds precision clock is not supported: will be used the millis based on in place of it");
+        }
+
+        CALIBRATION_INTERVAL_MILLIS = config.getLong("maestro.worker.clock.calibration.interval", 1000);
+
+        final String clock = config.getString("maestro.worker.clock", NATIVE_CLOCK);
+        switch (clock) {
+            case NATIVE_CLOCK:
+            case CALIBRATED_CLOCK:
+            case MILLIS_CLOCK: {
+                CLOCK = clock;
+                break;
+            }
+            default: {
+                LOGGER.warn("Invalid clock {}: using the {} one", clock, NATIVE_CLOCK);
+                CLOCK = NATIVE_CLOCK;
+            }
+        }
+
+        if (CLOCK.equals(CALIBRATED_CLOCK)) {
+            SHARED_CLOCK = calibratedMicro();
+        } else if (CLOCK.equals(NATIVE_CLOCK) && SUPPORT_MICRO_CLOCKS) {
+            SHARED_CLOCK = new ThreadLocalEpochMicroClock(JnaDirectNativeClock::new);
+        } else if (CLOCK.equals(MILLIS_CLOCK)) {
+            SHARED_CLOCK = vanillaMillis();
+        } else {
+            SHARED_CLOCK = jdkMicro();
+        }
+
+        if (!SUPPORT_MICRO_CLOCKS && !CLOCK.equals(MILLIS_CLOCK)) {
+            LOGGER.warn("The native microseconds precision clock is not supported: will be used the JDK one in place of it");
+        }
+    }
+
+    /**
+     * Checks whether the native clock can be initialized. It fails when the native library cannot be loaded or
+     * when the JDK denies access to its internals (ie.: sun.nio.ch.DirectBuffer on JDK 9+ without --add-exports)
+     */
+    private static boolean canUseNativeClock() {
+        try {
+            new JnaDirectNativeClock().microTime();
+
+            return true;
+        } catch (LinkageError | RuntimeException e) {
+            LOGGER.warn("Unable to initialize the native clock: using the JDK one in place of it ({})",
+                    e.toString());
+
+            return false;
         }
     }
 
@@ -48,29 +111,95 @@ public final class EpochClocks {
         return () -> TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
     }
 
+    /**
+     * The JDK wall clock. It has microseconds precision on JDK 9+ and milliseconds precision on JDK 8
+     */
+    private static EpochMicroClock jdkMicro() {
+        return () -> {
+            final Instant now = Instant.now();
+
+            return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(now.getNano());
+        };
+    }
+
     private EpochClocks() {
 
     }
 
+    /**
+     * Gets the name of the clock in use
+     * @return the name of the clock in use
+     */
+    public static String clock() {
+        return CLOCK;
+    }
+
     /**
      * It creates a fresh new {@link EpochMicroClock} instance that could be used safely by many threads.
      */
     public static EpochMicroClock sharedMicro() {
-        if (SUPPORT_MICRO_CLOCKS) {
-            return SHARED_CLOCK;
-        } else {
-            return vanillaMillis();
-        }
+        return SHARED_CLOCK;
     }
 
     /**
      * It creates a fresh new {@link EpochMicroClock} instance that could be used safely just by 1 thread.
      */
     public static EpochMicroClock exclusiveMicro() {
+        switch (CLOCK) {
+            case CALIBRATED_CLOCK:
+                return calibratedMicro();
+            case MILLIS_CLOCK:
+                return vanillaMillis();
+            default:
+                return nativeMicro();
+        }
+    }
+
+    /**
+     * It creates a fresh new {@link EpochMicroClock} instance that reads the OS realtime clock on every call, if
+     * supported, or the JDK wall clock otherwise. It could be used safely just by 1 thread.
+     */
+    public static EpochMicroClock nativeMicro() {
         if (SUPPORT_MICRO_CLOCKS) {
             return new JnaDirectNativeClock();
         } else {
-            return vanillaMillis();
+            return jdkMicro();
+        }
+    }
+
+    /**
+     * It creates a fresh new {@link CalibratedNanoClock} instance, recalibrated against the OS realtime clock (or
+     * the JDK wall clock if not supported) every 'maestro.worker.clock.calibration.interval' milliseconds. It could
+     * be used safely by many threads.
+     */
+    public static EpochMicroClock calibratedMicro() {
+        return new CalibratedNanoClock(nativeMicro(), CALIBRATION_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits until the clock reaches the given instant. It sleeps while the instant is far and spins on the last
+     * couple of milliseconds, so that it returns as close as possible to it.
+     *
+     * @param clock the clock to use
+     * @param epochMicros the instant to wait for, in microseconds since 1 Jan 1970 UTC
+     * @return how late (in microseconds) it returned: it is greater than 0 if the instant had already passed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static long awaitMicroTime(final EpochMicroClock clock, long epochMicros) throws InterruptedException {
+        long remaining;
+        while ((remaining = epochMicros - clock.microTime()) > SPIN_THRESHOLD_MICROS) {
+            TimeUnit.MICROSECONDS.sleep(remaining - SPIN_THRESHOLD_MICROS);
+        }
+
+        long now;
+        while ((now = clock.microTime()) < epochMicros) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            Thread.yield();
         }
+
+        return now - epochMicros;
     }
 }
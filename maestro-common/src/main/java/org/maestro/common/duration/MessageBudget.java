@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A count of messages shared by the workers of a node, so that all of them together process exactly the total
+ * count and finish at about the same time. The senders claim small slices of it before sending them, while the
+ * receivers report the messages received in slices after receiving them, since they can't know in advance which of
+ * them is going to receive the messages. Either way it costs a single atomic update per slice, which keeps the
+ * contention on the shared counters negligible.
+ */
+public final class MessageBudget {
+    private final AtomicLong remaining;
+    private final AtomicLong received = new AtomicLong();
+    private final long total;
+    private final int sliceSize;
+
+    /**
+     * Constructor
+     * @param total the total number of messages
+     * @param sliceSize the (maximum) number of messages claimed at once by a worker
+     */
+    public MessageBudget(long total, int sliceSize) {
+        if (sliceSize <= 0) {
+            throw new IllegalArgumentException("The slice size must be greater than 0");
+        }
+
+        this.remaining = new AtomicLong(total);
+        this.total = total;
+        this.sliceSize = sliceSize;
+    }
+
+    /**
+     * Claims a slice of the budget
+     * @return the number of messages claimed or 0 if the budget is exhausted
+     */
+    public long claim() {
+        long current;
+        long claimed;
+
+        do {
+            current = remaining.get();
+            if (current <= 0) {
+                return 0;
+            }
+
+            claimed = Math.min(current, sliceSize);
+        } while (!remaining.compareAndSet(current, current - claimed));
+
+        return claimed;
+    }
+
+    /**
+     * Reports messages received
+     * @param count the number of messages received since the last report
+     */
+    public void received(long count) {
+        received.addAndGet(count);
+    }
+
+    /**
+     * Whether the workers received the total number of messages
+     * @return true if received the total number of messages or false otherwise
+     */
+    public boolean isReceived() {
+        return received.get() >= total;
+    }
+
+    /**
+     * Gets the total number of messages
+     * @return the total number of messages
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of messages not claimed yet
+     * @return the number of messages not claimed yet
+     */
+    public long getRemaining() {
+        return Math.max(0, remaining.get());
+    }
+
+    /**
+     * Makes a count-based duration draw from this budget, instead of counting the messages of each worker on its
+     * own. Other durations are not affected
+     * @param duration the duration of a worker
+     * @param budget the budget or null if not sharing a budget
+     * @return the duration to be used by the worker
+     */
+    public static TestDuration share(final TestDuration duration, final MessageBudget budget) {
+        if (budget == null || !(duration instanceof DurationCount)) {
+            return duration;
+        }
+
+        return new BudgetedDuration(budget);
+    }
+
+    /**
+     * Makes a count-based duration end once all the receivers sharing this budget received the total count of
+     * messages, instead of when each receiver receives it on its own. It only fits the receivers that split the
+     * messages among them (ie.: the consumers of a queue). Other durations are not affected
+     * @param duration the duration of a receiver
+     * @param budget the budget or null if not sharing a budget
+     * @return the duration to be used by the receiver
+     */
+    public static TestDuration shareReceived(final TestDuration duration, final MessageBudget budget) {
+        if (budget == null || !(duration instanceof DurationCount)) {
+            return duration;
+        }
+
+        return new ReceivedDuration(budget);
+    }
+
+    /**
+     * A count-based duration ending once the receivers sharing the budget received the total count. The messages
+     * are reported in slices while receiving and right away once no message is received, so that the last
+     * messages are never left unreported. It is stateful, so each worker has its own instance
+     */
+    private static final class ReceivedDuration implements TestDuration {
+        private final MessageBudget budget;
+        private long reported;
+        private long lastCount;
+
+        ReceivedDuration(final MessageBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public boolean canContinue(final TestProgress progress) {
+            final long count = progress.messageCount();
+            final long unreported = count - reported;
+
+            if (unreported >= budget.sliceSize || (unreported > 0 && count == lastCount)) {
+                budget.received(unreported);
+                reported = count;
+            }
+            lastCount = count;
+
+            return !budget.isReceived();
+        }
+
+        @Override
+        public long getNumericDuration() {
+            return budget.getTotal();
+        }
+
+        @Override
+        public TestDuration getWarmUpDuration() {
+            return DurationUtils.DEFAULT_WARM_UP_DURATION;
+        }
+
+        @Override
+        public TestDuration getCoolDownDuration() {
+            return getWarmUpDuration();
+        }
+
+        @Override
+        public String durationTypeName() {
+            return DurationUtils.DEFAULT_WARM_UP_DURATION.durationTypeName();
+        }
+
+        public String toString() {
+            return Long.toString(budget.getTotal());
+        }
+    }
+
+    /**
+     * A count-based duration drawing from a shared budget. It is stateful, so each worker has its own instance
+     */
+    private static final class BudgetedDuration implements TestDuration {
+        private final MessageBudget budget;
+        private long allowed;
+
+        BudgetedDuration(final MessageBudget budget) {
+            this.budget = budget;
+        }
+
+        @Override
+        public boolean canContinue(final TestProgress progress) {
+            if (progress.messageCount() < allowed) {
+                return true;
+            }
+
+            final long claimed = budget.claim();
+            allowed += claimed;
+
+            return claimed > 0;
+        }
+
+        @Override
+        public long getNumericDuration() {
+            return budget.getTotal();
+        }
+
+        @Override
+        public TestDuration getWarmUpDuration() {
+            return DurationUtils.DEFAULT_WARM_UP_DURATION;
+        }
+
+        @Override
+        public TestDuration getCoolDownDuration() {
+            return getWarmUpDuration();
+        }
+
+        @Override
+        public String durationTypeName() {
+            return DurationUtils.DEFAULT_WARM_UP_DURATION.durationTypeName();
+        }
+
+        public String toString() {
+            return Long.toString(budget.getTotal());
+        }
+    }
+}
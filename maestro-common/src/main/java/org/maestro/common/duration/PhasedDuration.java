@@ -0,0 +1,155 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import org.maestro.common.exceptions.DurationParseException;
+
+/**
+ * A test duration with a warm-up phase followed by a measurement phase, run back to back without stopping the
+ * workers. Each phase is either time or count-based and the specifier is in the format warmup=X,measure=Y (ie.:
+ * warmup=1000000,measure=30m). Only the measurement phase is reported.
+ * <p>
+ * The instances are stateful: the measurement phase is accounted from the moment the worker using it completes
+ * the warm-up, so each worker must use its own instance.
+ */
+public class PhasedDuration implements TestDuration {
+    public static final String WARM_UP_PHASE = "warmup";
+    public static final String MEASUREMENT_PHASE = "measure";
+
+    private final TestDuration warmUp;
+    private final TestDuration measurement;
+    private final String durationSpec;
+
+    // The progress of the measurement phase only
+    private final TestProgress measurementProgress = new TestProgress() {
+        @Override
+        public long startedEpochMillis() {
+            return measurementStartEpochMillis;
+        }
+
+        @Override
+        public long messageCount() {
+            return currentProgress.messageCount() - measurementStartCount;
+        }
+    };
+
+    private TestProgress currentProgress;
+    private long measurementStartEpochMillis = -1;
+    private long measurementStartCount;
+
+    public PhasedDuration(final String durationSpec) throws DurationParseException {
+        TestDuration warmUp = null;
+        TestDuration measurement = null;
+
+        for (String phase : durationSpec.split(",")) {
+            final String[] parts = phase.split("=");
+
+            if (parts.length != 2) {
+                throw new DurationParseException("Invalid phase '" + phase + "' on duration " + durationSpec);
+            }
+
+            final String name = parts[0].trim();
+            final String value = parts[1].trim();
+
+            if (name.equals(WARM_UP_PHASE)) {
+                warmUp = TestDurationBuilder.build(value);
+            }
+            else if (name.equals(MEASUREMENT_PHASE)) {
+                measurement = TestDurationBuilder.build(value);
+            }
+            else {
+                throw new DurationParseException("Invalid phase '" + name + "' on duration " + durationSpec);
+            }
+        }
+
+        if (warmUp == null || measurement == null) {
+            throw new DurationParseException("Both the " + WARM_UP_PHASE + " and the " + MEASUREMENT_PHASE +
+                    " phases must be set on duration " + durationSpec);
+        }
+
+        this.warmUp = warmUp;
+        this.measurement = measurement;
+        this.durationSpec = durationSpec;
+    }
+
+    /**
+     * Whether the duration specifier has phases
+     * @param durationSpec the duration specifier
+     * @return true if it has phases or false otherwise
+     */
+    public static boolean isPhased(final String durationSpec) {
+        return durationSpec.indexOf('=') >= 0;
+    }
+
+    @Override
+    public boolean canContinue(final TestProgress progress) {
+        if (measurementStartEpochMillis < 0) {
+            if (warmUp.canContinue(progress)) {
+                return true;
+            }
+
+            measurementStartEpochMillis = System.currentTimeMillis();
+            measurementStartCount = progress.messageCount();
+        }
+
+        currentProgress = progress;
+        return measurement.canContinue(measurementProgress);
+    }
+
+    /**
+     * Get the measurement phase duration
+     *
+     * @return the measurement phase duration
+     */
+    public TestDuration getMeasurementDuration() {
+        return measurement;
+    }
+
+    /**
+     * Get the numeric duration of the measurement phase
+     *
+     * @return the number of messages or the number of seconds for the measurement phase
+     */
+    @Override
+    public long getNumericDuration() {
+        return measurement.getNumericDuration();
+    }
+
+    /**
+     * Get the warm up phase duration
+     *
+     * @return the warm up phase duration
+     */
+    @Override
+    public TestDuration getWarmUpDuration() {
+        return warmUp;
+    }
+
+    @Override
+    public TestDuration getCoolDownDuration() {
+        return measurement.getCoolDownDuration();
+    }
+
+    @Override
+    public String durationTypeName() {
+        return measurement.durationTypeName();
+    }
+
+    public String toString() {
+        return durationSpec;
+    }
+}
@@ -26,8 +26,9 @@ public class TestDurationBuilder {
 
     /**
      * Builds the appropriate test duration based on a duration specifier
-     * @param durationSpec a duration specifier (either time based such as "1h2m" or
+     * @param durationSpec a duration specifier (either time based such as "1h2m",
      *                     a numeric string representing the number of messages to send
+     *                     or phased, such as "warmup=1000000,measure=30m"
      * @return The appropriate TestDuration object according to the duration specifier
      * @throws DurationParseException
      */
@@ -36,6 +37,10 @@ public class TestDurationBuilder {
             throw new DurationParseException("Invalid duration: null");
         }
 
+        if (PhasedDuration.isPhased(durationSpec)) {
+            return new PhasedDuration(durationSpec);
+        }
+
         if (durationSpec.matches(".*[a-zA-Z].*")) {
             return new DurationTime(durationSpec);
         }
@@ -33,4 +33,21 @@ public interface Evaluator<T> {
      * @param data data containing the condition to be evaluated
      */
     void record(final T data);
+
+    /**
+     * Gets a description of the failed condition, reported when the evaluation fails
+     * @return a message describing why the evaluation failed
+     */
+    default String getFailureMessage() {
+        return "The evaluation of the test condition failed";
+    }
+
+    /**
+     * Sets a listener notified as soon as the evaluation fails, so that the failure can be handled without waiting
+     * for the next check. Evaluators that don't support it must still be checked by calling {@link #eval()}
+     * @param failureListener the listener. It is notified by the thread recording the condition
+     */
+    default void setFailureListener(final Runnable failureListener) {
+        // no op
+    }
 }
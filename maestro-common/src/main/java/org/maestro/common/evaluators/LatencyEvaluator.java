@@ -24,7 +24,8 @@ import org.HdrHistogram.Histogram;
 @SuppressWarnings("WeakerAccess")
 public abstract class LatencyEvaluator implements Evaluator<Histogram> {
     private final double maxValue;
-    private boolean conditionStatus = true;
+    private volatile boolean conditionStatus = true;
+    private volatile Runnable failureListener;
 
     /**
      * Constructor
@@ -47,6 +48,25 @@ public abstract class LatencyEvaluator implements Evaluator<Histogram> {
         return maxValue;
     }
 
+    @Override
+    public String getFailureMessage() {
+        return "The evaluation of the latency condition failed";
+    }
+
+    @Override
+    public void setFailureListener(final Runnable failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Notifies that all the histograms of the current reporting interval were recorded (ie.: one for each worker),
+     * so that the evaluators that work on whole intervals don't have to wait for the next one to evaluate it. It
+     * must be called by the same thread that records the histograms. It does nothing by default
+     */
+    public void intervalCompleted() {
+
+    }
+
     /**
      * Get the mean latency as last recorded
      * @return
@@ -57,7 +77,14 @@ public abstract class LatencyEvaluator implements Evaluator<Histogram> {
      * Mark the evaluation as failed
      */
     protected void setEvalFailed() {
+        final boolean failedNow = this.conditionStatus;
+
         this.conditionStatus = false;
+
+        final Runnable failureListener = this.failureListener;
+        if (failedNow && failureListener != null) {
+            failureListener.run();
+        }
     }
 
 }
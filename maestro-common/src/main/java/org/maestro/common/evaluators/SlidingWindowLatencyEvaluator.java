@@ -0,0 +1,265 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.evaluators;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A latency evaluator that checks multiple service level objectives (ie.: p99 &lt; 5ms and p99.9 &lt; 50ms) against
+ * the latencies recorded over a sliding window of time. It causes the test to fail once any of the objectives is
+ * violated for a number of consecutive windows.
+ *
+ * The histograms recorded with the same end time stamp are considered to be part of the same interval (ie.: one
+ * for each worker) and the window is evaluated once such interval is complete: either when the caller notifies it
+ * through {@link #intervalCompleted()} or when a histogram of a newer interval is recorded. The window is kept as a
+ * single rolling histogram: each completed interval is added to it and the intervals that slide out of it are
+ * subtracted, so the cost of evaluating it doesn't depend on the window size. It is not thread-safe for recording:
+ * it is meant to be fed by a single thread.
+ */
+public class SlidingWindowLatencyEvaluator extends LatencyEvaluator {
+    private static final Logger logger = LoggerFactory.getLogger(SlidingWindowLatencyEvaluator.class);
+
+    /**
+     * A latency objective for a given percentile
+     */
+    public static final class Slo {
+        private final double percentile;
+        private final long maxValue;
+
+        /**
+         * Constructor
+         * @param percentile the percentile to check
+         * @param maxValue the maximum latency allowed at the percentile, in microseconds
+         */
+        public Slo(double percentile, long maxValue) {
+            if (percentile <= 0.0 || percentile > 100.0) {
+                throw new IllegalArgumentException("The percentile must be > 0 and <= 100: " + percentile);
+            }
+
+            if (maxValue <= 0) {
+                throw new IllegalArgumentException("The maximum latency must be > 0: " + maxValue);
+            }
+
+            this.percentile = percentile;
+            this.maxValue = maxValue;
+        }
+
+        /**
+         * Parses an objective in the format p{percentile}&lt;{value}[unit] (ie.: p99&lt;5ms or p99.9&lt;50000us).
+         * The unit can be one of us, ms or s and defaults to ms
+         * @param slo the objective as a string
+         * @return the parsed objective
+         */
+        public static Slo parse(final String slo) {
+            final String value = slo.trim().toLowerCase(Locale.ROOT);
+            final int separator = value.indexOf('<');
+
+            if (!value.startsWith("p") || separator < 0) {
+                throw new IllegalArgumentException("Invalid latency objective: " + slo);
+            }
+
+            try {
+                final double percentile = Double.parseDouble(value.substring(1, separator).trim());
+                final String threshold = value.substring(separator + 1).trim();
+
+                final TimeUnit unit;
+                final String amount;
+                if (threshold.endsWith("us")) {
+                    unit = TimeUnit.MICROSECONDS;
+                    amount = threshold.substring(0, threshold.length() - 2);
+                }
+                else if (threshold.endsWith("ms")) {
+                    unit = TimeUnit.MILLISECONDS;
+                    amount = threshold.substring(0, threshold.length() - 2);
+                }
+                else if (threshold.endsWith("s")) {
+                    unit = TimeUnit.SECONDS;
+                    amount = threshold.substring(0, threshold.length() - 1);
+                }
+                else {
+                    unit = TimeUnit.MILLISECONDS;
+                    amount = threshold;
+                }
+
+                return new Slo(percentile, unit.toMicros(Long.parseLong(amount.trim())));
+            }
+            catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid latency objective: " + slo, e);
+            }
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public long getMaxValue() {
+            return maxValue;
+        }
+
+        @Override
+        public String toString() {
+            return "p" + percentile + "<" + maxValue + "us";
+        }
+    }
+
+    private final List<Slo> slos;
+    private final long windowMillis;
+    private final int maxConsecutiveViolations;
+    private final Deque<Histogram> intervals = new ArrayDeque<>();
+    private Histogram window;
+    private Histogram currentInterval;
+    private Histogram recycledInterval;
+    private int consecutiveViolations;
+    private volatile double mean;
+
+    /**
+     * Constructor
+     * @param slos the latency objectives to check
+     * @param windowMillis the size of the sliding window in milliseconds
+     * @param maxConsecutiveViolations the number of consecutive windows violating any objective after which
+     *                                 the evaluation fails
+     */
+    public SlidingWindowLatencyEvaluator(final List<Slo> slos, long windowMillis, int maxConsecutiveViolations) {
+        super(slos.stream().mapToLong(Slo::getMaxValue).max().orElseThrow(
+                () -> new IllegalArgumentException("At least one latency objective is required")));
+
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("The window size must be > 0: " + windowMillis);
+        }
+
+        if (maxConsecutiveViolations <= 0) {
+            throw new IllegalArgumentException("The number of consecutive violations must be > 0: "
+                    + maxConsecutiveViolations);
+        }
+
+        this.slos = Collections.unmodifiableList(new ArrayList<>(slos));
+        this.windowMillis = windowMillis;
+        this.maxConsecutiveViolations = maxConsecutiveViolations;
+    }
+
+    public List<Slo> getSlos() {
+        return slos;
+    }
+
+    @Override
+    public void record(final Histogram histogram) {
+        if (currentInterval != null && currentInterval.getEndTimeStamp() != histogram.getEndTimeStamp()) {
+            closeInterval();
+        }
+
+        if (currentInterval == null) {
+            // The histograms given are recycled by the caller, so a copy is kept
+            currentInterval = newInterval(histogram.getNumberOfSignificantValueDigits());
+            currentInterval.setStartTimeStamp(histogram.getStartTimeStamp());
+            currentInterval.setEndTimeStamp(histogram.getEndTimeStamp());
+        }
+
+        currentInterval.add(histogram);
+    }
+
+    @Override
+    public void intervalCompleted() {
+        if (currentInterval != null) {
+            closeInterval();
+        }
+    }
+
+    /**
+     * Reuses the last interval that slid out of the window, if any, as it is no longer referenced
+     */
+    private Histogram newInterval(int numberOfSignificantValueDigits) {
+        final Histogram interval = recycledInterval;
+
+        if (interval != null && interval.getNumberOfSignificantValueDigits() == numberOfSignificantValueDigits) {
+            recycledInterval = null;
+            interval.reset();
+
+            return interval;
+        }
+
+        return new Histogram(numberOfSignificantValueDigits);
+    }
+
+    private void closeInterval() {
+        final Histogram interval = currentInterval;
+        currentInterval = null;
+
+        if (window == null) {
+            window = new Histogram(interval.getNumberOfSignificantValueDigits());
+        }
+
+        intervals.addLast(interval);
+        window.add(interval);
+
+        final long windowStart = interval.getEndTimeStamp() - windowMillis;
+        while (intervals.peekFirst().getEndTimeStamp() <= windowStart) {
+            final Histogram expired = intervals.removeFirst();
+
+            window.subtract(expired);
+            recycledInterval = expired;
+        }
+
+        mean = window.getMean();
+        evaluate(window);
+    }
+
+    private void evaluate(final Histogram window) {
+        boolean violated = false;
+
+        for (Slo slo : slos) {
+            final long recordedValue = window.getValueAtPercentile(slo.getPercentile());
+
+            if (logger.isTraceEnabled()) {
+                logger.trace("Checking the current latency at percentile {}: {} x {}", slo.getPercentile(),
+                        recordedValue, slo.getMaxValue());
+            }
+
+            if (recordedValue > slo.getMaxValue()) {
+                logger.warn("The recorded latency ({} us) at percentile {} exceeds the maximum allowed value of ({} us)",
+                        recordedValue, slo.getPercentile(), slo.getMaxValue());
+                violated = true;
+            }
+        }
+
+        if (violated) {
+            consecutiveViolations++;
+
+            if (consecutiveViolations >= maxConsecutiveViolations) {
+                logger.warn("The latency objectives were violated for {} consecutive windows", consecutiveViolations);
+                setEvalFailed();
+            }
+        }
+        else {
+            consecutiveViolations = 0;
+        }
+    }
+
+    @Override
+    public double getMean() {
+        return mean;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.evaluators;
+
+import org.maestro.common.worker.ThroughputStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+
+/**
+ * A throughput evaluator that causes the test to fail if the rate achieved on each interval stays below a
+ * percentage of the target rate for a number of consecutive intervals. Each recorded sample is expected to carry
+ * the total message count and the elapsed time since the start of the test: an interval is the time between
+ * two consecutive samples
+ */
+public class ThroughputEvaluator implements Evaluator<ThroughputStats> {
+    private static final Logger logger = LoggerFactory.getLogger(ThroughputEvaluator.class);
+
+    private final double minimumPercentage;
+    private final int maxConsecutiveShortfalls;
+
+    // The target may change if the number of workers changes while the test is running
+    private volatile double targetRate;
+    private volatile double minimumRate;
+
+    private long lastCount;
+    private long lastElapsedNanos = -1;
+    private int consecutiveShortfalls;
+
+    private volatile boolean conditionStatus = true;
+    private volatile String failureMessage;
+    private volatile Runnable failureListener;
+
+    /**
+     * Constructor
+     * @param targetRate the target rate (in messages per second)
+     * @param minimumPercentage the minimum percentage of the target rate that must be achieved on every interval
+     * @param maxConsecutiveShortfalls the number of consecutive intervals below the minimum rate after which the
+     *                                 evaluation fails
+     */
+    public ThroughputEvaluator(double targetRate, double minimumPercentage, int maxConsecutiveShortfalls) {
+        if (targetRate <= 0) {
+            throw new IllegalArgumentException("The target rate must be > 0: " + targetRate);
+        }
+
+        if (minimumPercentage <= 0 || minimumPercentage > 100) {
+            throw new IllegalArgumentException("The minimum percentage must be > 0 and <= 100: " + minimumPercentage);
+        }
+
+        if (maxConsecutiveShortfalls <= 0) {
+            throw new IllegalArgumentException("The number of consecutive shortfalls must be > 0: "
+                    + maxConsecutiveShortfalls);
+        }
+
+        this.minimumPercentage = minimumPercentage;
+        this.maxConsecutiveShortfalls = maxConsecutiveShortfalls;
+        setTargetRate(targetRate);
+    }
+
+    public double getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * Sets a new target rate, keeping the minimum percentage that must be achieved. It applies from the next
+     * recorded interval on
+     * @param targetRate the target rate (in messages per second)
+     */
+    public void setTargetRate(double targetRate) {
+        if (targetRate <= 0) {
+            throw new IllegalArgumentException("The target rate must be > 0: " + targetRate);
+        }
+
+        this.minimumRate = targetRate * (minimumPercentage / 100.0);
+        this.targetRate = targetRate;
+    }
+
+    @Override
+    public boolean eval() {
+        return conditionStatus;
+    }
+
+    @Override
+    public String getFailureMessage() {
+        final String message = failureMessage;
+
+        return message != null ? message : Evaluator.super.getFailureMessage();
+    }
+
+    @Override
+    public void setFailureListener(final Runnable failureListener) {
+        this.failureListener = failureListener;
+    }
+
+    @Override
+    public void record(final ThroughputStats stats) {
+        final long count = stats.getCount();
+        final long elapsedNanos = stats.getDuration().toNanos();
+
+        if (lastElapsedNanos < 0) {
+            // The first sample is only used as the baseline for the next interval
+            lastCount = count;
+            lastElapsedNanos = elapsedNanos;
+
+            return;
+        }
+
+        final long intervalNanos = elapsedNanos - lastElapsedNanos;
+        if (intervalNanos <= 0) {
+            return;
+        }
+
+        final double intervalRate = ((count - lastCount) * 1_000_000_000.0) / intervalNanos;
+        final double targetRate = this.targetRate;
+        final double minimumRate = this.minimumRate;
+
+        lastCount = count;
+        lastElapsedNanos = elapsedNanos;
+
+        if (intervalRate >= minimumRate) {
+            consecutiveShortfalls = 0;
+
+            return;
+        }
+
+        consecutiveShortfalls++;
+
+        // How far behind the schedule the test is, considering the messages expected at the target rate
+        final double expectedCount = (targetRate * elapsedNanos) / 1_000_000_000.0;
+        final long lagMillis = Math.max(0, Math.round(((expectedCount - count) / targetRate) * 1000.0));
+        final double shortfall = targetRate - intervalRate;
+
+        logger.warn("The achieved rate ({} msg/s) is below the minimum allowed rate ({} msg/s): the shortfall " +
+                "is {} msg/s and the schedule lag is {} ms", Math.round(intervalRate), Math.round(minimumRate),
+                Math.round(shortfall), lagMillis);
+
+        if (consecutiveShortfalls >= maxConsecutiveShortfalls && conditionStatus) {
+            failureMessage = String.format(Locale.ROOT, "The achieved rate stayed below %.0f msg/s for %d " +
+                            "consecutive intervals (target rate: %.0f msg/s, last interval rate: %.0f msg/s, " +
+                            "shortfall: %.0f msg/s, schedule lag: %d ms)", minimumRate, consecutiveShortfalls,
+                    targetRate, intervalRate, shortfall, lagMillis);
+
+            conditionStatus = false;
+
+            final Runnable failureListener = this.failureListener;
+            if (failureListener != null) {
+                failureListener.run();
+            }
+        }
+    }
+}
@@ -46,4 +46,13 @@ public interface Client {
      * @param number the client number
      */
     void setNumber(int number);
+
+
+    /**
+     * Gets the name of the destination used by this client
+     * @return the destination name or null if unknown or not started
+     */
+    default String getDestinationName() {
+        return null;
+    }
 }
@@ -26,4 +26,25 @@ public interface ReceiverClient extends Client {
      * Returns the epoch micros of the current received message or {@link #noMessagePayload()} if isn't received any message.
      */
     long receiveMessages() throws Exception;
+
+    /**
+     * Returns the size in bytes of the last received message or -1 if unknown.
+     */
+    default long lastMessageSize() {
+        return -1;
+    }
+
+    /**
+     * Returns the number of the worker that sent the last received message or -1 if unknown.
+     */
+    default long lastProducerId() {
+        return -1;
+    }
+
+    /**
+     * Returns the sequence assigned by the producer to the last received message or -1 if unknown.
+     */
+    default long lastSequence() {
+        return -1;
+    }
 }
@@ -23,4 +23,11 @@ public interface SenderClient extends Client {
     void sendMessages(long sendTimeEpochInMicros) throws Exception;
 
     void setContentStrategy(ContentStrategy contentStrategy);
+
+    /**
+     * Returns the size in bytes of the last sent message or -1 if unknown.
+     */
+    default int lastMessageSize() {
+        return -1;
+    }
 }
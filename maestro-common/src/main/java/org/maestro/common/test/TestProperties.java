@@ -51,6 +51,9 @@ public class TestProperties extends CommonProperties {
     // 1 = legacy behavior
     private int limitDestinations = 1;
 
+    // null = the threads were not pinned
+    private String cpuAffinity;
+
     public void load(final File testProperties) throws IOException {
         logger.debug("Reading properties from {}", testProperties.getPath());
 
@@ -79,6 +82,8 @@ public class TestProperties extends CommonProperties {
                 limitDestinations = Integer.parseInt(limitDestinationsStr);
             }
 
+            cpuAffinity = prop.getProperty("cpuAffinity");
+
             super.load(prop);
         } catch (Throwable t) {
             logger.error("Invalid data when processing file {}", testProperties.getPath(), t);
@@ -103,6 +108,9 @@ public class TestProperties extends CommonProperties {
         prop.setProperty("apiVersion", apiVersion);
         prop.setProperty("protocol", protocol);
         prop.setProperty("limitDestinations", Integer.toString(limitDestinations));
+        if (cpuAffinity != null) {
+            prop.setProperty("cpuAffinity", cpuAffinity);
+        }
 
         super.write(prop);
 
@@ -186,6 +194,14 @@ public class TestProperties extends CommonProperties {
         this.limitDestinations = limitDestinations;
     }
 
+    public String getCpuAffinity() {
+        return cpuAffinity;
+    }
+
+    public void setCpuAffinity(final String cpuAffinity) {
+        this.cpuAffinity = cpuAffinity;
+    }
+
     @Override
     public String toString() {
         return "TestProperties{" +
@@ -197,6 +213,7 @@ public class TestProperties extends CommonProperties {
                 ", apiVersion='" + apiVersion + '\'' +
                 ", protocol='" + protocol + '\'' +
                 ", limitDestinations=" + limitDestinations +
+                ", cpuAffinity='" + cpuAffinity + '\'' +
                 "} " + super.toString();
     }
 }
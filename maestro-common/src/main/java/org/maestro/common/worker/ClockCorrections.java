@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * Encodes and decodes the clock corrections of the receivers. A correction is the offset, in microseconds, between
+ * the clock of a receiver and the clocks of the senders: the receivers subtract it from the time they read when a
+ * message arrives. They are exchanged as a list of peer id=correction pairs, separated by ';'.
+ */
+public final class ClockCorrections {
+    private static final Logger logger = LoggerFactory.getLogger(ClockCorrections.class);
+
+    private static final char SEPARATOR = ';';
+    private static final char ASSIGNMENT = '=';
+
+    private ClockCorrections() {}
+
+    /**
+     * Encodes the corrections
+     * @param corrections the corrections (in microseconds) indexed by the peer id
+     * @return the encoded corrections
+     */
+    public static String format(final Map<String, Long> corrections) {
+        final StringBuilder builder = new StringBuilder();
+
+        for (Map.Entry<String, Long> entry : corrections.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(SEPARATOR);
+            }
+
+            builder.append(entry.getKey()).append(ASSIGNMENT).append(entry.getValue());
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Decodes the correction of a peer
+     * @param value the encoded corrections
+     * @param id the peer id
+     * @return the correction (in microseconds) of the peer or 0 if not present or invalid
+     */
+    public static long parse(final String value, final String id) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+
+        for (String pair : value.split(String.valueOf(SEPARATOR))) {
+            final int index = pair.indexOf(ASSIGNMENT);
+
+            if (index > 0 && pair.substring(0, index).equals(id)) {
+                try {
+                    return Long.parseLong(pair.substring(index + 1));
+                }
+                catch (NumberFormatException e) {
+                    logger.warn("Ignoring the invalid clock correction {}", pair);
+                    return 0;
+                }
+            }
+        }
+
+        return 0;
+    }
+}
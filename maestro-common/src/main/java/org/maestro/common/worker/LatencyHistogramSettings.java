@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.HdrHistogram.Recorder;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The range and precision of the latency histograms recorded by the workers. The values are in microseconds.
+ */
+public final class LatencyHistogramSettings {
+    private static final Logger logger = LoggerFactory.getLogger(LatencyHistogramSettings.class);
+
+    /**
+     * The value used to request an auto-resizing histogram
+     */
+    public static final String AUTO_RESIZE = "auto";
+
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 3;
+
+    private static final LatencyHistogramSettings DEFAULT = new LatencyHistogramSettings(false,
+            DEFAULT_HIGHEST_TRACKABLE_VALUE, DEFAULT_SIGNIFICANT_DIGITS);
+
+    private final boolean autoResize;
+    private final long highestTrackableValue;
+    private final int significantDigits;
+
+    private LatencyHistogramSettings(boolean autoResize, long highestTrackableValue, int significantDigits) {
+        this.autoResize = autoResize;
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+    }
+
+    /**
+     * Gets the default settings (1 hour range with 3 significant digits)
+     * @return the default settings
+     */
+    public static LatencyHistogramSettings defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * Resolves the settings from the worker options. Invalid values are ignored and replaced by the defaults
+     * @param workerOptions the worker options
+     * @return the settings to use
+     */
+    public static LatencyHistogramSettings from(final WorkerOptions workerOptions) {
+        boolean autoResize = false;
+        long highestTrackableValue = DEFAULT_HIGHEST_TRACKABLE_VALUE;
+        int significantDigits = DEFAULT_SIGNIFICANT_DIGITS;
+
+        final String highestValue = workerOptions.getLatencyHighestValue();
+        if (highestValue != null) {
+            if (AUTO_RESIZE.equalsIgnoreCase(highestValue.trim())) {
+                autoResize = true;
+            }
+            else {
+                try {
+                    final long value = Long.parseLong(highestValue.trim());
+
+                    if (value >= 2) {
+                        highestTrackableValue = value;
+                    }
+                    else {
+                        logger.warn("Ignoring the latency highest trackable value {}: it must be >= 2", value);
+                    }
+                }
+                catch (NumberFormatException e) {
+                    logger.warn("Ignoring the invalid latency highest trackable value {}", highestValue);
+                }
+            }
+        }
+
+        final String precision = workerOptions.getLatencyPrecision();
+        if (precision != null) {
+            try {
+                final int value = Integer.parseInt(precision.trim());
+
+                if (value >= 0 && value <= 5) {
+                    significantDigits = value;
+                }
+                else {
+                    logger.warn("Ignoring the latency precision {}: it must be between 0 and 5", value);
+                }
+            }
+            catch (NumberFormatException e) {
+                logger.warn("Ignoring the invalid latency precision {}", precision);
+            }
+        }
+
+        return new LatencyHistogramSettings(autoResize, highestTrackableValue, significantDigits);
+    }
+
+    /**
+     * Whether the histograms resize themselves to fit any recorded value
+     * @return true if auto-resizing or false otherwise
+     */
+    public boolean isAutoResize() {
+        return autoResize;
+    }
+
+    /**
+     * Gets the highest value that can be recorded. It is meaningless when the histogram is auto-resizing
+     * @return the highest trackable value in microseconds
+     */
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    /**
+     * Gets the number of significant decimal digits kept by the histograms
+     * @return the number of significant digits
+     */
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    /**
+     * Creates a new recorder using these settings
+     * @return a new recorder
+     */
+    public SingleWriterRecorder newRecorder() {
+        if (autoResize) {
+            return new SingleWriterRecorder(significantDigits);
+        }
+
+        return new SingleWriterRecorder(highestTrackableValue, significantDigits);
+    }
+
+    /**
+     * Creates a new recorder, safe to be used by multiple writers, using these settings
+     * @return a new recorder
+     */
+    public Recorder newSharedRecorder() {
+        if (autoResize) {
+            return new Recorder(significantDigits);
+        }
+
+        return new Recorder(highestTrackableValue, significantDigits);
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogramSettings{" +
+                "highestTrackableValue=" + (autoResize ? AUTO_RESIZE : Long.toString(highestTrackableValue)) +
+                ", significantDigits=" + significantDigits +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.HdrHistogram.SingleWriterRecorder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the latencies of a worker. A recorder can either be exclusive to a worker or shared by a group of
+ * workers: in the latter case the memory used by the histograms grows with the number of groups instead of the
+ * number of workers, at the cost of some contention between the workers of a group.
+ */
+public abstract class LatencyRecorder {
+
+    private LatencyRecorder() {
+    }
+
+    /**
+     * Records a latency value
+     * @param value the latency value
+     */
+    public abstract void recordValue(long value);
+
+    /**
+     * Gets the latencies recorded since the last call
+     * @param histogramToRecycle a histogram previously returned by this recorder that can be reused or null
+     * @return the latencies recorded on the interval or null if they are reported by another worker of the group
+     */
+    public abstract Histogram getIntervalHistogram(Histogram histogramToRecycle);
+
+    private static final class ExclusiveLatencyRecorder extends LatencyRecorder {
+        private final SingleWriterRecorder recorder;
+
+        ExclusiveLatencyRecorder(final SingleWriterRecorder recorder) {
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void recordValue(long value) {
+            recorder.recordValue(value);
+        }
+
+        @Override
+        public Histogram getIntervalHistogram(final Histogram histogramToRecycle) {
+            return recorder.getIntervalHistogram(histogramToRecycle);
+        }
+    }
+
+    private static final class SharedLatencyRecorder extends LatencyRecorder {
+        private final Recorder recorder;
+        private final boolean reporting;
+
+        SharedLatencyRecorder(final Recorder recorder, boolean reporting) {
+            this.recorder = recorder;
+            this.reporting = reporting;
+        }
+
+        @Override
+        public void recordValue(long value) {
+            recorder.recordValue(value);
+        }
+
+        @Override
+        public Histogram getIntervalHistogram(final Histogram histogramToRecycle) {
+            if (!reporting) {
+                return null;
+            }
+
+            return recorder.getIntervalHistogram(histogramToRecycle);
+        }
+    }
+
+    /**
+     * Creates a recorder exclusive to a single worker
+     * @param settings the histogram settings
+     * @return a new recorder
+     */
+    public static LatencyRecorder exclusive(final LatencyHistogramSettings settings) {
+        return new ExclusiveLatencyRecorder(settings.newRecorder());
+    }
+
+    /**
+     * Creates the recorders for a number of workers, sharing each recorder among a group of workers. Only the first
+     * worker of each group reports the latencies recorded by the group.
+     * @param settings the histogram settings
+     * @param workers the number of workers
+     * @param groupSize the number of workers sharing a recorder. If lower than 2, the recorders are exclusive
+     * @return the recorders, indexed by the worker number
+     */
+    public static List<LatencyRecorder> striped(final LatencyHistogramSettings settings, int workers, int groupSize) {
+        final List<LatencyRecorder> recorders = new ArrayList<>(workers);
+
+        if (groupSize < 2) {
+            for (int i = 0; i < workers; i++) {
+                recorders.add(exclusive(settings));
+            }
+
+            return recorders;
+        }
+
+        Recorder groupRecorder = null;
+        for (int i = 0; i < workers; i++) {
+            final boolean reporting = (i % groupSize) == 0;
+
+            if (reporting) {
+                groupRecorder = settings.newSharedRecorder();
+            }
+
+            recorders.add(new SharedLatencyRecorder(groupRecorder, reporting));
+        }
+
+        return recorders;
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.maestro.common.worker;
 
+import org.HdrHistogram.Histogram;
 import org.maestro.common.stats.PerfStats;
 
 import java.time.Duration;
@@ -26,6 +27,7 @@ import java.time.Duration;
 public class LatencyStats implements PerfStats {
     private Duration duration;
     private double latency;
+    private Histogram intervalHistogram;
 
     public Duration getDuration() {
         return duration;
@@ -43,11 +45,40 @@ public class LatencyStats implements PerfStats {
         this.latency = latency;
     }
 
+    /**
+     * Gets the latency histogram of the last reported interval
+     * @return the interval histogram or null if none has been reported yet
+     */
+    public Histogram getIntervalHistogram() {
+        return intervalHistogram;
+    }
+
+    public void setIntervalHistogram(Histogram intervalHistogram) {
+        this.intervalHistogram = intervalHistogram;
+    }
+
+    public long getValueAtPercentile(double percentile) {
+        if (intervalHistogram == null) {
+            return 0;
+        }
+
+        return intervalHistogram.getValueAtPercentile(percentile);
+    }
+
+    public long getMaxValue() {
+        if (intervalHistogram == null) {
+            return 0;
+        }
+
+        return intervalHistogram.getMaxValue();
+    }
+
     @Override
     public String toString() {
         return "LatencyStats{" +
                 "duration=" + duration +
                 ", latency=" + latency +
+                ", intervalHistogram=" + (intervalHistogram == null ? "none" : intervalHistogram.getTotalCount() + " samples") +
                 '}';
     }
 }
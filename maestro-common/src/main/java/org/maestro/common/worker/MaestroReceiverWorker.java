@@ -21,4 +21,13 @@ package org.maestro.common.worker;
  */
 public interface MaestroReceiverWorker extends MaestroWorker {
 
+    /**
+     * Sets the recorder used to record the latencies, possibly shared with other workers. It must be set before
+     * the worker options, otherwise the worker creates its own exclusive recorder.
+     *
+     * @param latencyRecorder the latency recorder
+     */
+    default void setLatencyRecorder(LatencyRecorder latencyRecorder) {
+
+    }
 }
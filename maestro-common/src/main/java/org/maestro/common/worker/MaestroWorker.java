@@ -17,7 +17,9 @@
 package org.maestro.common.worker;
 
 import org.HdrHistogram.Histogram;
+import org.maestro.common.duration.MessageBudget;
 import org.maestro.common.duration.TestDuration;
+import org.maestro.common.writers.OneToOneTraceChannel;
 import org.maestro.common.writers.OneToOneWorkerChannel;
 
 /**
@@ -41,6 +43,19 @@ public interface MaestroWorker extends Runnable, TestDuration.TestProgress {
     void setWorkerOptions(WorkerOptions workerOptions);
 
 
+    /**
+     * Sets the message count shared with the other workers of this peer, so that all of them together process the
+     * test count instead of each one processing it all. The senders share the messages they send, while the
+     * receivers share the ones they receive only if they split the messages among them (ie.: the consumers of a
+     * queue). It must be set after the worker options, otherwise the worker counts its own messages.
+     *
+     * @param messageBudget the message budget
+     */
+    default void setMessageBudget(MessageBudget messageBudget) {
+
+    }
+
+
     /**
      * Gets the current state of the worker
      *
@@ -49,6 +64,17 @@ public interface MaestroWorker extends Runnable, TestDuration.TestProgress {
     WorkerStateInfo getWorkerState();
 
 
+    /**
+     * Prepares the test (ie.: establishing the connections and sessions) so that the cost is not paid after the
+     * test starts. It is called on the thread running the worker, before {@link #run()}
+     *
+     * @throws Exception if unable to prepare the test
+     */
+    default void prepare() throws Exception {
+
+    }
+
+
     /**
      * Starts the test
      */
@@ -77,6 +103,16 @@ public interface MaestroWorker extends Runnable, TestDuration.TestProgress {
     }
 
 
+    /**
+     * It is the single consumer channel that emit the sampled per-message traces of the worker.
+     * <p>
+     * It can be {@code null} if tracing is not supported or not enabled.
+     */
+    default OneToOneTraceChannel traceChannel() {
+        return null;
+    }
+
+
     /**
      * It is able to take a snapshot of the current recorder latencies.
      *
@@ -28,6 +28,10 @@ public class WorkerOptions {
     private String throttle;
     private String rate;
     private String fcl;
+    private String latencyHighestValue;
+    private String latencyPrecision;
+    private long clockCorrection;
+    private long clockOffset;
 
     /**
      * Gets the broker URL
@@ -157,4 +161,60 @@ public class WorkerOptions {
     public void setFcl(String fcl) {
         this.fcl = fcl;
     }
+
+
+    public String getLatencyHighestValue() {
+        return latencyHighestValue;
+    }
+
+
+    /**
+     * Sets the highest latency value, in microseconds, tracked by the latency histograms or "auto" for
+     * auto-resizing histograms
+     * @param latencyHighestValue
+     */
+    public void setLatencyHighestValue(String latencyHighestValue) {
+        this.latencyHighestValue = latencyHighestValue;
+    }
+
+    public String getLatencyPrecision() {
+        return latencyPrecision;
+    }
+
+
+    /**
+     * Sets the number of significant digits kept by the latency histograms
+     * @param latencyPrecision
+     */
+    public void setLatencyPrecision(String latencyPrecision) {
+        this.latencyPrecision = latencyPrecision;
+    }
+
+    public long getClockCorrection() {
+        return clockCorrection;
+    }
+
+
+    /**
+     * Sets the offset, in microseconds, between the clock of this peer and the clocks of the senders. Receivers
+     * subtract it from the time they read when a message arrives
+     * @param clockCorrection
+     */
+    public void setClockCorrection(long clockCorrection) {
+        this.clockCorrection = clockCorrection;
+    }
+
+    public long getClockOffset() {
+        return clockOffset;
+    }
+
+
+    /**
+     * Sets the offset, in microseconds, between the clock of this peer and the clock of the front-end. It is
+     * subtracted from the time read by the peer when waiting for a start instant scheduled by the front-end
+     * @param clockOffset
+     */
+    public void setClockOffset(long clockOffset) {
+        this.clockOffset = clockOffset;
+    }
 }
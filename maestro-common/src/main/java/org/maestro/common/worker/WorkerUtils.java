@@ -16,6 +16,8 @@
 
 package org.maestro.common.worker;
 
+import org.maestro.common.ConfigurationWrapper;
+
 /**
  * Worker utilities
  */
@@ -30,4 +32,14 @@ public class WorkerUtils {
     public static long getExchangeInterval(final long rate) {
         return rate > 0 ? (1_000_000_000L / rate) : 0;
     }
+
+    /**
+     * Gets the sampling interval used for the per-message trace log (ie.: one every N messages is traced)
+     * @return the sampling interval or 0 if the trace log is disabled
+     */
+    public static long getTraceSamplingInterval() {
+        final long interval = ConfigurationWrapper.getConfig().getLong("maestro.worker.trace.sampling.interval", 0L);
+
+        return interval > 0 ? interval : 0;
+    }
 }
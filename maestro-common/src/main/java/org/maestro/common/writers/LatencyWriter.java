@@ -18,6 +18,7 @@ package org.maestro.common.writers;
 
 import org.HdrHistogram.EncodableHistogram;
 import org.HdrHistogram.HistogramLogWriter;
+import org.maestro.common.worker.LatencyHistogramSettings;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -30,6 +31,10 @@ import java.io.OutputStream;
  * @see <a href="https://github.com/HdrHistogram/HdrHistogram/">HdrHistogram</a> documentation
  */
 public final class LatencyWriter implements AutoCloseable {
+    public static final String HEADER_LATENCY_UNIT = "LatencyUnit";
+    public static final String HEADER_HIGHEST_TRACKABLE_VALUE = "HighestTrackableValue";
+    public static final String HEADER_SIGNIFICANT_DIGITS = "SignificantDigits";
+    public static final String WORKER_TAG_PREFIX = "worker-";
 
     private final HistogramLogWriter logWriter;
     private final OutputStream out;
@@ -46,12 +51,53 @@ public final class LatencyWriter implements AutoCloseable {
     }
 
     public void outputLegend(long startedEpochMillis) {
+        outputLegend(startedEpochMillis, LatencyHistogramSettings.defaults());
+    }
+
+    /**
+     * Outputs the log header, including the unit, range and precision used to record the histograms
+     *
+     * @param startedEpochMillis the start time of the log
+     * @param settings the settings of the recorded histograms
+     */
+    public void outputLegend(long startedEpochMillis, final LatencyHistogramSettings settings) {
         logWriter.outputComment("[mpt]");
+        logWriter.outputComment("[" + HEADER_LATENCY_UNIT + ": us]");
+        logWriter.outputComment("[" + HEADER_HIGHEST_TRACKABLE_VALUE + ": " + (settings.isAutoResize() ?
+                LatencyHistogramSettings.AUTO_RESIZE : Long.toString(settings.getHighestTrackableValue())) + "]");
+        logWriter.outputComment("[" + HEADER_SIGNIFICANT_DIGITS + ": " + settings.getSignificantDigits() + "]");
         logWriter.outputLogFormatVersion();
         logWriter.outputStartTime(startedEpochMillis);
         logWriter.outputLegend();
     }
 
+    /**
+     * Gets the tag used to identify the interval histograms of a worker
+     * @param workerNumber the worker number
+     * @return the tag
+     */
+    public static String workerTag(int workerNumber) {
+        return WORKER_TAG_PREFIX + workerNumber;
+    }
+
+    /**
+     * Gets the worker number from the tag of an interval histogram
+     * @param tag the tag
+     * @return the worker number or -1 if the tag does not identify a worker
+     */
+    public static int workerNumber(final String tag) {
+        if (tag == null || !tag.startsWith(WORKER_TAG_PREFIX)) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(tag.substring(WORKER_TAG_PREFIX.length()));
+        }
+        catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     public void outputIntervalHistogram(EncodableHistogram histogram) {
         logWriter.outputIntervalHistogram(histogram);
     }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.broadcast.BroadcastBufferDescriptor;
+import org.agrona.concurrent.broadcast.BroadcastReceiver;
+import org.agrona.concurrent.broadcast.BroadcastTransmitter;
+import org.agrona.concurrent.ringbuffer.RecordDescriptor;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * A single producer/single consumer channel used to emit the sampled per-message trace records
+ * of a worker. Unknown values are represented by negative numbers.
+ */
+public final class OneToOneTraceChannel {
+    private static final int PRODUCER_ID_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = PRODUCER_ID_OFFSET + Long.BYTES;
+    private static final int SEND_TIME_OFFSET = SEQUENCE_OFFSET + Long.BYTES;
+    private static final int RECEIVE_TIME_OFFSET = SEND_TIME_OFFSET + Long.BYTES;
+    private static final int SIZE_OFFSET = RECEIVE_TIME_OFFSET + Long.BYTES;
+    private static final int CONTENT_LENGTH = SIZE_OFFSET + Long.BYTES;
+
+    /**
+     * Flyweight class that wrap a trace data.<p>
+     * It can't be collected or retained, but just used to read trace data.
+     */
+    public static final class Trace {
+
+        private DirectBuffer buffer;
+
+        public long producerId() {
+            return buffer.getLong(PRODUCER_ID_OFFSET);
+        }
+
+        public long sequence() {
+            return buffer.getLong(SEQUENCE_OFFSET);
+        }
+
+        public long sendTimeEpochMicros() {
+            return buffer.getLong(SEND_TIME_OFFSET);
+        }
+
+        public long receiveTimeEpochMicros() {
+            return buffer.getLong(RECEIVE_TIME_OFFSET);
+        }
+
+        public long size() {
+            return buffer.getLong(SIZE_OFFSET);
+        }
+    }
+
+    private final BroadcastTransmitter writeBuffer;
+    private final BroadcastReceiver receiver;
+    private final UnsafeBuffer emitBuffer;
+    private final UnsafeBuffer readBuffer;
+    private final Trace currentTrace;
+    private volatile String destination;
+
+    public OneToOneTraceChannel(int capacity) {
+        //agrona doesn't allow too small ring buffers
+        capacity = Math.max(8, capacity);
+        //the producer and the consumer use their own buffers
+        this.emitBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(CONTENT_LENGTH));
+        this.readBuffer = new UnsafeBuffer(ByteBuffer.allocateDirect(CONTENT_LENGTH));
+        final int requiredRingBufferCapacity =
+                BitUtil.findNextPositivePowerOfTwo(
+                        BitUtil.findNextPositivePowerOfTwo(capacity) *
+                                (BitUtil.align(CONTENT_LENGTH + RecordDescriptor.HEADER_LENGTH, RecordDescriptor.ALIGNMENT)))
+                        + BroadcastBufferDescriptor.TRAILER_LENGTH;
+        final AtomicBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(requiredRingBufferCapacity));
+        this.writeBuffer = new BroadcastTransmitter(buffer);
+        this.receiver = new BroadcastReceiver(buffer);
+        this.currentTrace = new Trace();
+        this.currentTrace.buffer = this.readBuffer;
+    }
+
+    /**
+     * Sets the destination the traced messages are exchanged with
+     * @param destination the destination name
+     */
+    public void setDestination(final String destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * Gets the destination the traced messages are exchanged with
+     * @return the destination name or null if unknown
+     */
+    public String destination() {
+        return destination;
+    }
+
+    /**
+     * Safe to be used by just one thread
+     */
+    public void emitTrace(long producerId, long sequence, long size, long sendTimeEpochMicros,
+                          long receiveTimeEpochMicros) {
+        emitBuffer.putLong(PRODUCER_ID_OFFSET, producerId);
+        emitBuffer.putLong(SEQUENCE_OFFSET, sequence);
+        emitBuffer.putLong(SEND_TIME_OFFSET, sendTimeEpochMicros);
+        emitBuffer.putLong(RECEIVE_TIME_OFFSET, receiveTimeEpochMicros);
+        emitBuffer.putLong(SIZE_OFFSET, size);
+        this.writeBuffer.transmit(1, emitBuffer, 0, CONTENT_LENGTH);
+    }
+
+    /**
+     * Safe to be used by just one thread
+     */
+    public int readTrace(Consumer<Trace> onTrace, int limit) {
+        for (int i = 0; i < limit; i++) {
+            boolean valid;
+            do {
+                final boolean receiveNext = this.receiver.receiveNext();
+                if (!receiveNext) {
+                    return i;
+                }
+                this.readBuffer.putBytes(0, this.receiver.buffer(), this.receiver.offset(), this.receiver.length());
+                valid = this.receiver.validate();
+            } while (!valid);
+            onTrace.accept(currentTrace);
+        }
+        return limit;
+    }
+
+    /**
+     * Safe to be called concurrently
+     */
+    public long missedTraces() {
+        return receiver.lappedCount();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.writers;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A writer class for the sampled per-message trace data. This data is saved to a compressed file in the format
+ * {role}d-trace.csv.gz. The timestamps are written as microseconds since the epoch and unknown values are left
+ * empty.
+ */
+public final class TraceWriter implements AutoCloseable {
+    public static final char SEPARATOR = ',';
+    private static final String HEADER = "producer,sequence,destination,size,sent,received";
+
+    private final OutputStream outputStream;
+    private final StringBuilder lineBuilder = new StringBuilder(128);
+    private final File reportFile;
+
+    public TraceWriter(final File reportFolder, boolean sender) throws IOException {
+        final String role = sender ? "sender" : "receiver";
+        this.reportFile = new File(reportFolder, role + "d-trace.csv.gz");
+
+        outputStream = new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(reportFile)));
+        outputStream.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public File reportFile() {
+        return reportFile;
+    }
+
+    private StringBuilder appendKnown(long value) {
+        if (value >= 0) {
+            lineBuilder.append(value);
+        }
+
+        return lineBuilder;
+    }
+
+    public void write(final String destination, long producerId, long sequence, long size,
+                      long sendTimeEpochMicros, long receiveTimeEpochMicros) {
+        lineBuilder.setLength(0);
+        lineBuilder.append('\n');
+        appendKnown(producerId).append(SEPARATOR);
+        appendKnown(sequence).append(SEPARATOR);
+        if (destination != null) {
+            lineBuilder.append(destination);
+        }
+        lineBuilder.append(SEPARATOR);
+        appendKnown(size).append(SEPARATOR);
+        appendKnown(sendTimeEpochMicros).append(SEPARATOR);
+        appendKnown(receiveTimeEpochMicros);
+
+        try {
+            for (int i = 0; i < lineBuilder.length(); i++) {
+                outputStream.write(lineBuilder.charAt(i));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void close() {
+        try {
+            outputStream.flush();
+            outputStream.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.affinity;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CpuAffinityTest {
+
+    @Test
+    public void testParseCoreList() {
+        final BitSet cores = CpuAffinity.parseCoreList("0-3, 8,10-11");
+
+        assertEquals(7, cores.cardinality());
+        assertEquals("0-3,8,10-11", CpuAffinity.toCoreList(cores));
+        assertTrue(CpuAffinity.parseCoreList("").isEmpty());
+        assertTrue(CpuAffinity.parseCoreList(null).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidCoreList() {
+        CpuAffinity.parseCoreList("3-1");
+    }
+
+    @Test
+    public void testNthCore() {
+        final BitSet cores = CpuAffinity.parseCoreList("2,4-5");
+
+        assertEquals("2", CpuAffinity.toCoreList(CpuAffinity.nthCore(cores, 0)));
+        assertEquals("5", CpuAffinity.toCoreList(CpuAffinity.nthCore(cores, 2)));
+        assertEquals("2", CpuAffinity.toCoreList(CpuAffinity.nthCore(cores, 3)));
+        assertTrue(CpuAffinity.nthCore(new BitSet(), 1).isEmpty());
+    }
+}
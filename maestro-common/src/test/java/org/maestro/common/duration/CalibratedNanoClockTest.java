@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CalibratedNanoClockTest {
+
+    @Test
+    public void testFollowsTheReferenceClock() {
+        final long referenceOffset = TimeUnit.DAYS.toMicros(365);
+        final EpochMicroClock reference = () -> TimeUnit.NANOSECONDS.toMicros(System.nanoTime()) + referenceOffset;
+        final CalibratedNanoClock clock = new CalibratedNanoClock(reference, 1, TimeUnit.HOURS);
+
+        final long difference = Math.abs(clock.microTime() - reference.microTime());
+        assertTrue("The clock is too far from the reference: " + difference + "us", difference < 1000);
+    }
+
+    @Test
+    public void testRecalibratesAfterTheInterval() throws InterruptedException {
+        final AtomicLong step = new AtomicLong();
+        final EpochMicroClock reference = () -> TimeUnit.NANOSECONDS.toMicros(System.nanoTime()) + step.get();
+        final CalibratedNanoClock clock = new CalibratedNanoClock(reference, 10, TimeUnit.MILLISECONDS);
+
+        final long stepMicros = TimeUnit.SECONDS.toMicros(10);
+        step.set(stepMicros);
+        assertTrue("The clock should not follow the step before the recalibration",
+                reference.microTime() - clock.microTime() > stepMicros / 2);
+
+        Thread.sleep(20);
+        clock.microTime();
+
+        final long difference = Math.abs(clock.microTime() - reference.microTime());
+        assertEquals("The clock did not follow the step after the recalibration", 0, difference / 1000);
+    }
+}
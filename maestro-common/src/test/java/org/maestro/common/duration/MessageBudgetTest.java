@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.duration;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MessageBudgetTest {
+
+    private static final class Progress implements TestDuration.TestProgress {
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public long startedEpochMillis() {
+            return 0;
+        }
+
+        @Override
+        public long messageCount() {
+            return count.get();
+        }
+    }
+
+    @Test
+    public void testClaimsSlicesUntilExhausted() {
+        final MessageBudget budget = new MessageBudget(10, 4);
+
+        assertEquals(4, budget.claim());
+        assertEquals(4, budget.claim());
+        assertEquals(2, budget.claim());
+        assertEquals(0, budget.claim());
+        assertEquals(0, budget.getRemaining());
+    }
+
+    @Test
+    public void testWorkersProcessTheWholeCountTogether() throws Exception {
+        final MessageBudget budget = new MessageBudget(100_000, 64);
+        final List<Thread> threads = new ArrayList<>();
+        final List<Progress> progresses = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            final Progress progress = new Progress();
+            final TestDuration duration = MessageBudget.share(new DurationCount(1), budget);
+
+            progresses.add(progress);
+            threads.add(new Thread(() -> {
+                while (duration.canContinue(progress)) {
+                    progress.count.incrementAndGet();
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100_000, progresses.stream().mapToLong(Progress::messageCount).sum());
+    }
+
+    @Test
+    public void testOnlySharesCountDurations() throws Exception {
+        final TestDuration time = TestDurationBuilder.build("10s");
+
+        assertSame(time, MessageBudget.share(time, new MessageBudget(10, 1)));
+
+        final TestDuration count = new DurationCount(10);
+        assertSame(count, MessageBudget.share(count, null));
+        assertFalse(MessageBudget.share(count, new MessageBudget(0, 1)).canContinue(new Progress()));
+        assertTrue(MessageBudget.share(count, new MessageBudget(1, 1)).canContinue(new Progress()));
+    }
+
+    @Test(timeout = 60_000L)
+    public void testReceiversStopOnceTheyReceivedTheWholeCountTogether() throws Exception {
+        final MessageBudget budget = new MessageBudget(100_000, 64);
+        // The messages sent to a queue, split among the receivers as they come
+        final AtomicLong queue = new AtomicLong(100_000);
+        final List<Thread> threads = new ArrayList<>();
+        final List<Progress> progresses = new ArrayList<>();
+
+        for (int i = 0; i < 4; i++) {
+            final Progress progress = new Progress();
+            final TestDuration duration = MessageBudget.shareReceived(new DurationCount(100_000), budget);
+
+            progresses.add(progress);
+            threads.add(new Thread(() -> {
+                while (duration.canContinue(progress)) {
+                    if (queue.getAndDecrement() > 0) {
+                        progress.count.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(budget.isReceived());
+        assertEquals(100_000, progresses.stream().mapToLong(Progress::messageCount).sum());
+    }
+
+    @Test
+    public void testOnlySharesReceivedCountDurations() throws Exception {
+        final TestDuration time = TestDurationBuilder.build("10s");
+
+        assertSame(time, MessageBudget.shareReceived(time, new MessageBudget(10, 1)));
+
+        final TestDuration count = new DurationCount(10);
+        assertSame(count, MessageBudget.shareReceived(count, null));
+    }
+}
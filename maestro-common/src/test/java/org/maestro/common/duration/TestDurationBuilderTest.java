@@ -17,7 +17,11 @@
 package org.maestro.common.duration;
 
 import org.junit.Test;
+import org.maestro.common.exceptions.DurationParseException;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TestDurationBuilderTest {
@@ -55,4 +59,42 @@ public class TestDurationBuilderTest {
 
         assertTrue(td.getClass() == DurationTime.class);
     }
+
+    @Test
+    public void testDurationWithPhases() throws Exception {
+        TestDuration td = TestDurationBuilder.build("warmup=10,measure=30m");
+
+        assertTrue(td.getClass() == PhasedDuration.class);
+        assertTrue(td.getWarmUpDuration().getClass() == DurationCount.class);
+        assertTrue(((PhasedDuration) td).getMeasurementDuration().getClass() == DurationTime.class);
+        assertEquals("warmup=10,measure=30m", td.toString());
+    }
+
+    @Test(expected = DurationParseException.class)
+    public void testDurationWithMissingPhase() throws Exception {
+        TestDuration td = TestDurationBuilder.build("warmup=10");
+    }
+
+    @Test
+    public void testMeasurementStartsAfterTheWarmUp() throws Exception {
+        final TestDuration td = TestDurationBuilder.build("warmup=10,measure=5");
+        final AtomicLong count = new AtomicLong();
+        final TestDuration.TestProgress progress = new TestDuration.TestProgress() {
+            @Override
+            public long startedEpochMillis() {
+                return 0;
+            }
+
+            @Override
+            public long messageCount() {
+                return count.get();
+            }
+        };
+
+        while (td.canContinue(progress)) {
+            count.incrementAndGet();
+        }
+
+        assertEquals(15, count.get());
+    }
 }
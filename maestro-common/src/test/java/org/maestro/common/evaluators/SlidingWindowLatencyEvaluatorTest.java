@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.evaluators;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SlidingWindowLatencyEvaluatorTest {
+
+    private static Histogram interval(long endTimeStamp, long value) {
+        Histogram histogram = new Histogram(3);
+
+        histogram.recordValueWithCount(value, 100);
+        histogram.setStartTimeStamp(endTimeStamp - 1000);
+        histogram.setEndTimeStamp(endTimeStamp);
+
+        return histogram;
+    }
+
+    private static SlidingWindowLatencyEvaluator newEvaluator(long windowMillis) {
+        return new SlidingWindowLatencyEvaluator(Arrays.asList(
+                SlidingWindowLatencyEvaluator.Slo.parse("p99<5ms"),
+                SlidingWindowLatencyEvaluator.Slo.parse("p99.9<50ms")), windowMillis, 2);
+    }
+
+    @Test
+    public void testParseSlo() {
+        SlidingWindowLatencyEvaluator.Slo slo = SlidingWindowLatencyEvaluator.Slo.parse("p99.9<50ms");
+
+        assertEquals(99.9, slo.getPercentile(), 0.0);
+        assertEquals(50000, slo.getMaxValue());
+
+        assertEquals(500, SlidingWindowLatencyEvaluator.Slo.parse("p90<500us").getMaxValue());
+        assertEquals(2000000, SlidingWindowLatencyEvaluator.Slo.parse("p50 < 2s").getMaxValue());
+        assertEquals(10000, SlidingWindowLatencyEvaluator.Slo.parse("p50<10").getMaxValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseInvalidSlo() {
+        SlidingWindowLatencyEvaluator.Slo.parse("99<10ms");
+    }
+
+    @Test
+    public void testFailsAfterConsecutiveViolations() {
+        SlidingWindowLatencyEvaluator evaluator = newEvaluator(1000);
+
+        // Two workers reporting on the same interval
+        evaluator.record(interval(1000, 10000));
+        evaluator.record(interval(1000, 10000));
+        evaluator.record(interval(2000, 10000));
+        assertTrue("A single violation should not fail the evaluation", evaluator.eval());
+
+        evaluator.record(interval(3000, 1000));
+        assertFalse("Two consecutive violations should fail the evaluation", evaluator.eval());
+    }
+
+    @Test
+    public void testViolationIsKeptWithinTheWindow() {
+        SlidingWindowLatencyEvaluator evaluator = newEvaluator(3000);
+
+        // The slow interval still affects the window ending on the next one
+        evaluator.record(interval(1000, 10000));
+        evaluator.record(interval(2000, 1000));
+        evaluator.record(interval(3000, 1000));
+
+        assertFalse("The window still had the slow interval", evaluator.eval());
+    }
+
+    @Test
+    public void testNonConsecutiveViolations() {
+        SlidingWindowLatencyEvaluator evaluator = newEvaluator(1000);
+
+        for (long time = 1000; time <= 10000; time += 1000) {
+            evaluator.record(interval(time, time % 2000 == 0 ? 10000 : 1000));
+        }
+
+        assertTrue("The violations were not consecutive", evaluator.eval());
+        // The last interval is still open, so the mean is the one of the window ending at 9000
+        assertEquals(1000, evaluator.getMean(), 1.0);
+    }
+
+    @Test
+    public void testEvaluatesTheCompletedInterval() {
+        SlidingWindowLatencyEvaluator evaluator = newEvaluator(1000);
+
+        evaluator.record(interval(1000, 10000));
+        evaluator.intervalCompleted();
+        assertEquals("The completed interval should be evaluated right away", 10000, evaluator.getMean(), 10.0);
+
+        // The last interval of the test is not followed by any other
+        evaluator.record(interval(2000, 10000));
+        evaluator.intervalCompleted();
+        assertFalse("The last interval should be evaluated once completed", evaluator.eval());
+
+        // Completing an interval without any new histogram is a no-op
+        evaluator.intervalCompleted();
+        assertFalse(evaluator.eval());
+    }
+
+    @Test
+    public void testRollingWindowForgetsTheExpiredIntervals() {
+        SlidingWindowLatencyEvaluator evaluator = newEvaluator(2000);
+
+        evaluator.record(interval(1000, 10000));
+        evaluator.intervalCompleted();
+        evaluator.record(interval(2000, 1000));
+        evaluator.intervalCompleted();
+        assertEquals("Both intervals are within the window", 5500, evaluator.getMean(), 10.0);
+
+        // The first interval slides out of the window, so its latencies are subtracted from it
+        for (long time = 3000; time <= 6000; time += 1000) {
+            evaluator.record(interval(time, 1000));
+            evaluator.intervalCompleted();
+            assertEquals(1000, evaluator.getMean(), 1.0);
+        }
+
+        assertFalse("The first two windows violated the objectives", evaluator.eval());
+    }
+}
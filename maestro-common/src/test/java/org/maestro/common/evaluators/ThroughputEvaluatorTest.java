@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.evaluators;
+
+import org.junit.Test;
+import org.maestro.common.worker.ThroughputStats;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThroughputEvaluatorTest {
+
+    private static ThroughputStats sample(long count, long elapsedSeconds) {
+        ThroughputStats stats = new ThroughputStats();
+
+        stats.setCount(count);
+        stats.setDuration(Duration.ofSeconds(elapsedSeconds));
+
+        return stats;
+    }
+
+    @Test
+    public void testRateAboveThreshold() {
+        ThroughputEvaluator evaluator = new ThroughputEvaluator(1000, 90, 2);
+
+        evaluator.record(sample(0, 0));
+        for (int i = 1; i <= 10; i++) {
+            evaluator.record(sample(i * 950, i));
+        }
+
+        assertTrue(evaluator.eval());
+    }
+
+    @Test
+    public void testIsolatedShortfallIsTolerated() {
+        ThroughputEvaluator evaluator = new ThroughputEvaluator(1000, 90, 2);
+
+        evaluator.record(sample(0, 0));
+        evaluator.record(sample(1000, 1));
+        evaluator.record(sample(1500, 2));
+        evaluator.record(sample(2500, 3));
+        evaluator.record(sample(3000, 4));
+        evaluator.record(sample(4000, 5));
+
+        assertTrue(evaluator.eval());
+    }
+
+    @Test
+    public void testConsecutiveShortfallsFail() {
+        ThroughputEvaluator evaluator = new ThroughputEvaluator(1000, 90, 2);
+
+        evaluator.record(sample(0, 0));
+        evaluator.record(sample(1000, 1));
+        evaluator.record(sample(1500, 2));
+        assertTrue(evaluator.eval());
+
+        evaluator.record(sample(2000, 3));
+        assertFalse(evaluator.eval());
+        assertTrue(evaluator.getFailureMessage().contains("schedule lag: 1000 ms"));
+    }
+
+    @Test
+    public void testTargetRateChange() {
+        ThroughputEvaluator evaluator = new ThroughputEvaluator(1000, 90, 2);
+
+        evaluator.record(sample(0, 0));
+        evaluator.record(sample(1000, 1));
+
+        // Scaled down: half of the previous rate is enough
+        evaluator.setTargetRate(500);
+        evaluator.record(sample(1500, 2));
+        evaluator.record(sample(2000, 3));
+        assertTrue(evaluator.eval());
+
+        // Scaled up again, but the rate did not follow
+        evaluator.setTargetRate(1000);
+        evaluator.record(sample(2500, 4));
+        evaluator.record(sample(3000, 5));
+        assertFalse(evaluator.eval());
+    }
+
+    @Test
+    public void testFailureListenerIsNotifiedOnce() {
+        ThroughputEvaluator evaluator = new ThroughputEvaluator(1000, 90, 1);
+        AtomicInteger failures = new AtomicInteger();
+
+        evaluator.setFailureListener(failures::incrementAndGet);
+        evaluator.record(sample(0, 0));
+        evaluator.record(sample(1000, 1));
+        assertEquals(0, failures.get());
+
+        evaluator.record(sample(1500, 2));
+        evaluator.record(sample(2000, 3));
+        assertEquals(1, failures.get());
+    }
+}
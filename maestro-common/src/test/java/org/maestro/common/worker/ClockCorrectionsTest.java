@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.common.worker;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClockCorrectionsTest {
+
+    @Test
+    public void testRoundTrip() {
+        Map<String, Long> corrections = new LinkedHashMap<>();
+
+        corrections.put("r1", 300L);
+        corrections.put("r2", -300L);
+        corrections.put("r3", 0L);
+
+        final String value = ClockCorrections.format(corrections);
+
+        assertEquals("r1=300;r2=-300;r3=0", value);
+        assertEquals(300, ClockCorrections.parse(value, "r1"));
+        assertEquals(-300, ClockCorrections.parse(value, "r2"));
+        assertEquals(0, ClockCorrections.parse(value, "r3"));
+    }
+
+    @Test
+    public void testMissingId() {
+        assertEquals(0, ClockCorrections.parse("r1=300;r2=-300", "r"));
+        assertEquals(0, ClockCorrections.parse("r1=300;r2=-300", "r22"));
+        assertEquals(0, ClockCorrections.parse(ClockCorrections.format(new LinkedHashMap<>()), "r1"));
+        assertEquals(0, ClockCorrections.parse(null, "r1"));
+    }
+
+    @Test
+    public void testMalformedValue() {
+        assertEquals(0, ClockCorrections.parse("r1=3OO;r2=-300", "r1"));
+        assertEquals(0, ClockCorrections.parse("r1=;r2=-300", "r1"));
+        assertEquals(0, ClockCorrections.parse("r1;=300", "r1"));
+
+        // The malformed pairs don't affect the others
+        assertEquals(-300, ClockCorrections.parse("r1=3OO;r2=-300", "r2"));
+        assertEquals(-300, ClockCorrections.parse("r1;r2=-300", "r2"));
+    }
+}
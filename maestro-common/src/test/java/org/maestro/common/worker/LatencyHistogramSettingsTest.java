@@ -0,0 +1,75 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramSettingsTest {
+
+    private static LatencyHistogramSettings settings(final String highestValue, final String precision) {
+        WorkerOptions workerOptions = new WorkerOptions();
+
+        workerOptions.setLatencyHighestValue(highestValue);
+        workerOptions.setLatencyPrecision(precision);
+
+        return LatencyHistogramSettings.from(workerOptions);
+    }
+
+    @Test
+    public void testDefaults() {
+        LatencyHistogramSettings settings = settings(null, null);
+
+        assertFalse(settings.isAutoResize());
+        assertEquals(LatencyHistogramSettings.DEFAULT_HIGHEST_TRACKABLE_VALUE, settings.getHighestTrackableValue());
+        assertEquals(LatencyHistogramSettings.DEFAULT_SIGNIFICANT_DIGITS, settings.getSignificantDigits());
+    }
+
+    @Test
+    public void testValidValues() {
+        LatencyHistogramSettings settings = settings(" 60000000 ", "2");
+
+        assertFalse(settings.isAutoResize());
+        assertEquals(60000000, settings.getHighestTrackableValue());
+        assertEquals(2, settings.getSignificantDigits());
+        assertEquals(60000000, settings.newRecorder().getIntervalHistogram().getHighestTrackableValue());
+    }
+
+    @Test
+    public void testAutoResize() {
+        LatencyHistogramSettings settings = settings("AUTO", "4");
+
+        assertTrue(settings.isAutoResize());
+        assertEquals(4, settings.getSignificantDigits());
+        assertTrue(settings.newSharedRecorder().getIntervalHistogram().isAutoResize());
+    }
+
+    @Test
+    public void testInvalidValuesUseTheDefaults() {
+        assertEquals(LatencyHistogramSettings.DEFAULT_HIGHEST_TRACKABLE_VALUE,
+                settings("1", null).getHighestTrackableValue());
+        assertEquals(LatencyHistogramSettings.DEFAULT_HIGHEST_TRACKABLE_VALUE,
+                settings("1h", null).getHighestTrackableValue());
+
+        assertEquals(LatencyHistogramSettings.DEFAULT_SIGNIFICANT_DIGITS, settings(null, "6").getSignificantDigits());
+        assertEquals(LatencyHistogramSettings.DEFAULT_SIGNIFICANT_DIGITS, settings(null, "-1").getSignificantDigits());
+        assertEquals(LatencyHistogramSettings.DEFAULT_SIGNIFICANT_DIGITS, settings(null, "high").getSignificantDigits());
+    }
+}
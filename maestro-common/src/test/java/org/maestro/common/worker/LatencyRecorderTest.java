@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.common.worker;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class LatencyRecorderTest {
+
+    @Test
+    public void testStripedRecordersReportOncePerGroup() {
+        final List<LatencyRecorder> recorders = LatencyRecorder.striped(LatencyHistogramSettings.defaults(), 5, 2);
+
+        assertEquals(5, recorders.size());
+        for (LatencyRecorder recorder : recorders) {
+            recorder.recordValue(100);
+        }
+
+        long total = 0;
+        int reporting = 0;
+        for (LatencyRecorder recorder : recorders) {
+            final Histogram histogram = recorder.getIntervalHistogram(null);
+
+            if (histogram != null) {
+                total += histogram.getTotalCount();
+                reporting++;
+            }
+        }
+
+        assertEquals(3, reporting);
+        assertEquals(5, total);
+        assertNull(recorders.get(1).getIntervalHistogram(null));
+        assertEquals(0, recorders.get(0).getIntervalHistogram(null).getTotalCount());
+    }
+
+    @Test
+    public void testExclusiveRecorders() {
+        final List<LatencyRecorder> recorders = LatencyRecorder.striped(LatencyHistogramSettings.defaults(), 3, 1);
+
+        for (LatencyRecorder recorder : recorders) {
+            recorder.recordValue(100);
+
+            final Histogram histogram = recorder.getIntervalHistogram(null);
+            assertNotNull(histogram);
+            assertEquals(1, histogram.getTotalCount());
+        }
+    }
+}
@@ -131,7 +131,7 @@ public class MaestroExporter {
             boolean running = true;
             while (running) {
                 logger.debug("Sending requests");
-                maestro.statsRequest();
+                maestro.pollStats();
                 maestro.pingRequest();
 
                 List<MaestroNote> notes = maestro.collect(1000, 5);
@@ -51,7 +51,7 @@ public class InspectorManager extends MaestroWorkerManager implements MaestroIns
         this.url = url;
     }
 
-    private void createInspector(final String inspectorType) throws IllegalAccessException, InstantiationException, ClassNotFoundException {
+    private void createInspector(final String inspectorType, final String correlationId) throws IllegalAccessException, InstantiationException, ClassNotFoundException {
         @SuppressWarnings("unchecked")
         Class<MaestroInspector> clazz = (Class<MaestroInspector>) Class.forName(inspectorType);
 
@@ -63,7 +63,7 @@ public class InspectorManager extends MaestroWorkerManager implements MaestroIns
             inspector.setUrl(url);
         } catch (MaestroException e) {
             logger.error("Unable to set the management interface URL {}: {}", url, e.getMessage(), e);
-            getClient().replyInternalError();
+            getClient().replyInternalError(correlationId);
         }
     }
 
@@ -72,7 +72,7 @@ public class InspectorManager extends MaestroWorkerManager implements MaestroIns
         logger.debug("Start inspector request received");
 
         try {
-            createInspector(inspectorMap.get(note.getPayload()));
+            createInspector(inspectorMap.get(note.getPayload()), note.getCorrelationId());
 
             inspector.setWorkerOptions(getWorkerOptions());
 
@@ -81,11 +81,11 @@ public class InspectorManager extends MaestroWorkerManager implements MaestroIns
             inspectorThread = new Thread(inspectorContainer);
             inspectorThread.start();
 
-            getClient().replyOk();
+            getClient().replyOk(note.getCorrelationId());
         }
         catch (Throwable t) {
             logger.error("Unable to start inspector: {}", t.getMessage(), t);
-            getClient().replyInternalError();
+            getClient().replyInternalError(note.getCorrelationId());
         }
     }
 
@@ -101,7 +101,7 @@ public class InspectorManager extends MaestroWorkerManager implements MaestroIns
                 setUrl(value);
             else {
                 logger.error("Unable to set management interface URL {}", value);
-                getClient().replyInternalError();
+                getClient().replyInternalError(note.getCorrelationId());
             }
         }
     }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency;
+
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogReader;
+import org.maestro.common.writers.LatencyWriter;
+import org.maestro.plotter.common.ReportReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the interval histograms saved on a HDR log and computes the latency percentiles of each interval. The
+ * histograms of different workers ending at the same time are merged into a single one. If the workers tagged
+ * their histograms, the percentiles of each worker are computed as well
+ */
+public class HdrLogIntervalReader implements ReportReader<LatencyData> {
+    private static final Logger logger = LoggerFactory.getLogger(HdrLogIntervalReader.class);
+
+    @Override
+    public LatencyData read(final File file) throws IOException {
+        final Map<Long, Histogram> intervals = new TreeMap<>();
+        final Map<Long, Histogram> taggedIntervals = new TreeMap<>();
+        final Map<Integer, Histogram> workers = new TreeMap<>();
+
+        try (InputStream inputStream = new FileInputStream(file)) {
+            final HistogramLogReader reader = new HistogramLogReader(inputStream);
+            EncodableHistogram encodableHistogram;
+
+            while ((encodableHistogram = reader.nextIntervalHistogram()) != null) {
+                if (!(encodableHistogram instanceof Histogram)) {
+                    logger.warn("Skipping an unsupported interval histogram of type {}",
+                            encodableHistogram.getClass().getSimpleName());
+                    continue;
+                }
+
+                final Histogram histogram = (Histogram) encodableHistogram;
+
+                if (histogram.getTotalCount() == 0) {
+                    continue;
+                }
+
+                final int workerNumber = LatencyWriter.workerNumber(histogram.getTag());
+                if (workerNumber < 0) {
+                    merge(intervals, histogram.getEndTimeStamp(), histogram);
+                }
+                else {
+                    merge(taggedIntervals, histogram.getEndTimeStamp(), histogram);
+                    merge(workers, workerNumber, histogram);
+                }
+            }
+        }
+
+        final LatencyData latencyData = new LatencyData();
+
+        // The tagged logs also carry the untagged histogram of all the workers for each interval
+        if (intervals.isEmpty()) {
+            intervals.putAll(taggedIntervals);
+        }
+
+        workers.forEach((workerNumber, histogram) -> latencyData.add(
+                new WorkerLatencyRecord(workerNumber,
+                        histogram.getValueAtPercentile(50.0),
+                        histogram.getValueAtPercentile(99.0),
+                        histogram.getMaxValue())));
+
+        intervals.forEach((endTimeStamp, histogram) -> latencyData.add(
+                new LatencyRecord(Instant.ofEpochMilli(endTimeStamp),
+                        histogram.getValueAtPercentile(50.0),
+                        histogram.getValueAtPercentile(90.0),
+                        histogram.getValueAtPercentile(99.0),
+                        histogram.getValueAtPercentile(99.9),
+                        histogram.getMaxValue())));
+
+        return latencyData;
+    }
+
+    private static <K> void merge(final Map<K, Histogram> histograms, final K key, final Histogram histogram) {
+        histograms.computeIfAbsent(key, k -> new Histogram(histogram.getNumberOfSignificantValueDigits()))
+                .add(histogram);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency;
+
+import org.maestro.plotter.common.ReportData;
+import org.maestro.plotter.common.properties.annotations.PropertyName;
+import org.maestro.plotter.common.properties.annotations.PropertyProvider;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A container for the latency percentiles of each of the recorded intervals and, when the workers tagged their
+ * histograms, of each of the workers
+ */
+@PropertyName(name="latency")
+public class LatencyData implements ReportData {
+    /**
+     * A worker is an outlier if its p99 is higher than this factor times the median p99 of all the workers
+     */
+    public static final double OUTLIER_FACTOR = 2.0;
+
+    private final Set<LatencyRecord> recordSet = new TreeSet<>();
+    private final Set<WorkerLatencyRecord> workerRecordSet = new TreeSet<>();
+
+    public void add(LatencyRecord latencyRecord) {
+        recordSet.add(latencyRecord);
+    }
+
+    public void add(WorkerLatencyRecord workerLatencyRecord) {
+        workerRecordSet.add(workerLatencyRecord);
+    }
+
+    /**
+     * Gets the latency percentiles of each worker, ordered by the worker number
+     * @return the worker records (empty if the workers did not tag their histograms)
+     */
+    public Set<WorkerLatencyRecord> getWorkerRecordSet() {
+        return workerRecordSet;
+    }
+
+    /**
+     * Gets the workers whose p99 is far higher than the one of the others (ie.: because of a stuck consumer or
+     * an unfair dispatch)
+     * @return the outlier workers
+     */
+    public List<WorkerLatencyRecord> getOutlierWorkers() {
+        if (workerRecordSet.size() < 3) {
+            return Collections.emptyList();
+        }
+
+        final long[] p99s = workerRecordSet.stream().mapToLong(WorkerLatencyRecord::getP99).sorted().toArray();
+        final double median = (p99s.length % 2) == 0
+                ? (p99s[p99s.length / 2 - 1] + p99s[p99s.length / 2]) / 2.0
+                : p99s[p99s.length / 2];
+
+        return workerRecordSet.stream()
+                .filter(r -> r.getP99() > median * OUTLIER_FACTOR)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the spread of the p99 across the workers
+     * @return the difference between the highest and the lowest worker p99, in microseconds
+     */
+    @PropertyProvider(name="workerP99Spread")
+    public long getWorkerP99Spread() {
+        final LongSummaryStatistics statistics = workerRecordSet.stream()
+                .mapToLong(WorkerLatencyRecord::getP99).summaryStatistics();
+
+        return statistics.getCount() == 0 ? 0 : statistics.getMax() - statistics.getMin();
+    }
+
+    @Override
+    public List<Date> getPeriods() {
+        final List<Date> list = new ArrayList<>(recordSet.size());
+
+        recordSet.forEach(item -> list.add(Date.from(item.getTimestamp())));
+
+        return list;
+    }
+
+    /**
+     * Gets the values of a percentile (or the max) over time, converted to milliseconds
+     * @param extractor the function extracting the value from the record
+     * @return the list of values in milliseconds
+     */
+    public List<Double> getValues(final ToLongFunction<LatencyRecord> extractor) {
+        return recordSet.stream().map(r -> extractor.applyAsLong(r) / 1000.0).collect(Collectors.toList());
+    }
+
+    @Override
+    public Set<LatencyRecord> getRecordSet() {
+        return recordSet;
+    }
+
+    @PropertyProvider(name="intervals")
+    public int getNumberOfIntervals() {
+        return recordSet.size();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency;
+
+/**
+ * The latency percentiles of a single worker over the whole test. The values are in microseconds
+ */
+public class WorkerLatencyRecord implements Comparable<WorkerLatencyRecord> {
+    private final int workerNumber;
+    private final long p50;
+    private final long p99;
+    private final long max;
+
+    public WorkerLatencyRecord(int workerNumber, long p50, long p99, long max) {
+        this.workerNumber = workerNumber;
+        this.p50 = p50;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    public int getWorkerNumber() {
+        return workerNumber;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public int compareTo(final WorkerLatencyRecord workerLatencyRecord) {
+        return Integer.compare(this.workerNumber, workerLatencyRecord.workerNumber);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+
+        WorkerLatencyRecord that = (WorkerLatencyRecord) o;
+
+        return workerNumber == that.workerNumber;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(workerNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerLatencyRecord{" +
+                "workerNumber=" + workerNumber +
+                ", p50=" + p50 +
+                ", p99=" + p99 +
+                ", max=" + max +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency.graph;
+
+import org.knowm.xchart.XYChart;
+import org.knowm.xchart.XYSeries;
+import org.knowm.xchart.style.markers.SeriesMarkers;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.plotter.common.graph.DefaultHistogramPlotter;
+import org.maestro.plotter.latency.LatencyData;
+import org.maestro.plotter.latency.LatencyRecord;
+
+import java.io.File;
+import java.util.Date;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Plots the latency percentiles over time
+ */
+public class LatencyPlotter extends DefaultHistogramPlotter<LatencyData> {
+
+    private void addSeries(final XYChart chart, final String name, final List<Date> periods,
+                           final LatencyData reportData, final ToLongFunction<LatencyRecord> extractor) {
+        final List<Double> values = reportData.getValues(extractor);
+        validateDataSet(periods, values);
+
+        XYSeries series = chart.addSeries(name, periods, values);
+
+        series.setMarker(SeriesMarkers.NONE);
+    }
+
+    @Override
+    public void plot(LatencyData reportData, File outputFile) throws MaestroException {
+        updateChart("", "",  "", "Latency (milliseconds)");
+
+        // Create Chart
+        XYChart chart = createChart();
+
+        final List<Date> periods = reportData.getPeriods();
+
+        // Series
+        addSeries(chart, "p50", periods, reportData, LatencyRecord::getP50);
+        addSeries(chart, "p90", periods, reportData, LatencyRecord::getP90);
+        addSeries(chart, "p99", periods, reportData, LatencyRecord::getP99);
+        addSeries(chart, "p99.9", periods, reportData, LatencyRecord::getP999);
+        addSeries(chart, "max", periods, reportData, LatencyRecord::getMax);
+
+        encode(chart, outputFile);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency.graph;
+
+import org.knowm.xchart.XYChart;
+import org.knowm.xchart.XYSeries;
+import org.knowm.xchart.style.markers.SeriesMarkers;
+import org.maestro.common.exceptions.MaestroException;
+import org.maestro.plotter.common.graph.AbstractPlotter;
+import org.maestro.plotter.latency.LatencyData;
+import org.maestro.plotter.latency.WorkerLatencyRecord;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Plots the latency percentiles of each worker, highlighting the outliers
+ */
+public class WorkerLatencyPlotter extends AbstractPlotter<LatencyData> {
+
+    private static List<Integer> workerNumbers(final Collection<WorkerLatencyRecord> records) {
+        return records.stream().map(WorkerLatencyRecord::getWorkerNumber).collect(Collectors.toList());
+    }
+
+    private static List<Double> p99s(final Collection<WorkerLatencyRecord> records) {
+        return records.stream().map(r -> r.getP99() / 1000.0).collect(Collectors.toList());
+    }
+
+    @Override
+    public void plot(LatencyData reportData, File outputFile) throws MaestroException {
+        updateChart("", "", "Worker", "Latency (milliseconds)");
+
+        // Create Chart
+        XYChart chart = baseChart();
+        chart.getStyler().setXAxisLabelRotation(0);
+        chart.getStyler().setXAxisDecimalPattern("#");
+
+        final Collection<WorkerLatencyRecord> records = reportData.getWorkerRecordSet();
+        final List<Integer> workers = workerNumbers(records);
+
+        final List<Double> p50s = records.stream().map(r -> r.getP50() / 1000.0).collect(Collectors.toList());
+        validateDataSet(workers, p50s);
+
+        // Series
+        XYSeries p50Series = chart.addSeries("p50", workers, p50s);
+        p50Series.setMarker(SeriesMarkers.CIRCLE);
+
+        XYSeries p99Series = chart.addSeries("p99", workers, p99s(records));
+        p99Series.setMarker(SeriesMarkers.CIRCLE);
+
+        final List<WorkerLatencyRecord> outliers = reportData.getOutlierWorkers();
+        if (!outliers.isEmpty()) {
+            XYSeries outlierSeries = chart.addSeries("p99 outliers", workerNumbers(outliers), p99s(outliers));
+
+            outlierSeries.setXYSeriesRenderStyle(XYSeries.XYSeriesRenderStyle.Scatter);
+            outlierSeries.setMarker(SeriesMarkers.DIAMOND);
+        }
+
+        encode(chart, outputFile);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.plotter.latency.graph;
+
+import org.HdrHistogram.Histogram;
+import org.junit.Before;
+import org.junit.Test;
+import org.maestro.common.writers.LatencyWriter;
+import org.maestro.plotter.latency.HdrLogIntervalReader;
+import org.maestro.plotter.latency.LatencyData;
+import org.maestro.plotter.latency.WorkerLatencyRecord;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyPlotterTest {
+    private static final int INTERVALS = 10;
+    private File hdrFile;
+    private LatencyData latencyData;
+
+    @Before
+    public void setUp() throws Exception {
+        final File outputDir = new File(System.getProperty("java.io.tmpdir"), "latency-plotter-test");
+        outputDir.mkdirs();
+        hdrFile = new File(outputDir, "receiverd-latency.hdr");
+
+        final long startTime = System.currentTimeMillis();
+        try (LatencyWriter latencyWriter = new LatencyWriter(hdrFile)) {
+            latencyWriter.outputLegend(startTime);
+
+            for (int i = 0; i < INTERVALS; i++) {
+                final Histogram histogram = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+
+                for (int value = 1; value <= 1000; value++) {
+                    histogram.recordValue(value * (i + 1));
+                }
+
+                histogram.setStartTimeStamp(startTime + TimeUnit.SECONDS.toMillis(i));
+                histogram.setEndTimeStamp(startTime + TimeUnit.SECONDS.toMillis(i + 1));
+                latencyWriter.outputIntervalHistogram(histogram);
+            }
+        }
+
+        latencyData = new HdrLogIntervalReader().read(hdrFile);
+    }
+
+    @Test
+    public void testIntervals() {
+        assertEquals(INTERVALS, latencyData.getNumberOfIntervals());
+    }
+
+    @Test
+    public void testLatencyPlot() throws IOException {
+        LatencyPlotter latencyPlotter = new LatencyPlotter();
+
+        File outputFile = new File(hdrFile.getParentFile(), "receiverd-latency-timeline.png");
+
+        latencyPlotter.plot(latencyData, outputFile);
+        assertTrue("The output file does not exist", outputFile.exists());
+    }
+
+    @Test
+    public void testWorkerLatencyPlot() throws IOException {
+        final File taggedHdrFile = new File(hdrFile.getParentFile(), "receiverd-latency-tagged.hdr");
+        final int workers = 4;
+
+        final long startTime = System.currentTimeMillis();
+        try (LatencyWriter latencyWriter = new LatencyWriter(taggedHdrFile)) {
+            latencyWriter.outputLegend(startTime);
+
+            for (int i = 0; i < INTERVALS; i++) {
+                final Histogram all = new Histogram(3);
+
+                for (int worker = 0; worker < workers; worker++) {
+                    final Histogram histogram = new Histogram(3);
+
+                    // The last worker is stuck
+                    final long latency = worker == workers - 1 ? 100_000 : 1_000;
+                    histogram.recordValueWithCount(latency, 100);
+                    histogram.setStartTimeStamp(startTime + TimeUnit.SECONDS.toMillis(i));
+                    histogram.setEndTimeStamp(startTime + TimeUnit.SECONDS.toMillis(i + 1));
+                    histogram.setTag(LatencyWriter.workerTag(worker));
+
+                    all.add(histogram);
+                    latencyWriter.outputIntervalHistogram(histogram);
+                }
+
+                all.setStartTimeStamp(startTime + TimeUnit.SECONDS.toMillis(i));
+                all.setEndTimeStamp(startTime + TimeUnit.SECONDS.toMillis(i + 1));
+                latencyWriter.outputIntervalHistogram(all);
+            }
+        }
+
+        final LatencyData taggedData = new HdrLogIntervalReader().read(taggedHdrFile);
+        assertEquals(INTERVALS, taggedData.getNumberOfIntervals());
+        assertEquals(workers, taggedData.getWorkerRecordSet().size());
+
+        final List<WorkerLatencyRecord> outliers = taggedData.getOutlierWorkers();
+        assertEquals(1, outliers.size());
+        assertEquals(workers - 1, outliers.get(0).getWorkerNumber());
+
+        File outputFile = new File(hdrFile.getParentFile(), "receiverd-latency-workers.png");
+
+        new WorkerLatencyPlotter().plot(taggedData, outputFile);
+        assertTrue("The output file does not exist", outputFile.exists());
+    }
+}
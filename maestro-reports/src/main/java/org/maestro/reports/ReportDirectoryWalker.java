@@ -72,6 +72,12 @@ final class ReportDirectoryWalker extends DirectoryWalker<ReportFile> {
         }
 
         if (Constants.FILE_EXTENSION_MPT_COMPRESSED.equals(ext)) {
+            if (file.getName().contains(Constants.FILE_HINT_TRACE)) {
+                logger.trace("Skipping the trace file {}", file.getPath());
+
+                return;
+            }
+
             if (!file.getPath().contains(Constants.FILE_HINT_INSPECTOR)) {
                 processMaestroReport(file, results);
 
@@ -26,11 +26,21 @@ import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.common.test.TestProperties;
 import org.maestro.common.worker.WorkerUtils;
+import org.maestro.common.writers.LatencyWriter;
+import org.maestro.plotter.latency.HdrLogIntervalReader;
+import org.maestro.plotter.latency.LatencyData;
+import org.maestro.plotter.latency.WorkerLatencyRecord;
+import org.maestro.plotter.latency.graph.LatencyPlotter;
+import org.maestro.plotter.latency.graph.WorkerLatencyPlotter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileReader;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 public class HdrPlotterWrapper implements PlotterWrapper {
     private static final Logger logger = LoggerFactory.getLogger(HdrPlotterWrapper.class);
@@ -72,6 +82,41 @@ public class HdrPlotterWrapper implements PlotterWrapper {
         return null;
     }
 
+    /**
+     * Reads the header comments (ie.: #[Name: value]) written by the workers on the HDR log
+     */
+    private static Map<String, String> loadHeader(final File file) throws IOException {
+        final Map<String, String> header = new HashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+
+            while ((line = reader.readLine()) != null && line.startsWith("#")) {
+                if (line.startsWith("#[") && line.endsWith("]")) {
+                    final int separator = line.indexOf(':');
+
+                    if (separator > 0) {
+                        header.put(line.substring(2, separator).trim(),
+                                line.substring(separator + 1, line.length() - 1).trim());
+                    }
+                }
+            }
+        }
+
+        return header;
+    }
+
+    /**
+     * The workers always record the latencies in microseconds, which is the unit assumed by the unit rate
+     */
+    private static void checkLatencyUnit(final Map<String, String> header) {
+        final String unit = header.get(LatencyWriter.HEADER_LATENCY_UNIT);
+
+        if (unit != null && !unit.equals("us")) {
+            logger.warn("Unsupported latency unit {} on the HDR log: assuming microseconds", unit);
+        }
+    }
+
     @Override
     public boolean plot(final File file) {
         logger.debug("Plotting HDR file {}", file.getPath());
@@ -96,6 +141,8 @@ public class HdrPlotterWrapper implements PlotterWrapper {
 
             propertyWriter.postProcess(file);
 
+            plotTimeline(file);
+
             return true;
         }
         catch (Exception t) {
@@ -104,7 +151,41 @@ public class HdrPlotterWrapper implements PlotterWrapper {
         }
     }
 
+    /**
+     * Plots the percentiles of each of the interval histograms saved on the log and, if the workers tagged their
+     * histograms, the percentiles of each worker
+     */
+    private void plotTimeline(final File file) {
+        final String baseName = FilenameUtils.removeExtension(file.getPath());
+
+        try {
+            final LatencyData latencyData = new HdrLogIntervalReader().read(file);
+
+            new LatencyPlotter().plot(latencyData, new File(baseName + "_timeline.png"));
+
+            if (!latencyData.getWorkerRecordSet().isEmpty()) {
+                new WorkerLatencyPlotter().plot(latencyData, new File(baseName + "_workers.png"));
+
+                for (WorkerLatencyRecord outlier : latencyData.getOutlierWorkers()) {
+                    logger.warn("The worker {} is a latency outlier on {}: p99 {} us (p99 spread across the " +
+                            "workers is {} us)", outlier.getWorkerNumber(), file.getPath(), outlier.getP99(),
+                            latencyData.getWorkerP99Spread());
+                }
+            }
+        }
+        catch (Exception e) {
+            logger.warn("Unable to plot the latency timeline for {}: {}", file.getPath(), e.getMessage());
+        }
+    }
+
     private HdrData getHdrData(File file) throws IOException {
+        final Map<String, String> header = loadHeader(file);
+        checkLatencyUnit(header);
+
+        logger.debug("The HDR log was recorded with a highest trackable value of {} and {} significant digits",
+                header.getOrDefault(LatencyWriter.HEADER_HIGHEST_TRACKABLE_VALUE, "unknown"),
+                header.getOrDefault(LatencyWriter.HEADER_SIGNIFICANT_DIGITS, "unknown"));
+
         HdrData hdrData;
         if (!legacyHdrMode) {
             TestProperties testProperties = loadProperties(file.getParentFile());
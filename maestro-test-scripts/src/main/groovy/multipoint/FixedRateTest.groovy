@@ -98,6 +98,17 @@ testProfile.setMaximumLatency(20000)
 testProfile.setRate(Integer.parseInt(rate))
 testProfile.setParallelCount(Integer.parseInt(parallelCount))
 
+// Optional: the receivers use a 1 hour range with 3 significant digits by default
+latencyHighestValue = System.getenv("LATENCY_HIGHEST_VALUE")
+if (latencyHighestValue != null) {
+    testProfile.setLatencyHighestValue(latencyHighestValue)
+}
+
+latencyPrecision = System.getenv("LATENCY_PRECISION")
+if (latencyPrecision != null) {
+    testProfile.setLatencyPrecision(Integer.parseInt(latencyPrecision))
+}
+
 if (managementInterface != null) {
     if (inspectorName != null) {
         testProfile.setInspectorName(inspectorName)
@@ -20,14 +20,20 @@ import org.maestro.client.Maestro;
 import org.maestro.client.exchange.MaestroProcessedInfo;
 import org.maestro.client.notes.MaestroNotification;
 import org.maestro.client.notes.PingResponse;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.NodeUtils;
+import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.maestro.reports.ReportsDownloader;
+import org.maestro.tests.utils.ClockOffsetEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 /**
@@ -35,15 +41,24 @@ import java.util.function.Predicate;
  */
 public abstract class AbstractTestExecutor implements TestExecutor {
     private static final Logger logger = LoggerFactory.getLogger(AbstractTestExecutor.class);
+    private static final long START_DELAY = ConfigurationWrapper.getConfig().getLong("test.start.delay", 0);
+    private static final int CLOCK_SYNC_ROUNDS = ConfigurationWrapper.getConfig().getInt("test.clock.sync.rounds", 5);
+    private static final long CLOCK_SYNC_INTERVAL = ConfigurationWrapper.getConfig()
+            .getLong("test.clock.sync.interval", 200);
 
     private final Maestro maestro;
     private final ReportsDownloader reportsDownloader;
+    private final ClockOffsetEstimator clockOffsetEstimator = new ClockOffsetEstimator();
 
 
     public AbstractTestExecutor(final Maestro maestro, final ReportsDownloader reportsDownloader) {
         this.maestro = maestro;
         this.reportsDownloader = reportsDownloader;
 
+        if (CLOCK_SYNC_ROUNDS > 0) {
+            maestro.getCollector().subscribe(MaestroCommand.MAESTRO_NOTE_PING, clockOffsetEstimator);
+        }
+
         logger.trace("Creating an abstract test executor");
     }
 
@@ -60,8 +75,7 @@ public abstract class AbstractTestExecutor implements TestExecutor {
      * @throws MaestroConnectionException
      */
     protected void startServices() throws MaestroConnectionException {
-        maestro.startReceiver();
-        maestro.startSender();
+        startWorkers();
     }
 
     /**
@@ -71,8 +85,53 @@ public abstract class AbstractTestExecutor implements TestExecutor {
      */
     protected void startServices(final String inspectorName) throws MaestroConnectionException {
         maestro.startInspector(inspectorName);
-        maestro.startReceiver();
-        maestro.startSender();
+        startWorkers();
+    }
+
+    /**
+     * Starts the receivers and the senders. If a start delay is configured, all of them are scheduled to start at
+     * the same instant, so that their reporting intervals are aligned
+     * @throws MaestroConnectionException
+     */
+    private void startWorkers() throws MaestroConnectionException {
+        synchronizeClocks();
+
+        if (START_DELAY > 0) {
+            final long startEpochMicros = EpochClocks.sharedMicro().microTime()
+                    + TimeUnit.MILLISECONDS.toMicros(START_DELAY);
+
+            logger.debug("Scheduling the peers to start at {} us since the epoch", startEpochMicros);
+            maestro.startReceiver(startEpochMicros);
+            maestro.startSender(startEpochMicros);
+        }
+        else {
+            maestro.startReceiver();
+            maestro.startSender();
+        }
+    }
+
+    /**
+     * Estimates the clock offsets of the peers and sends them to every peer, so that they all start at the same
+     * front-end instant. It also sends the receivers the correction to apply to the latencies they record, so that
+     * the clock skew between the senders and the receivers doesn't affect them
+     * @throws MaestroConnectionException
+     */
+    private void synchronizeClocks() throws MaestroConnectionException {
+        if (CLOCK_SYNC_ROUNDS <= 0) {
+            return;
+        }
+
+        try {
+            final Map<String, Long> corrections = clockOffsetEstimator.estimate(maestro, CLOCK_SYNC_ROUNDS,
+                    CLOCK_SYNC_INTERVAL);
+
+            maestro.setClockOffsets(clockOffsetEstimator.getOffsets());
+            maestro.setClockCorrections(corrections);
+        }
+        catch (InterruptedException e) {
+            logger.warn("Interrupted while estimating the clock offsets of the peers");
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -16,10 +16,19 @@
 
 package org.maestro.tests;
 
+import org.maestro.client.Maestro;
+import org.maestro.common.exceptions.MaestroException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 public abstract class AbstractTestProfile implements TestProfile {
+    private static final Logger logger = LoggerFactory.getLogger(AbstractTestProfile.class);
+
     private int testExecutionNumber;
     private String managementInterface;
     private String inspectorName;
+    private String latencyHighestValue;
+    private Integer latencyPrecision;
 
     public int getTestExecutionNumber() {
         return testExecutionNumber;
@@ -45,6 +54,49 @@ public abstract class AbstractTestProfile implements TestProfile {
         this.inspectorName = inspectorName;
     }
 
+    public String getLatencyHighestValue() {
+        return latencyHighestValue;
+    }
+
+    /**
+     * Sets the highest latency, in microseconds, recorded by the receivers
+     * @param latencyHighestValue the highest value or 'auto' to use auto-resizing histograms. If not set, the
+     *                            receivers use their default (1 hour)
+     */
+    public void setLatencyHighestValue(final String latencyHighestValue) {
+        this.latencyHighestValue = latencyHighestValue;
+    }
+
+    public Integer getLatencyPrecision() {
+        return latencyPrecision;
+    }
+
+    /**
+     * Sets the number of significant digits of the latencies recorded by the receivers
+     * @param latencyPrecision the number of significant digits (0 to 5). If not set, the receivers use their
+     *                         default (3)
+     */
+    public void setLatencyPrecision(final Integer latencyPrecision) {
+        this.latencyPrecision = latencyPrecision;
+    }
+
+    /**
+     * Sends the latency histogram settings, if any was set on this profile
+     * @param maestro the maestro client
+     * @throws MaestroException if unable to send the settings
+     */
+    protected void applyLatencySettings(final Maestro maestro) throws MaestroException {
+        if (latencyHighestValue != null) {
+            logger.info("Setting the latency highest value to {}", latencyHighestValue);
+            maestro.setLatencyHighestValue(latencyHighestValue);
+        }
+
+        if (latencyPrecision != null) {
+            logger.info("Setting the latency precision to {}", latencyPrecision);
+            maestro.setLatencyPrecision(latencyPrecision);
+        }
+    }
+
     @Override
     public String toString() {
         return "AbstractTestProfile{" +
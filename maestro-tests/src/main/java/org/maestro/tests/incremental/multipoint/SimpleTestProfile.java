@@ -67,6 +67,9 @@ public class SimpleTestProfile extends IncrementalTestProfile implements MultiPo
 
         // Variable message messageSize
         maestro.setMessageSize(getMessageSize());
+
+        applyLatencySettings(maestro);
+
         logger.info("Estimated time for test completion: {} secs", getEstimatedCompletionTime());
     }
 }
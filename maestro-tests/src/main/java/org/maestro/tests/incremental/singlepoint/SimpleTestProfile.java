@@ -68,6 +68,9 @@ public class SimpleTestProfile extends IncrementalTestProfile implements SingleP
 
         // Variable message messageSize
         maestro.setMessageSize(getMessageSize());
+
+        applyLatencySettings(maestro);
+
         logger.info("Estimated time for test completion: {} secs", getEstimatedCompletionTime());
     }
 }
@@ -19,13 +19,16 @@ package org.maestro.tests.rate;
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.maestro.client.Maestro;
 import org.maestro.client.callback.MaestroNoteCallback;
+import org.maestro.client.exchange.MaestroCollector;
 import org.maestro.client.notes.StatsResponse;
 import org.maestro.client.notes.TestFailedNotification;
 import org.maestro.client.notes.TestSuccessfulNotification;
 import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.NodeUtils;
+import org.maestro.common.client.notes.MaestroCommand;
 import org.maestro.common.client.notes.MaestroNote;
 import org.maestro.common.duration.DurationCount;
+import org.maestro.common.duration.PhasedDuration;
 import org.maestro.reports.ReportsDownloader;
 import org.maestro.tests.AbstractTestExecutor;
 import org.maestro.tests.rate.singlepoint.FixedRateTestProfile;
@@ -35,7 +38,6 @@ import org.slf4j.LoggerFactory;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -178,9 +180,13 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
         this.testProfile = testProfile;
         this.testProcessor = new FixedRateTestProcessor(testProfile, reportsDownloader);
 
-        List<MaestroNoteCallback> callbackList = getMaestro().getCollector().getCallbacks();
-        callbackList.add(new StatsCallBack(this));
-        callbackList.add(new TestNotificationCallBack(this));
+        // Both callbacks run on the collector dispatcher thread, so they don't delay the arrival of other notes
+        final MaestroCollector collector = getMaestro().getCollector();
+        collector.subscribeAsync(MaestroCommand.MAESTRO_NOTE_STATS, new StatsCallBack(this));
+
+        final TestNotificationCallBack notificationCallBack = new TestNotificationCallBack(this);
+        collector.subscribeAsync(MaestroCommand.MAESTRO_NOTE_NOTIFY_SUCCESS, notificationCallBack);
+        collector.subscribeAsync(MaestroCommand.MAESTRO_NOTE_NOTIFY_FAIL, notificationCallBack);
     }
 
     private void reset() {
@@ -226,7 +232,7 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
 
             long repeatCounter = getRepeat();
             while (running) {
-                getMaestro().statsRequest();
+                getMaestro().pollStats();
                 Thread.sleep(1000);
                 repeatCounter--;
                 if (repeatCounter == 0) {
@@ -301,6 +307,13 @@ public class FixedRateTestExecutor extends AbstractTestExecutor {
     }
 
     public boolean run() {
+        if (testProfile.getDuration() instanceof PhasedDuration) {
+            logger.info("Starting the test (the warm-up is the first phase of the test)");
+
+            warmUp = false;
+            return runTest();
+        }
+
         logger.info("Starting the warm up execution");
 
         warmUp = true;
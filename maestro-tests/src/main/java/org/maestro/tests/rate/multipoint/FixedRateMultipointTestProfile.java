@@ -80,6 +80,8 @@ public class FixedRateMultipointTestProfile extends FixedRateTestProfile impleme
         logger.info("Setting message size to {}", getMessageSize());
         maestro.setMessageSize(getMessageSize());
 
+        applyLatencySettings(maestro);
+
         if (getManagementInterface() != null) {
             if (getInspectorName() != null) {
                 logger.info("Setting the management interface to {} using inspector {}", getManagementInterface(),
@@ -20,6 +20,7 @@ import org.apache.commons.configuration.AbstractConfiguration;
 import org.maestro.client.Maestro;
 import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.duration.DurationCount;
+import org.maestro.common.duration.PhasedDuration;
 import org.maestro.common.duration.TestDuration;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.tests.AbstractTestProfile;
@@ -156,7 +157,7 @@ public class FixedRateTestProfile extends AbstractTestProfile implements SingleP
 
     @Override
     public long getEstimatedCompletionTime() {
-        if (duration instanceof DurationCount) {
+        if (duration instanceof DurationCount || duration instanceof PhasedDuration) {
             return CompletionTime.estimate(duration, getRate());
         }
         else {
@@ -202,6 +203,8 @@ public class FixedRateTestProfile extends AbstractTestProfile implements SingleP
         logger.info("Setting message size to {}", getMessageSize());
         maestro.setMessageSize(getMessageSize());
 
+        applyLatencySettings(maestro);
+
         if (getManagementInterface() != null) {
             if (getInspectorName() != null) {
                 logger.info("Setting the management interface to {} using inspector {}", getManagementInterface(),
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.tests.utils;
+
+import org.maestro.client.Maestro;
+import org.maestro.client.callback.MaestroNoteCallback;
+import org.maestro.client.notes.PingResponse;
+import org.maestro.common.NodeUtils;
+import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.exceptions.MaestroConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the offset between the clocks of the peers and the clock of the front-end, NTP-style, using the
+ * timestamps of a few rounds of ping requests and responses. For each peer, it keeps the round with the shortest
+ * round trip time, which is the one least affected by queueing. It must be subscribed to the ping responses, on the
+ * collector thread, so that it can timestamp the responses as soon as they arrive.
+ */
+public class ClockOffsetEstimator implements MaestroNoteCallback {
+    private static final Logger logger = LoggerFactory.getLogger(ClockOffsetEstimator.class);
+
+    private static final class Sample {
+        private final String name;
+        private final long offsetMicros;
+        private final long roundTripMicros;
+
+        Sample(final String name, long offsetMicros, long roundTripMicros) {
+            this.name = name;
+            this.offsetMicros = offsetMicros;
+            this.roundTripMicros = roundTripMicros;
+        }
+    }
+
+    private final EpochMicroClock clock;
+    private final Map<String, Sample> samples = new ConcurrentHashMap<>();
+    private volatile Map<String, Long> offsets = new HashMap<>();
+    private volatile boolean collecting = false;
+
+    public ClockOffsetEstimator() {
+        this(EpochClocks.sharedMicro());
+    }
+
+    /**
+     * Constructor
+     * @param clock the front-end clock used to timestamp the arrival of the responses
+     */
+    ClockOffsetEstimator(final EpochMicroClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void call(MaestroNote note) {
+        if (!collecting || !(note instanceof PingResponse)) {
+            return;
+        }
+
+        final long arrivalEpochMicros = clock.microTime();
+        final PingResponse response = (PingResponse) note;
+
+        // Older peers don't send the timestamps
+        if (response.getReceiveEpochMicros() <= 0) {
+            return;
+        }
+
+        final long requestEpochMicros = response.getRequestEpochMicros();
+        final long receiveEpochMicros = response.getReceiveEpochMicros();
+        final long responseEpochMicros = response.getResponseEpochMicros();
+
+        final long roundTripMicros = (arrivalEpochMicros - requestEpochMicros)
+                - (responseEpochMicros - receiveEpochMicros);
+        final long offsetMicros = ((receiveEpochMicros - requestEpochMicros)
+                + (responseEpochMicros - arrivalEpochMicros)) / 2;
+
+        samples.merge(response.getId(), new Sample(response.getName(), offsetMicros, roundTripMicros),
+                (current, sample) -> sample.roundTripMicros < current.roundTripMicros ? sample : current);
+    }
+
+    /**
+     * Estimates the clock offsets of the peers and calculates the correction each receiver has to apply to the
+     * time it reads when a message arrives, so that it matches the clocks of the senders. If there are senders
+     * with different offsets, the receivers are corrected by their average.
+     * @param maestro the maestro instance used to ping the peers
+     * @param rounds the number of ping rounds
+     * @param interval how long (in milliseconds) to wait for the responses of each round
+     * @return the corrections (in microseconds) indexed by the receiver id. It is empty if no sender or receiver
+     * replied with the timestamps
+     * @throws MaestroConnectionException if unable to send the ping requests
+     * @throws InterruptedException if interrupted while waiting for the responses
+     */
+    public Map<String, Long> estimate(final Maestro maestro, int rounds, long interval)
+            throws MaestroConnectionException, InterruptedException {
+        startCollecting();
+        try {
+            for (int i = 0; i < rounds; i++) {
+                maestro.pingRequest();
+                Thread.sleep(interval);
+            }
+        }
+        finally {
+            stopCollecting();
+        }
+
+        return corrections();
+    }
+
+    void startCollecting() {
+        samples.clear();
+        collecting = true;
+    }
+
+    void stopCollecting() {
+        collecting = false;
+    }
+
+    /**
+     * Calculates the offsets and the corrections from the samples collected
+     * @return the corrections (in microseconds) indexed by the receiver id
+     */
+    Map<String, Long> corrections() {
+        final Map<String, Long> offsets = new HashMap<>();
+        long senderOffsetSum = 0;
+        int senders = 0;
+        for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+            final Sample sample = entry.getValue();
+
+            logger.info("The clock of {} is {} us off the front-end clock (round trip of {} us)", sample.name,
+                    sample.offsetMicros, sample.roundTripMicros);
+            offsets.put(entry.getKey(), sample.offsetMicros);
+
+            if ("sender".equals(NodeUtils.getTypeFromName(sample.name))) {
+                senderOffsetSum += sample.offsetMicros;
+                senders++;
+            }
+        }
+
+        this.offsets = offsets;
+
+        final Map<String, Long> corrections = new HashMap<>();
+        if (senders == 0) {
+            return corrections;
+        }
+
+        final long senderOffset = senderOffsetSum / senders;
+        for (Map.Entry<String, Sample> entry : samples.entrySet()) {
+            final Sample sample = entry.getValue();
+
+            if ("receiver".equals(NodeUtils.getTypeFromName(sample.name))) {
+                final long correction = sample.offsetMicros - senderOffset;
+
+                logger.debug("Correcting the receive time on {} by {} us", sample.name, correction);
+                corrections.put(entry.getKey(), correction);
+            }
+        }
+
+        return corrections;
+    }
+
+    /**
+     * Gets the clock offsets estimated by the last call to {@link #estimate(Maestro, int, long)}: how far ahead of
+     * the front-end clock the clock of each peer is
+     * @return the offsets (in microseconds) indexed by the peer id. It is empty if no peer replied with the
+     * timestamps
+     */
+    public Map<String, Long> getOffsets() {
+        return offsets;
+    }
+}
@@ -19,6 +19,7 @@ package org.maestro.tests.utils;
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.duration.DurationTime;
+import org.maestro.common.duration.PhasedDuration;
 import org.maestro.common.duration.TestDuration;
 
 /**
@@ -39,6 +40,13 @@ public class CompletionTime {
     public static long estimate(final TestDuration duration, final long rate) {
         long ret;
 
+        if (duration instanceof PhasedDuration) {
+            final PhasedDuration phasedDuration = (PhasedDuration) duration;
+
+            return estimate(phasedDuration.getWarmUpDuration(), rate)
+                    + estimate(phasedDuration.getMeasurementDuration(), rate);
+        }
+
         if (duration instanceof DurationTime) {
             final long defaultMultiplier = 2;
             long multiplier = config.getLong("duration.time.wait.multiplier", defaultMultiplier);
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.tests.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.maestro.client.notes.PingResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClockOffsetEstimatorTest {
+    private final AtomicLong now = new AtomicLong();
+    private ClockOffsetEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new ClockOffsetEstimator(now::get);
+        estimator.startCollecting();
+    }
+
+    /**
+     * Delivers a ping response with the given timestamps: the request and the arrival are read on the front-end
+     * clock and the receive and the response on the peer clock
+     */
+    private void reply(final String id, final String name, long request, long receive, long response, long arrival) {
+        PingResponse note = new PingResponse();
+
+        note.setId(id);
+        note.setName(name);
+        note.setRequestEpochMicros(request);
+        note.setReceiveEpochMicros(receive);
+        note.setResponseEpochMicros(response);
+
+        now.set(arrival);
+        estimator.call(note);
+    }
+
+    @Test
+    public void testOffsetOfAPeerAhead() {
+        // 100 us each way, 20 us to reply and a clock 500 us ahead
+        reply("r1", "receiver@host1", 1000, 1600, 1620, 1220);
+        estimator.stopCollecting();
+        estimator.corrections();
+
+        assertEquals(500L, (long) estimator.getOffsets().get("r1"));
+    }
+
+    @Test
+    public void testOffsetOfAPeerBehind() {
+        // 100 us each way, 20 us to reply and a clock 300 us behind
+        reply("r1", "receiver@host1", 1000, 800, 820, 1220);
+        estimator.stopCollecting();
+        estimator.corrections();
+
+        assertEquals(-300L, (long) estimator.getOffsets().get("r1"));
+    }
+
+    @Test
+    public void testKeepsTheShortestRoundTrip() {
+        // 100 us each way: the offset is estimated correctly
+        reply("r1", "receiver@host1", 1000, 1600, 1620, 1220);
+        // Queued for 900 us on the way to the peer, which skews the offset of this round
+        reply("r1", "receiver@host1", 2000, 3500, 3520, 3120);
+        estimator.stopCollecting();
+        estimator.corrections();
+
+        assertEquals(500L, (long) estimator.getOffsets().get("r1"));
+
+        // The order in which the rounds arrive doesn't matter
+        estimator.startCollecting();
+        reply("r1", "receiver@host1", 2000, 3500, 3520, 3120);
+        reply("r1", "receiver@host1", 1000, 1600, 1620, 1220);
+        estimator.stopCollecting();
+        estimator.corrections();
+
+        assertEquals(500L, (long) estimator.getOffsets().get("r1"));
+    }
+
+    @Test
+    public void testCorrectsTheReceiversByTheMeanOfTheSenders() {
+        // All of them with 100 us each way and 20 us to reply
+        reply("s1", "sender@host1", 1000, 1200, 1220, 1220);
+        reply("s2", "sender@host2", 1000, 1400, 1420, 1220);
+        reply("r1", "receiver@host3", 1000, 1600, 1620, 1220);
+        reply("r2", "receiver@host4", 1000, 1000, 1020, 1220);
+        estimator.stopCollecting();
+
+        final Map<String, Long> corrections = estimator.corrections();
+
+        // The senders are 100 us and 300 us ahead, so the receivers are corrected relative to 200 us
+        assertEquals(2, corrections.size());
+        assertEquals(300L, (long) corrections.get("r1"));
+        assertEquals(-300L, (long) corrections.get("r2"));
+
+        // The offsets are kept for every peer
+        final Map<String, Long> offsets = estimator.getOffsets();
+        assertEquals(4, offsets.size());
+        assertEquals(100L, (long) offsets.get("s1"));
+        assertEquals(300L, (long) offsets.get("s2"));
+    }
+
+    @Test
+    public void testNoCorrectionsWithoutSenders() {
+        reply("r1", "receiver@host1", 1000, 1600, 1620, 1220);
+        estimator.stopCollecting();
+
+        assertTrue(estimator.corrections().isEmpty());
+        assertEquals(1, estimator.getOffsets().size());
+    }
+
+    @Test
+    public void testIgnoresResponsesWithoutTimestampsOrOutsideTheRounds() {
+        // Older peers don't send the timestamps
+        reply("s1", "sender@host1", 1000, 0, 0, 1220);
+        estimator.stopCollecting();
+
+        reply("r1", "receiver@host1", 1000, 1600, 1620, 1220);
+
+        assertTrue(estimator.corrections().isEmpty());
+        assertFalse(estimator.getOffsets().containsKey("s1"));
+        assertFalse(estimator.getOffsets().containsKey("r1"));
+    }
+}
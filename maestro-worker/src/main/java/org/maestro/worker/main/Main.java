@@ -27,8 +27,11 @@ import org.maestro.common.exceptions.MaestroException;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.worker.common.ConcurrentWorkerManager;
 import org.maestro.worker.common.VoidWorkerManager;
+import org.maestro.worker.common.WorkerAffinity;
 import org.maestro.worker.common.ds.MaestroDataServer;
 import org.maestro.worker.common.executor.MaestroWorkerExecutor;
+import org.maestro.worker.jms.LoopbackReceiverWorker;
+import org.maestro.worker.jms.LoopbackSenderWorker;
 
 import java.io.File;
 import java.net.UnknownHostException;
@@ -67,7 +70,7 @@ public class Main {
         options.addOption("w", "worker", true,
                 "maestro worker to use");
         options.addOption("r", "role", true,
-                "worker role (sender or receiver)");
+                "worker role (sender, receiver or loopback)");
         options.addOption("H", "host", true,
                 "optional hostname (to override auto-detection)");
         options.addOption("l", "log-dir", true,
@@ -99,7 +102,7 @@ public class Main {
 
         worker = cmdLine.getOptionValue('w');
         if (worker == null) {
-            if (!role.equals("data-server")) {
+            if (!role.equals("data-server") && !role.equals("loopback")) {
                 System.err.println("The worker class is missing (option -w)");
                 help(options, -1);
             }
@@ -124,6 +127,38 @@ public class Main {
         logDir = new File(logDirVal);
     }
 
+    /**
+     * Runs a sender and a receiver on this JVM, exchanging the messages through in-memory queues instead of a
+     * broker. Each of them has its own log directory and data server, and its workers are pinned to their own half
+     * of the worker cores
+     */
+    @SuppressWarnings("unchecked")
+    private static void runLoopback() throws MaestroException {
+        final WorkerAffinity affinity = WorkerAffinity.fromConfig();
+
+        final File receiverLogDir = new File(logDir, "receiver");
+        final MaestroDataServer receiverDataServer = new MaestroDataServer(receiverLogDir, host);
+        final ConcurrentWorkerManager receiverPeer = new ConcurrentWorkerManager(maestroUrl, "receiver", host,
+                receiverLogDir, (Class<MaestroWorker>) (Class<?>) LoopbackReceiverWorker.class, receiverDataServer,
+                affinity.split(2, 0));
+        final MaestroWorkerExecutor receiverExecutor = new MaestroWorkerExecutor(receiverPeer, receiverDataServer);
+
+        final File senderLogDir = new File(logDir, "sender");
+        final MaestroDataServer senderDataServer = new MaestroDataServer(senderLogDir, host);
+        final ConcurrentWorkerManager senderPeer = new ConcurrentWorkerManager(maestroUrl, "sender", host,
+                senderLogDir, (Class<MaestroWorker>) (Class<?>) LoopbackSenderWorker.class, senderDataServer,
+                affinity.split(2, 1));
+        final MaestroWorkerExecutor senderExecutor = new MaestroWorkerExecutor(senderPeer, senderDataServer);
+
+        receiverExecutor.start(MaestroTopics.MAESTRO_RECEIVER_TOPICS);
+        senderExecutor.start(MaestroTopics.MAESTRO_SENDER_TOPICS);
+
+        final Thread receiverThread = new Thread(receiverExecutor);
+        receiverThread.start();
+
+        senderExecutor.run();
+    }
+
     /**
      * Running this as a debug is something like:
      * java -m mqtt://maestro-broker:1883
@@ -171,6 +206,10 @@ public class Main {
                     executor.run();
                     break;
                 }
+                case "loopback": {
+                    runLoopback();
+                    break;
+                }
                 case "data-server": {
                     maestroPeer = new VoidWorkerManager(maestroUrl, role, host, dataServer);
                     executor = new MaestroWorkerExecutor(maestroPeer, dataServer);
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.tests.duration;
+
+import net.orpiske.jms.provider.activemq.ActiveMqProvider;
+import net.orpiske.jms.test.annotations.Provider;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.maestro.client.Maestro;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.maestro.reports.ReportsDownloader;
+import org.maestro.tests.rate.FixedRateTestExecutor;
+import org.maestro.tests.rate.singlepoint.FixedRateTestProfile;
+import org.maestro.worker.tests.support.annotations.MaestroPeer;
+import org.maestro.worker.tests.support.annotations.ReceivingPeer;
+import org.maestro.worker.tests.support.annotations.SendingPeer;
+import org.maestro.worker.tests.support.common.EndToEndTest;
+import org.maestro.worker.tests.support.runner.MiniBrokerConfiguration;
+import org.maestro.worker.tests.support.runner.MiniPeer;
+import org.maestro.worker.tests.support.runner.WorkerTestRunner;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a count-based test on a queue with multiple workers sharing the message count: the receivers split the
+ * messages among them, so the test only completes if they stop once all of them together received the count.
+ */
+@RunWith(WorkerTestRunner.class)
+@Provider(
+        value = ActiveMqProvider.class,
+        configuration = MiniBrokerConfiguration.class)
+public class SharedMessageCountTest extends EndToEndTest {
+    private static final String BROKER_URL = "amqp://localhost:5672/test.shared.count?type=queue";
+
+    @ReceivingPeer
+    private MiniPeer miniReceivingPeer;
+
+    @SendingPeer
+    private MiniPeer miniSendingPeer;
+
+    @MaestroPeer
+    private Maestro maestro;
+
+    @BeforeClass
+    public static void setUpSharedCount() {
+        // The peers run on this JVM, so they share this configuration
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        config.setProperty("maestro.worker.duration.count.shared", true);
+        config.setProperty("maestro.worker.duration.count.slice", 16);
+        config.setProperty("warm-up.message.count", 200);
+    }
+
+    @Test(timeout = 300000)
+    public void testQueueWithMultipleWorkers() throws Exception {
+        final ReportsDownloader reportsDownloader = new ReportsDownloader("target/shared-count-reports");
+        final FixedRateTestProfile testProfile = new FixedRateTestProfile();
+
+        testProfile.setBrokerURL(BROKER_URL);
+        testProfile.setDuration(TestDurationBuilder.build("1000"));
+        testProfile.setMessageSize("256");
+        testProfile.setRate(100);
+        testProfile.setParallelCount(3);
+
+        final FixedRateTestExecutor testExecutor = new FixedRateTestExecutor(maestro, reportsDownloader,
+                testProfile);
+
+        assertTrue("The receivers did not complete the test after receiving the whole count", testExecutor.run());
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.tests.perf;
+
+import net.orpiske.jms.provider.activemq.ActiveMqProvider;
+import net.orpiske.jms.test.annotations.Provider;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.maestro.client.Maestro;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.maestro.reports.ReportsDownloader;
+import org.maestro.tests.rate.FixedRateTestExecutor;
+import org.maestro.tests.rate.singlepoint.FixedRateTestProfile;
+import org.maestro.worker.tests.support.annotations.MaestroPeer;
+import org.maestro.worker.tests.support.annotations.ReceivingPeer;
+import org.maestro.worker.tests.support.annotations.SendingPeer;
+import org.maestro.worker.tests.support.common.EndToEndTest;
+import org.maestro.worker.tests.support.runner.MiniBrokerConfiguration;
+import org.maestro.worker.tests.support.runner.MiniPeer;
+import org.maestro.worker.tests.support.runner.WorkerTestRunner;
+
+import java.io.File;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a complete fixed rate test, including the warm-up, against the embedded broker (which is also used as the
+ * maestro broker) and fails if the throughput or the latency don't meet their floors. The floors can be adjusted
+ * with the system properties below. Run it with the PerfRegression profile.
+ */
+@RunWith(WorkerTestRunner.class)
+@Provider(
+        value = ActiveMqProvider.class,
+        configuration = MiniBrokerConfiguration.class)
+public class FixedRatePerformanceRegressionTest extends EndToEndTest {
+    private static final String BROKER_URL = "amqp://localhost:5672/test.performance.regression";
+
+    @ReceivingPeer
+    private MiniPeer miniReceivingPeer;
+
+    @SendingPeer
+    private MiniPeer miniSendingPeer;
+
+    @MaestroPeer
+    private Maestro maestro;
+
+    @BeforeClass
+    public static void setUpFloors() {
+        // The peers run on this JVM, so they share this configuration
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        config.setProperty("warm-up.message.count", Long.getLong("maestro.perf.warmup.count", 10000));
+        config.setProperty("maestro.worker.fcl.throughput.threshold",
+                Integer.getInteger("maestro.perf.throughput.floor", 90));
+        config.setProperty("maestro.worker.fcl.throughput.intervals", 5);
+        config.setProperty("maestro.worker.fcl.soft.percentile", 99.0);
+        config.setProperty("maestro.worker.reporting.interval", 1000);
+    }
+
+    @Test(timeout = 600000)
+    public void testFixedRate() throws Exception {
+        final File reportDir = new File(System.getProperty("maestro.perf.report.dir", "target/perf-reports"));
+        final ReportsDownloader reportsDownloader = new ReportsDownloader(reportDir.getPath());
+
+        final FixedRateTestProfile testProfile = new FixedRateTestProfile();
+
+        testProfile.setBrokerURL(BROKER_URL);
+        testProfile.setDuration(TestDurationBuilder.build(System.getProperty("maestro.perf.duration", "60s")));
+        testProfile.setMessageSize(System.getProperty("maestro.perf.message.size", "256"));
+        testProfile.setRate(Integer.getInteger("maestro.perf.rate", 1000));
+        testProfile.setParallelCount(Integer.getInteger("maestro.perf.parallel.count", 2));
+        // The maximum latency (in milliseconds) at the 99th percentile
+        testProfile.setMaximumLatency(Integer.getInteger("maestro.perf.latency.floor", 100));
+
+        final FixedRateTestExecutor testExecutor = new FixedRateTestExecutor(maestro, reportsDownloader,
+                testProfile);
+
+        assertTrue("The test did not meet the throughput or latency floors (see the reports at " + reportDir + ")",
+                testExecutor.run());
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.tests.telemetry;
+
+import net.orpiske.jms.provider.activemq.ActiveMqProvider;
+import net.orpiske.jms.test.annotations.Provider;
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.maestro.client.Maestro;
+import org.maestro.client.notes.StatsResponse;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.client.notes.MaestroNote;
+import org.maestro.worker.tests.support.annotations.MaestroPeer;
+import org.maestro.worker.tests.support.annotations.ReceivingPeer;
+import org.maestro.worker.tests.support.annotations.SendingPeer;
+import org.maestro.worker.tests.support.common.EndToEndTest;
+import org.maestro.worker.tests.support.runner.MiniBrokerConfiguration;
+import org.maestro.worker.tests.support.runner.MiniPeer;
+import org.maestro.worker.tests.support.runner.WorkerTestRunner;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the front-end receives the stats published by the peers on the telemetry topic, without requesting
+ * them
+ */
+@RunWith(WorkerTestRunner.class)
+@Provider(
+        value = ActiveMqProvider.class,
+        configuration = MiniBrokerConfiguration.class)
+public class StatsTelemetryTest extends EndToEndTest {
+    private static final long TELEMETRY_INTERVAL = 500;
+
+    @ReceivingPeer
+    private MiniPeer miniReceivingPeer;
+
+    @SendingPeer
+    private MiniPeer miniSendingPeer;
+
+    @MaestroPeer
+    private Maestro maestro;
+
+    @BeforeClass
+    public static void setUpTelemetry() {
+        // The peers and the front-end run on this JVM, so they share this configuration
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        config.setProperty("maestro.worker.telemetry.interval", TELEMETRY_INTERVAL);
+        config.setProperty("maestro.stats.telemetry", true);
+    }
+
+    private static boolean isTelemetry(final MaestroNote note) {
+        // The replies to the stats requests are not timestamped
+        return note instanceof StatsResponse && !"0".equals(((StatsResponse) note).getTimestamp());
+    }
+
+    @Test(timeout = 60000)
+    public void testReceivesTheTelemetry() {
+        final List<MaestroNote> telemetry = maestro.collect(TELEMETRY_INTERVAL, 20, 4,
+                StatsTelemetryTest::isTelemetry);
+
+        final Set<String> roles = telemetry.stream()
+                .map(note -> ((StatsResponse) note).getRole())
+                .collect(Collectors.toSet());
+
+        assertTrue("Both peers should publish their stats: " + roles,
+                roles.contains("sender") && roles.contains("receiver"));
+    }
+
+    @Test(timeout = 60000)
+    public void testDoesNotPollWhileReceivingTheTelemetry() throws Exception {
+        assertTrue("The telemetry was not received",
+                maestro.collect(TELEMETRY_INTERVAL, 20, 1, StatsTelemetryTest::isTelemetry).size() > 0);
+
+        maestro.pollStats();
+
+        final List<MaestroNote> replies = maestro.collect(TELEMETRY_INTERVAL, 4, Integer.MAX_VALUE,
+                note -> note instanceof StatsResponse && !isTelemetry(note));
+        assertEquals("The stats should not be requested while the telemetry is received", 0, replies.size());
+    }
+}
@@ -19,9 +19,12 @@ package org.maestro.worker.common;
 import org.apache.commons.configuration.AbstractConfiguration;
 import org.maestro.client.notes.*;
 import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.evaluators.Evaluator;
 import org.maestro.common.evaluators.HardLatencyEvaluator;
 import org.maestro.common.evaluators.LatencyEvaluator;
+import org.maestro.common.evaluators.SlidingWindowLatencyEvaluator;
 import org.maestro.common.evaluators.SoftLatencyEvaluator;
+import org.maestro.common.evaluators.ThroughputEvaluator;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.common.worker.*;
 import org.maestro.worker.common.ds.MaestroDataServer;
@@ -41,13 +44,17 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
     private static final Logger logger = LoggerFactory.getLogger(ConcurrentWorkerManager.class);
     private static final long TIMEOUT_STOP_WORKER_MILLIS = 1_000;
     private static final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+    private static final boolean SEND_LATENCY_HISTOGRAM = config.getBoolean("maestro.worker.stats.histogram", false);
 
     private final WorkerContainer container;
     private final Class<MaestroWorker> workerClass;
     private final File logDir;
-    private Thread latencyWriterThread;
-    private Thread rateWriterThread;
+    private volatile Thread latencyWriterThread;
+    private volatile Thread rateWriterThread;
+    private volatile WorkerLatencyWriter latencyWriter;
+    private volatile WorkerChannelWriter rateWriter;
     private LatencyEvaluator latencyEvaluator;
+    private ThroughputEvaluator throughputEvaluator;
 
     /**
      * Constructor
@@ -60,19 +67,40 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
      */
     public ConcurrentWorkerManager(final String maestroURL, final String role, final String host, final File logDir,
                                    final Class<MaestroWorker> workerClass, final MaestroDataServer dataServer) throws MaestroException {
-        super(maestroURL, role, host, dataServer);
+        this(maestroURL, role, host, logDir, workerClass, dataServer, WorkerAffinity.fromConfig());
+    }
+
+    /**
+     * Constructor
+     * @param maestroURL
+     * @param role
+     * @param host
+     * @param logDir
+     * @param workerClass
+     * @param affinity the CPU cores the threads of this peer are pinned to
+     * @throws MaestroException
+     */
+    public ConcurrentWorkerManager(final String maestroURL, final String role, final String host, final File logDir,
+                                   final Class<MaestroWorker> workerClass, final MaestroDataServer dataServer,
+                                   final WorkerAffinity affinity) throws MaestroException {
+        super(maestroURL, role, host, dataServer, affinity);
 
-        this.container = WorkerContainer.getInstance(getClient());
+        this.container = new WorkerContainer(getClient(), affinity);
         this.workerClass = workerClass;
         this.logDir = logDir;
     }
 
 
     /**
-     * Starts the workers and add them to a container
-     * @return
+     * Starts the workers and add them to a container. The request is replied as soon as the test is set up: the
+     * workers are prepared and released on the container start thread, so that the requests received meanwhile
+     * (ie.: to stop the test) are still handled. A failure to create the workers is notified as a test failure.
+     * @param startEpochMicros the instant (in microseconds since the epoch) the test should start or 0 to start it
+     *                         as soon as the workers are prepared
+     * @param correlationId the correlation id of the start request
+     * @return true if the test was set up or false otherwise
      */
-    private boolean doWorkerStart() {
+    private boolean doWorkerStart(long startEpochMicros, final String correlationId) {
         if (container.isTestInProgress()) {
             logger.warn("Trying to start a new test, but a test execution is already in progress");
             getClient().notifyFailure("Test already in progress");
@@ -82,62 +110,91 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
 
         final File testLogDir = TestLogUtils.nextTestLogDir(logDir);
 
-        setupLatencyEvaluator();
-
         try {
-            super.writeTestProperties(testLogDir);
+            // Invalid evaluator settings (ie.: a malformed SLO) fail the test start with an error reply
+            setupLatencyEvaluator();
+            setupThroughputEvaluator();
 
-            final List<MaestroWorker> workers = new ArrayList<>();
+            super.writeTestProperties(testLogDir);
 
             logger.debug("Starting the workers {}", workerClass);
-            container.start(workerClass, workers, this::onStoppedWorkers, latencyEvaluator);
-
-            if (workers.isEmpty()) {
-                logger.warn("No workers has been started!");
-            } else {
-                logger.debug("Creating the latency writer thread");
-
-                WorkerLatencyWriter latencyWriter;
-                if (latencyEvaluator == null) {
-                    latencyWriter = new WorkerLatencyWriter(testLogDir, workers);
-                }
-                else {
-                    long reportingInterval = config.getLong("maestro.worker.reporting.interval", 10000);
-                    latencyWriter = new WorkerLatencyWriter(testLogDir, workers, latencyEvaluator,
-                            reportingInterval);
-                }
-                this.latencyWriterThread = new Thread(latencyWriter);
-
-                logger.debug("Creating the rate writer thread");
-                WorkerChannelWriter rateWriter = new WorkerChannelWriter(testLogDir, workers);
-                this.rateWriterThread = new Thread(rateWriter);
-
-                logger.debug("Starting the writers threads");
-                this.latencyWriterThread.start();
-                this.rateWriterThread.start();
-
-                //TODO handle shutdown gently
-                Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownAndWaitWriters));
-            }
-
-            getClient().replyOk();
+            container.start(workerClass, this::onStoppedWorkers, evaluators(), startEpochMicros)
+                    .whenComplete((workers, error) -> {
+                        if (error != null) {
+                            logger.error("Unable to start workers from the container: {}", error.getMessage(),
+                                    error);
+                            getClient().notifyFailure("Unable to start the workers: " + error.getMessage());
+                        }
+                        else {
+                            startWriters(testLogDir, workers);
+                        }
+                    });
+
+            getClient().replyOk(correlationId);
             return true;
         } catch (Exception e) {
             logger.error("Unable to start workers from the container: {}", e.getMessage(), e);
-            getClient().replyInternalError();
+            getClient().replyInternalError(correlationId);
         }
 
         return false;
     }
 
+    private void startWriters(final File testLogDir, final List<MaestroWorker> workers) {
+        if (workers.isEmpty()) {
+            logger.warn("No workers has been started!");
+
+            return;
+        }
+
+        try {
+            logger.debug("Creating the latency writer thread");
+
+            // The interval histograms are always recorded, regardless of the FCL evaluator (which is optional)
+            long reportingInterval = config.getLong("maestro.worker.reporting.interval", 10000);
+            this.latencyWriter = new WorkerLatencyWriter(testLogDir, workers, latencyEvaluator,
+                    reportingInterval);
+            latencyWriter.setLatencySettings(LatencyHistogramSettings.from(getWorkerOptions()));
+            latencyWriter.setIntervalLatenciesListener(container::setIntervalLatencies);
+            latencyWriter.setTagWorkerLatencies(config.getBoolean("maestro.worker.latency.tagged", false));
+            latencyWriter.setMeasurementPhase(container.getMeasurementPhase());
+            this.latencyWriterThread = new Thread(getAffinity().pinnedWriter(latencyWriter));
+
+            logger.debug("Creating the rate writer thread");
+            this.rateWriter = new WorkerChannelWriter(testLogDir, workers);
+            rateWriter.setMeasurementPhase(container.getMeasurementPhase());
+            this.rateWriterThread = new Thread(getAffinity().pinnedWriter(rateWriter));
+
+            logger.debug("Starting the writers threads");
+            this.latencyWriterThread.start();
+            this.rateWriterThread.start();
+
+            //TODO handle shutdown gently
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdownAndWaitWriters));
+        } catch (Exception e) {
+            logger.error("Unable to start the writers: {}", e.getMessage(), e);
+            getClient().notifyFailure("Unable to start the writers: " + e.getMessage());
+            container.stop();
+        }
+    }
+
 
     private void setupLatencyEvaluator() {
+        // The evaluators are stateful, so they are not reused across tests
+        this.latencyEvaluator = null;
+
         Double givenLatency = super.getWorkerOptions().getFclAsDouble();
-        if (givenLatency == null) {
+        String policy = config.getString("maestro.worker.fcl.default.policy", "soft");
+
+        if (policy.equals("slo")) {
+            setupSloLatencyEvaluator(givenLatency);
+
             return;
         }
 
-        String policy = config.getString("maestro.worker.fcl.default.policy", "soft");
+        if (givenLatency == null) {
+            return;
+        }
 
         if (policy.equals("soft")) {
             double defaultPercentile = config.getDouble("maestro.worker.fcl.soft.percentile", 90.0);
@@ -155,6 +212,76 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         }
     }
 
+    private void setupSloLatencyEvaluator(final Double givenLatency) {
+        final List<SlidingWindowLatencyEvaluator.Slo> slos = new ArrayList<>();
+
+        for (String slo : config.getStringArray("maestro.worker.fcl.slo")) {
+            slos.add(SlidingWindowLatencyEvaluator.Slo.parse(slo));
+        }
+
+        if (givenLatency != null) {
+            double defaultPercentile = config.getDouble("maestro.worker.fcl.soft.percentile", 90.0);
+
+            // The latency comes as milliseconds from the front-end
+            slos.add(new SlidingWindowLatencyEvaluator.Slo(defaultPercentile, Math.round(givenLatency * 1000)));
+        }
+
+        if (slos.isEmpty()) {
+            logger.warn("The 'slo' FCL policy is set, but there are no latency objectives to evaluate");
+            return;
+        }
+
+        long window = config.getLong("maestro.worker.fcl.slo.window", 30000);
+        int violations = config.getInt("maestro.worker.fcl.slo.violations", 3);
+
+        logger.debug("Setting latency objectives to {} over a window of {} ms and {} consecutive violations",
+                slos, window, violations);
+        this.latencyEvaluator = new SlidingWindowLatencyEvaluator(slos, window, violations);
+    }
+
+    private void setupThroughputEvaluator() {
+        // The evaluators are stateful, so they are not reused across tests
+        this.throughputEvaluator = null;
+
+        if (!MaestroSenderWorker.class.isAssignableFrom(workerClass)) {
+            return;
+        }
+
+        double threshold = config.getDouble("maestro.worker.fcl.throughput.threshold", 0);
+        if (threshold <= 0) {
+            return;
+        }
+
+        final WorkerOptions workerOptions = getWorkerOptions();
+        final long rate = workerOptions.getRate() == null ? 0 : Long.parseLong(workerOptions.getRate());
+        if (rate <= 0) {
+            logger.debug("Not evaluating the throughput because the test is not rate-limited");
+            return;
+        }
+
+        final int parallelCount = Integer.parseInt(workerOptions.getParallelCount());
+        final double targetRate = rate * parallelCount;
+        final int intervals = config.getInt("maestro.worker.fcl.throughput.intervals", 5);
+
+        logger.debug("Setting the minimum throughput to {}% of {} msg/s for {} consecutive intervals",
+                threshold, targetRate, intervals);
+        this.throughputEvaluator = new ThroughputEvaluator(targetRate, threshold, intervals);
+    }
+
+    private List<Evaluator<?>> evaluators() {
+        final List<Evaluator<?>> evaluators = new ArrayList<>(2);
+
+        if (latencyEvaluator != null) {
+            evaluators.add(latencyEvaluator);
+        }
+
+        if (throughputEvaluator != null) {
+            evaluators.add(throughputEvaluator);
+        }
+
+        return evaluators;
+    }
+
     private void shutdownAndWaitWriters(){
         if (this.rateWriterThread != null) {
             this.rateWriterThread.interrupt();
@@ -180,25 +307,25 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
 
     private static boolean awaitWorkers(long startWaitingWorkersEpochMillis, final List<WorkerRuntimeInfo> workers) {
         final long deadLine = startWaitingWorkersEpochMillis + (workers.size() * TIMEOUT_STOP_WORKER_MILLIS * 2);
-        //workers are being stopped, just need to check if they have finished their jobs
-        boolean allFinished = false;
-        while (!allFinished && System.currentTimeMillis() < deadLine) {
-            allFinished = true;
-            for (int i = 0, size = workers.size(); i < size; i++) {
-                final WorkerRuntimeInfo workerRuntimeInfo = workers.get(i);
+        //workers are being stopped, just need to check if they have finished their jobs: each join returns as soon
+        //as the worker finishes
+        for (int i = 0, size = workers.size(); i < size; i++) {
+            final WorkerRuntimeInfo workerRuntimeInfo = workers.get(i);
+
+            while (workerRuntimeInfo.isAlive()) {
+                final long remaining = deadLine - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+
                 try {
-                    workerRuntimeInfo.thread.join(TIMEOUT_STOP_WORKER_MILLIS);
+                    workerRuntimeInfo.join(remaining);
                 } catch (InterruptedException e) {
                     //no op, just retry
-                } finally {
-                    allFinished = !workerRuntimeInfo.thread.isAlive();
-                    if (!allFinished) {
-                        break;
-                    }
                 }
             }
         }
-        return allFinished;
+        return true;
     }
 
     /**
@@ -242,7 +369,54 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         super.handle(note);
         container.setWorkerOptions(getWorkerOptions());
 
-        getClient().replyOk();
+        if (note.getOption() == SetRequest.Option.MAESTRO_NOTE_OPT_SET_PARALLEL_COUNT && container.isTestInProgress()) {
+            if (!scaleWorkers()) {
+                getClient().replyInternalError(note.getCorrelationId());
+                return;
+            }
+        }
+
+        getClient().replyOk(note.getCorrelationId());
+    }
+
+    /**
+     * Adds or retires workers to match the parallel count set while the test is running
+     * @return true if scaled successfully or false otherwise
+     */
+    private boolean scaleWorkers() {
+        try {
+            final int parallelCount = Integer.parseInt(getWorkerOptions().getParallelCount());
+
+            if (parallelCount <= 0) {
+                logger.warn("Ignoring the invalid parallel count {} for the test in progress", parallelCount);
+                return false;
+            }
+
+            logger.info("Scaling the test in progress to {} workers", parallelCount);
+            final List<MaestroWorker> added = container.scale(parallelCount);
+
+            if (!added.isEmpty()) {
+                if (latencyWriter != null) {
+                    latencyWriter.addWorkers(added);
+                }
+
+                if (rateWriter != null) {
+                    rateWriter.addWorkers(added);
+                }
+            }
+
+            if (throughputEvaluator != null) {
+                final long rate = Long.parseLong(getWorkerOptions().getRate());
+
+                throughputEvaluator.setTargetRate(rate * parallelCount);
+            }
+
+            return true;
+        } catch (Exception e) {
+            logger.error("Unable to scale the workers of the test in progress: {}", e.getMessage(), e);
+        }
+
+        return false;
     }
 
     @Override
@@ -258,7 +432,7 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         logger.info("Start receiver request received");
 
         if (MaestroReceiverWorker.class.isAssignableFrom(workerClass)) {
-            if (!doWorkerStart()) {
+            if (!doWorkerStart(note.getStartEpochMicros(), note.getCorrelationId())) {
                 logger.warn("::handle {} can't start worker", note);
             }
         }
@@ -269,7 +443,7 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         logger.info("Start sender request received");
 
         if (MaestroSenderWorker.class.isAssignableFrom(workerClass)) {
-            if (!doWorkerStart()) {
+            if (!doWorkerStart(note.getStartEpochMicros(), note.getCorrelationId())) {
                 logger.warn("::handle {} can't start worker", note);
             }
         }
@@ -283,7 +457,7 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
             container.stop();
         }
 
-        getClient().replyOk();
+        getClient().replyOk(note.getCorrelationId());
     }
 
     @Override
@@ -294,13 +468,12 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
             container.stop();
         }
 
-        getClient().replyOk();
+        getClient().replyOk(note.getCorrelationId());
     }
 
 
     @Override
-    public void handle(StatsRequest note) {
-        logger.trace("Stats request received");
+    protected StatsResponse newStatsResponse() {
         StatsResponse statsResponse = new StatsResponse();
 
         String parallelCount = getWorkerOptions().getParallelCount();
@@ -318,6 +491,15 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         LatencyStats latencyStats = container.latencyStats();
         if (latencyStats != null) {
             statsResponse.setLatency(latencyStats.getLatency());
+            statsResponse.setLatencyP50(latencyStats.getValueAtPercentile(50.0));
+            statsResponse.setLatencyP90(latencyStats.getValueAtPercentile(90.0));
+            statsResponse.setLatencyP99(latencyStats.getValueAtPercentile(99.0));
+            statsResponse.setLatencyP999(latencyStats.getValueAtPercentile(99.9));
+            statsResponse.setLatencyMax(latencyStats.getMaxValue());
+
+            if (SEND_LATENCY_HISTOGRAM) {
+                statsResponse.setLatencyHistogram(latencyStats.getIntervalHistogram());
+            }
         }
         else {
             statsResponse.setLatency(0);
@@ -336,7 +518,7 @@ public class ConcurrentWorkerManager extends MaestroWorkerManager implements Mae
         statsResponse.setRoleInfo("");
         statsResponse.setTimestamp("0");
 
-        getClient().statsResponse(statsResponse);
+        return statsResponse;
     }
 
     @Override
@@ -20,6 +20,7 @@ import org.maestro.client.MaestroReceiverClient;
 import org.maestro.client.exchange.AbstractMaestroPeer;
 import org.maestro.client.exchange.MaestroDeserializer;
 import org.maestro.client.notes.*;
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.URLQuery;
 import org.maestro.common.client.exceptions.MalformedNoteException;
 import org.maestro.common.client.notes.GetOption;
@@ -27,6 +28,7 @@ import org.maestro.common.exceptions.DurationParseException;
 import org.maestro.common.exceptions.MaestroConnectionException;
 import org.maestro.common.exceptions.MaestroException;
 import org.maestro.common.test.TestProperties;
+import org.maestro.common.worker.ClockCorrections;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.worker.common.ds.MaestroDataServer;
 import org.slf4j.Logger;
@@ -35,6 +37,9 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A base worker class that implements the most basic worker functionality
@@ -46,6 +51,12 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
     private WorkerOptions workerOptions;
     private boolean running = true;
     private MaestroDataServer dataServer;
+    private final WorkerAffinity affinity;
+    private static final long TELEMETRY_INTERVAL = ConfigurationWrapper.getConfig()
+            .getLong("maestro.worker.telemetry.interval", 0);
+    private static final boolean TELEMETRY_AGGREGATED = ConfigurationWrapper.getConfig()
+            .getBoolean("maestro.worker.telemetry.aggregated", false);
+    private ScheduledExecutorService telemetryExecutor;
 
     /**
      * Constructor
@@ -55,6 +66,19 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
      * @throws MaestroException
      */
     public MaestroWorkerManager(final String maestroURL, final String role, final String host, final MaestroDataServer dataServer) throws MaestroException {
+        this(maestroURL, role, host, dataServer, WorkerAffinity.fromConfig());
+    }
+
+    /**
+     * Constructor
+     * @param maestroURL Maestro broker URL
+     * @param role Worker role
+     * @param host hostname
+     * @param affinity the CPU cores the threads of this peer are pinned to
+     * @throws MaestroException
+     */
+    public MaestroWorkerManager(final String maestroURL, final String role, final String host,
+                                final MaestroDataServer dataServer, final WorkerAffinity affinity) throws MaestroException {
         super(maestroURL, role, MaestroDeserializer::deserializeEvent);
 
         logger.debug("Creating the receiver client");
@@ -62,6 +86,13 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
 
         workerOptions = new WorkerOptions();
         this.dataServer = dataServer;
+        this.affinity = affinity;
+
+        setCallbackAffinity(affinity.getClientCores());
+    }
+
+    protected WorkerAffinity getAffinity() {
+        return affinity;
     }
 
 
@@ -85,11 +116,16 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
         super.connect();
 
         client.connect();
+        startTelemetry();
     }
 
 
     protected void setRunning(boolean running) {
         this.running = running;
+
+        if (!running) {
+            stopTelemetry();
+        }
     }
 
 
@@ -109,13 +145,12 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
     }
 
 
-    @Override
-    public void handle(final StatsRequest note) {
-
-        if (logger.isTraceEnabled()) {
-            logger.trace("Stats request received");
-        }
-
+    /**
+     * Creates the stats response with the current status of this peer. It is used both to reply to the stats
+     * requests and to publish the telemetry, possibly at the same time, so it must be thread-safe
+     * @return a new stats response
+     */
+    protected StatsResponse newStatsResponse() {
         StatsResponse statsResponse = new StatsResponse();
 
         String parallelCount = workerOptions.getParallelCount();
@@ -134,7 +169,59 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
         statsResponse.setRoleInfo("");
         statsResponse.setTimestamp("0");
 
-        client.statsResponse(statsResponse);
+        return statsResponse;
+    }
+
+    @Override
+    public void handle(final StatsRequest note) {
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("Stats request received");
+        }
+
+        client.statsResponse(newStatsResponse(), note.getCorrelationId());
+    }
+
+    private void publishTelemetry() {
+        try {
+            final StatsResponse statsResponse = newStatsResponse();
+
+            statsResponse.setTimestamp(Long.toString(System.currentTimeMillis()));
+            if (TELEMETRY_AGGREGATED) {
+                client.hostTelemetry(statsResponse);
+            }
+            else {
+                client.telemetry(statsResponse);
+            }
+        }
+        catch (Exception e) {
+            // An exception would cancel the next executions
+            logger.warn("Unable to publish the telemetry: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void startTelemetry() {
+        if (TELEMETRY_INTERVAL <= 0 || telemetryExecutor != null) {
+            return;
+        }
+
+        logger.info("Publishing the telemetry every {} ms{}", TELEMETRY_INTERVAL,
+                TELEMETRY_AGGREGATED ? " to the host aggregator" : "");
+        telemetryExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "maestro-telemetry");
+
+            thread.setDaemon(true);
+            return thread;
+        });
+        telemetryExecutor.scheduleAtFixedRate(this::publishTelemetry, TELEMETRY_INTERVAL, TELEMETRY_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void stopTelemetry() {
+        if (telemetryExecutor != null) {
+            telemetryExecutor.shutdownNow();
+            telemetryExecutor = null;
+        }
     }
 
 
@@ -187,6 +274,29 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
             }
             case MAESTRO_NOTE_OPT_FCL: {
                 workerOptions.setFcl(note.getValue());
+                break;
+            }
+            case MAESTRO_NOTE_OPT_SET_LATENCY_HIGHEST_VALUE: {
+                workerOptions.setLatencyHighestValue(note.getValue());
+                break;
+            }
+            case MAESTRO_NOTE_OPT_SET_LATENCY_PRECISION: {
+                workerOptions.setLatencyPrecision(note.getValue());
+                break;
+            }
+            case MAESTRO_NOTE_OPT_SET_CLOCK_CORRECTIONS: {
+                final long clockCorrection = ClockCorrections.parse(note.getValue(), id);
+
+                logger.info("Correcting the receive time of the messages by {} us", clockCorrection);
+                workerOptions.setClockCorrection(clockCorrection);
+                break;
+            }
+            case MAESTRO_NOTE_OPT_SET_CLOCK_OFFSETS: {
+                final long clockOffset = ClockCorrections.parse(note.getValue(), id);
+
+                logger.info("The clock of this peer is {} us off the front-end clock", clockOffset);
+                workerOptions.setClockOffset(clockOffset);
+                break;
             }
         }
     }
@@ -235,6 +345,8 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
             testProperties.setLimitDestinations(0);
         }
 
+        testProperties.setCpuAffinity(affinity.describe());
+
         // TODO: collect this
         testProperties.setApiName("JMS");
         testProperties.setApiVersion("1.1");
@@ -259,7 +371,7 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
 
     @Override
     public void handle(PingRequest note) throws MaestroConnectionException, MalformedNoteException {
-        client.pingResponse(note.getSec(), note.getUsec());
+        client.pingResponse(note.getSec(), note.getUsec(), note.getCorrelationId());
     }
 
 
@@ -275,7 +387,7 @@ public abstract class MaestroWorkerManager extends AbstractMaestroPeer<MaestroEv
                 response.setOption(GetOption.MAESTRO_NOTE_OPT_GET_DS);
                 response.setValue(dataServerAddress);
 
-                client.getResponse(response);
+                client.getResponse(response, note.getCorrelationId());
             }
         }
 
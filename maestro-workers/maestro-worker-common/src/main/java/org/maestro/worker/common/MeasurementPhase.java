@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks when the measurement phase of a test starts. For tests with a warm-up phase (see
+ * {@link org.maestro.common.duration.PhasedDuration}) it starts once all the workers complete the warm-up, and the
+ * data recorded before it is not reported. Otherwise, the whole test is measured.
+ */
+public final class MeasurementPhase {
+    private static final long WARMING_UP = Long.MAX_VALUE;
+
+    private volatile long startEpochMillis;
+
+    private MeasurementPhase(long startEpochMillis) {
+        this.startEpochMillis = startEpochMillis;
+    }
+
+    /**
+     * Creates a phase that measures the whole test
+     * @return a new phase
+     */
+    public static MeasurementPhase wholeTest() {
+        return new MeasurementPhase(0);
+    }
+
+    /**
+     * Creates a phase that starts measuring after the warm-up
+     * @return a new phase
+     */
+    public static MeasurementPhase afterWarmUp() {
+        return new MeasurementPhase(WARMING_UP);
+    }
+
+    /**
+     * Whether the test is still warming up
+     * @return true if warming up or false if measuring
+     */
+    public boolean isWarmingUp() {
+        return startEpochMillis == WARMING_UP;
+    }
+
+    /**
+     * Gets the time the measurement started
+     * @return the time in milliseconds since the epoch, 0 if measuring the whole test or Long.MAX_VALUE if still
+     * warming up
+     */
+    public long startEpochMillis() {
+        return startEpochMillis;
+    }
+
+    /**
+     * Gets the time the measurement started
+     * @return the time in microseconds since the epoch, 0 if measuring the whole test or Long.MAX_VALUE if still
+     * warming up
+     */
+    public long startEpochMicros() {
+        final long startEpochMillis = this.startEpochMillis;
+
+        return startEpochMillis == WARMING_UP ? WARMING_UP : TimeUnit.MILLISECONDS.toMicros(startEpochMillis);
+    }
+
+    /**
+     * Ends the warm-up and starts measuring from now on
+     */
+    void start() {
+        if (isWarmingUp()) {
+            startEpochMillis = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.maestro.common.ConfigurationWrapper;
+import org.maestro.common.affinity.CpuAffinity;
+
+import java.util.BitSet;
+
+/**
+ * The CPU cores the worker threads, the writer threads and the Maestro client callback thread are pinned to. Each
+ * worker is pinned to a single core (wrapping around if there are more workers than cores), while the writers share
+ * their set of cores. Nothing is pinned unless configured.
+ */
+public final class WorkerAffinity {
+    private final BitSet workerCores;
+    private final BitSet writerCores;
+    private final BitSet clientCores;
+
+    private WorkerAffinity(final BitSet workerCores, final BitSet writerCores, final BitSet clientCores) {
+        this.workerCores = workerCores;
+        this.writerCores = writerCores;
+        this.clientCores = clientCores;
+    }
+
+    private static BitSet cores(final AbstractConfiguration config, final String key) {
+        // The configuration splits the values on commas, so the list is joined back
+        return CpuAffinity.parseCoreList(String.join(",", config.getStringArray(key)));
+    }
+
+    /**
+     * Reads the affinity from the Maestro configuration
+     * @return the affinity of the worker threads
+     */
+    public static WorkerAffinity fromConfig() {
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        return new WorkerAffinity(cores(config, "maestro.worker.affinity.workers"),
+                cores(config, "maestro.worker.affinity.writers"),
+                cores(config, "maestro.worker.affinity.client"));
+    }
+
+    /**
+     * Splits the worker cores between the peers running on the same JVM (ie.: the sender and the receiver of the
+     * loopback role), so that their workers don't compete for the same cores. Each part gets a contiguous slice of
+     * the worker cores, while the writer and client cores are shared. If there are fewer worker cores than parts,
+     * the workers of the different parts share them.
+     * @param parts the number of parts
+     * @param part the part (0 to parts - 1)
+     * @return the affinity of the given part
+     */
+    public WorkerAffinity split(int parts, int part) {
+        if (part < 0 || part >= parts) {
+            throw new IllegalArgumentException("Invalid affinity part " + part + " of " + parts);
+        }
+
+        final int cores = workerCores.cardinality();
+        if (cores < parts) {
+            return this;
+        }
+
+        final int first = part * cores / parts;
+        final int last = (part + 1) * cores / parts;
+        final BitSet partCores = new BitSet();
+
+        int index = 0;
+        for (int core = workerCores.nextSetBit(0); core >= 0; core = workerCores.nextSetBit(core + 1), index++) {
+            if (index >= first && index < last) {
+                partCores.set(core);
+            }
+        }
+
+        return new WorkerAffinity(partCores, writerCores, clientCores);
+    }
+
+    /**
+     * Pins the calling thread to the core assigned to a worker
+     * @param workerNumber the worker number
+     */
+    public void pinWorker(int workerNumber) {
+        CpuAffinity.pinCurrentThread(CpuAffinity.nthCore(workerCores, workerNumber));
+    }
+
+    /**
+     * Wraps a writer so that it pins its thread before running
+     * @param writer the writer
+     * @return the writer task
+     */
+    public Runnable pinnedWriter(final Runnable writer) {
+        if (writerCores.isEmpty()) {
+            return writer;
+        }
+
+        return () -> {
+            CpuAffinity.pinCurrentThread(writerCores);
+            writer.run();
+        };
+    }
+
+    /**
+     * Gets the cores the Maestro client callback thread is pinned to
+     * @return the set of cores (empty if not pinned)
+     */
+    public BitSet getClientCores() {
+        return clientCores;
+    }
+
+    /**
+     * Describes the layout, so that it can be recorded along with the test results
+     * @return the layout (ie.: workers=0-7;writers=8;client=9) or null if nothing is pinned
+     */
+    public String describe() {
+        final StringBuilder builder = new StringBuilder();
+
+        describe(builder, "workers", workerCores);
+        describe(builder, "writers", writerCores);
+        describe(builder, "client", clientCores);
+
+        return builder.length() == 0 ? null : builder.toString();
+    }
+
+    private static void describe(final StringBuilder builder, final String name, final BitSet cores) {
+        if (cores.isEmpty()) {
+            return;
+        }
+
+        if (builder.length() > 0) {
+            builder.append(';');
+        }
+
+        builder.append(name).append('=').append(CpuAffinity.toCoreList(cores));
+    }
+}
@@ -21,8 +21,10 @@ import org.agrona.concurrent.SleepingIdleStrategy;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroSenderWorker;
 import org.maestro.common.worker.MaestroWorker;
+import org.maestro.common.writers.OneToOneTraceChannel;
 import org.maestro.common.writers.OneToOneWorkerChannel;
 import org.maestro.common.writers.RateWriter;
+import org.maestro.common.writers.TraceWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,35 +32,75 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
 
 public final class WorkerChannelWriter implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(WorkerChannelWriter.class);
 
-    private static final class WorkerRateReport {
+    private interface WorkerReport {
+
+        int updateReport(int drainLimit);
+    }
+
+    static final class WorkerRateReport implements WorkerReport {
 
         private final RateWriter rateWriter;
         private final MaestroWorker worker;
+        private final MeasurementPhase measurementPhase;
         private final Consumer<OneToOneWorkerChannel.Sample> onRate;
 
-        public WorkerRateReport(MaestroWorker worker, RateWriter rateWriter) {
+        WorkerRateReport(MaestroWorker worker, RateWriter rateWriter, MeasurementPhase measurementPhase) {
             this.rateWriter = rateWriter;
             this.worker = worker;
+            this.measurementPhase = measurementPhase;
             this.onRate = this::onRate;
         }
 
         private void onRate(OneToOneWorkerChannel.Sample rate) {
-            this.rateWriter.write(rate.timestampEpochMicros(), rate.value());
+            //the samples recorded while warming up are discarded
+            if (rate.timestampEpochMicros() >= this.measurementPhase.startEpochMicros()) {
+                this.rateWriter.write(rate.timestampEpochMicros(), rate.value());
+            }
         }
 
+        @Override
         public int updateReport(int drainLimit) {
             return this.worker.workerChannel().readRate(this.onRate, drainLimit);
         }
     }
 
-    private final List<? extends MaestroWorker> workers;
+    private static final class WorkerTraceReport implements WorkerReport {
+
+        private final TraceWriter traceWriter;
+        private final OneToOneTraceChannel traceChannel;
+        private final Consumer<OneToOneTraceChannel.Trace> onTrace;
+
+        public WorkerTraceReport(MaestroWorker worker, TraceWriter traceWriter) {
+            this.traceWriter = traceWriter;
+            this.traceChannel = worker.traceChannel();
+            this.onTrace = this::onTrace;
+        }
+
+        private void onTrace(OneToOneTraceChannel.Trace trace) {
+            this.traceWriter.write(traceChannel.destination(), trace.producerId(), trace.sequence(), trace.size(),
+                    trace.sendTimeEpochMicros(), trace.receiveTimeEpochMicros());
+        }
+
+        @Override
+        public int updateReport(int drainLimit) {
+            return this.traceChannel.readTrace(this.onTrace, drainLimit);
+        }
+    }
+
+    private final List<MaestroWorker> workers;
     private final File reportFolder;
     private final boolean compressed;
+    private final Queue<MaestroWorker> addedWorkers = new ConcurrentLinkedQueue<>();
+    private RateWriter rateWriter;
+    private TraceWriter traceWriter;
+    private MeasurementPhase measurementPhase = MeasurementPhase.wholeTest();
 
     public WorkerChannelWriter(File reportFolder, List<? extends MaestroWorker> workers) {
         this.reportFolder = reportFolder;
@@ -66,41 +108,73 @@ public final class WorkerChannelWriter implements Runnable {
         this.compressed = true;
     }
 
+    /**
+     * Sets the measurement phase of the test. The rate samples recorded before it starts are discarded. It must
+     * be set before the writer runs
+     * @param measurementPhase the measurement phase
+     */
+    public void setMeasurementPhase(final MeasurementPhase measurementPhase) {
+        this.measurementPhase = measurementPhase;
+    }
+
+    /**
+     * Adds workers started while the test is running
+     * @param newWorkers the workers to add
+     */
+    public void addWorkers(final List<? extends MaestroWorker> newWorkers) {
+        addedWorkers.addAll(newWorkers);
+    }
+
     private RateWriter createRateWriter(boolean sender) throws IOException {
         return new RateWriter(reportFolder, sender, compressed);
     }
 
+    private void addReports(final MaestroWorker worker, final List<WorkerReport> reports) throws IOException {
+        if (worker.workerChannel() != null) {
+            final boolean sender = worker instanceof MaestroSenderWorker;
+            final boolean receiver = worker instanceof MaestroReceiverWorker;
+            assert !(sender && receiver);
 
-    @Override
-    public void run() {
+            if (sender) {
+                rateWriter = rateWriter == null ? createRateWriter(true) : rateWriter;
+            } else if (receiver) {
+                rateWriter = rateWriter == null ? createRateWriter(false) : rateWriter;
+            }
+
+            if (rateWriter != null) {
+                reports.add(new WorkerRateReport(worker, rateWriter, measurementPhase));
+            }
+        }
+
+        if (worker.traceChannel() != null) {
+            if (traceWriter == null) {
+                traceWriter = new TraceWriter(reportFolder, worker instanceof MaestroSenderWorker);
+            }
+
+            reports.add(new WorkerTraceReport(worker, traceWriter));
+        }
+    }
 
-        RateWriter rateWriter = null;
+    private void addReportsForAddedWorkers(final List<WorkerReport> reports) throws IOException {
+        MaestroWorker worker;
 
+        while ((worker = addedWorkers.poll()) != null) {
+            workers.add(worker);
+            addReports(worker, reports);
+        }
+    }
+
+
+    @Override
+    public void run() {
         try {
-            final int workersCount = workers.size();
-            final List<WorkerRateReport> rateReports = new ArrayList<>(workersCount);
-
-            for (int workerId = 0; workerId < workersCount; workerId++) {
-                final MaestroWorker worker = workers.get(workerId);
-
-                if (worker.workerChannel() != null) {
-                    final boolean sender = worker instanceof MaestroSenderWorker;
-                    final boolean receiver = worker instanceof MaestroReceiverWorker;
-                    assert !(sender && receiver);
-
-                    if (sender) {
-                        rateWriter = rateWriter == null ? createRateWriter(true) : rateWriter;
-                    } else if (receiver) {
-                        rateWriter = rateWriter == null ? createRateWriter(false) : rateWriter;
-                    }
-
-                    if (rateWriter != null) {
-                        rateReports.add(new WorkerRateReport(worker, rateWriter));
-                    }
-                }
+            final List<WorkerReport> reports = new ArrayList<>(workers.size());
+
+            for (MaestroWorker worker : workers) {
+                addReports(worker, reports);
             }
 
-            update(rateReports);
+            update(reports);
         } catch (IOException ex) {
             ex.printStackTrace();
         } finally {
@@ -109,47 +183,50 @@ public final class WorkerChannelWriter implements Runnable {
                 if (rateWriter != null) {
                     rateWriter.close();
                 }
+
+                if (traceWriter != null) {
+                    traceWriter.close();
+                }
             } finally {
                 final long totalMissed = workers.stream().filter(w -> w.workerChannel() != null).map(MaestroWorker::workerChannel).mapToLong(OneToOneWorkerChannel::missedSamples).sum();
                 if (totalMissed > 0) {
                     logger.error("Total missed rate samples: {}", totalMissed);
                 }
+
+                final long totalMissedTraces = workers.stream().filter(w -> w.traceChannel() != null).map(MaestroWorker::traceChannel).mapToLong(OneToOneTraceChannel::missedTraces).sum();
+                if (totalMissedTraces > 0) {
+                    logger.warn("Total missed trace samples: {}", totalMissedTraces);
+                }
             }
         }
     }
 
-    private void update(List<WorkerRateReport> rateReports) {
+    private void update(List<WorkerReport> reports) throws IOException {
         final int drainLimit = 128;
-        final int rateReportsCount = rateReports.size();
-
-        //doesn't need to continue if there aren't any reports to be populated
-        if (rateReportsCount > 0) {
-            update(rateReports, drainLimit, rateReportsCount);
-        }
-    }
-
-    private void update(List<WorkerRateReport> rateReports, int drainLimit, int rateReportsCount) {
         final Thread currentThread = Thread.currentThread();
         final IdleStrategy idleStrategy = new SleepingIdleStrategy(1000L);
         while (!currentThread.isInterrupted()) {
+            addReportsForAddedWorkers(reports);
+
             int events = 0;
-            for (int i = 0; i < rateReportsCount; i++) {
-                final WorkerRateReport report = rateReports.get(i);
+            for (int i = 0, reportsCount = reports.size(); i < reportsCount; i++) {
+                final WorkerReport report = reports.get(i);
                 events += report.updateReport(drainLimit);
             }
             idleStrategy.idle(events);
         }
 
-        drain(drainLimit, rateReports, rateReportsCount);
+        addReportsForAddedWorkers(reports);
+        drain(drainLimit, reports, reports.size());
     }
 
-    private void drain(int drainLimit, List<WorkerRateReport> rateReports, int rateReportsCount) {
+    private void drain(int drainLimit, List<WorkerReport> reports, int reportsCount) {
         //lets finish to drain the remaining samples left (if any)
         boolean allDrained = false;
         while (!allDrained) {
             allDrained = true;
-            for (int i = 0; i < rateReportsCount; i++) {
-                final WorkerRateReport report = rateReports.get(i);
+            for (int i = 0; i < reportsCount; i++) {
+                final WorkerReport report = reports.get(i);
                 if (report.updateReport(drainLimit) > 0) {
                     allDrained = false;
                 }
@@ -16,51 +16,94 @@
 
 package org.maestro.worker.common;
 
+import org.maestro.common.ConfigurationWrapper;
 import org.maestro.common.client.MaestroReceiver;
+import org.maestro.common.duration.DurationCount;
+import org.maestro.common.duration.EpochClocks;
+import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.MessageBudget;
+import org.maestro.common.duration.PhasedDuration;
+import org.maestro.common.duration.TestDuration;
+import org.maestro.common.duration.TestDurationBuilder;
+import org.HdrHistogram.Histogram;
 import org.maestro.common.evaluators.Evaluator;
 import org.maestro.common.evaluators.LatencyEvaluator;
+import org.maestro.common.exceptions.DurationParseException;
+import org.maestro.common.worker.LatencyHistogramSettings;
+import org.maestro.common.worker.LatencyRecorder;
 import org.maestro.common.worker.LatencyStats;
+import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.worker.ThroughputStats;
 import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
  * This is a container class for multiple workerRuntimeInfos. It is responsible for
- * creating, starting and stopping multiple workerRuntimeInfos at once.
+ * creating, starting and stopping multiple workerRuntimeInfos at once. The workers run on
+ * pooled threads, reused across tests, or on virtual threads and are started at once after all
+ * of them are prepared. The preparation is awaited on a dedicated start thread, so that the
+ * requests received meanwhile (ie.: to stop the test) are not blocked by it.
  */
 public final class WorkerContainer {
-    private static WorkerContainer instance;
+    private static final Logger logger = LoggerFactory.getLogger(WorkerContainer.class);
+
     private WorkerOptions workerOptions;
-    private final List<WorkerRuntimeInfo> workerRuntimeInfos = new ArrayList<>();
+    // Workers can be added while the test is running, so it must be safe to iterate concurrently
+    private final List<WorkerRuntimeInfo> workerRuntimeInfos = new CopyOnWriteArrayList<>();
+    private Class<MaestroWorker> workerClass;
 
-    private WorkerWatchdog workerWatchdog;
+    private volatile WorkerWatchdog workerWatchdog;
     private Thread watchDogThread;
     private final MaestroReceiver endpoint;
-    private LocalDateTime startTime;
-    private Evaluator<?> evaluator;
-
-    private WorkerContainer(MaestroReceiver endpoint) {
-        this.endpoint = endpoint;
-    }
+    // Read by the stats requests and the telemetry while the start thread sets it
+    private volatile LocalDateTime startTime;
+    private List<? extends Evaluator<?>> evaluators = Collections.emptyList();
+    private volatile Histogram intervalLatencies;
+    private volatile CountDownLatch prepared;
+    private volatile CountDownLatch startSignal;
+    private volatile CountDownLatch stopSignal;
+    private volatile boolean starting;
+    private TestDuration warmUpDuration;
+    private MeasurementPhase measurementPhase = MeasurementPhase.wholeTest();
+    private volatile MessageBudget messageBudget;
+    private final WorkerAffinity affinity;
+    private final String threadMode = ConfigurationWrapper.getConfig().getString("maestro.worker.threads",
+            WorkerExecutors.PLATFORM);
+    private final ExecutorService workerExecutor = WorkerExecutors.newWorkerExecutor(threadMode);
+    private final boolean virtualThreads = WorkerExecutors.isVirtual(workerExecutor);
+    private final ExecutorService startExecutor = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "maestro-worker-start");
+
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
-     * Gets and instance of the container
-     * @return
+     * Constructor. Each worker manager has its own container, so that a sender and a receiver can run on the same
+     * JVM
+     * @param endpoint the maestro endpoint that is notified of the test status
+     * @param affinity the affinity of the worker manager owning this container
      */
-    public synchronized static WorkerContainer getInstance(MaestroReceiver endpoint) {
-        if (instance == null) {
-            instance = new WorkerContainer(endpoint);
-        }
-
-        return instance;
+    public WorkerContainer(MaestroReceiver endpoint, final WorkerAffinity affinity) {
+        this.endpoint = endpoint;
+        this.affinity = affinity;
     }
 
 
@@ -73,53 +116,368 @@ public final class WorkerContainer {
     }
 
     /**
-     * Start the execution of the workers for a predefined class
+     * Start the execution of the workers for a predefined class. The workers are created, prepared and released
+     * on the start thread: this method returns as soon as the test is set up, without waiting for them. A test
+     * being started is already in progress.
      * @param clazz The class associated with the workers
      * @param onWorkersStopped callback that will be called when the workers will stop
-     * @throws IllegalAccessException if unable to access the worker constructor
-     * @throws InstantiationException if unable to instantiate the worker
+     * @param evaluators the evaluators checked while the test is running
+     * @param startEpochMicros the instant (in microseconds since the epoch) the prepared workers are released or
+     *                         0 to release them as soon as they are prepared
+     * @return a future that completes with the workers once they are released or exceptionally if unable to create
+     * them (ie.: if unable to instantiate the worker class)
      */
-    public void start(final Class<MaestroWorker> clazz, Collection<? super MaestroWorker> workers,
-                      Consumer<? super List<WorkerRuntimeInfo>> onWorkersStopped, Evaluator<?> evaluator)
-            throws IllegalAccessException, InstantiationException {
+    public CompletableFuture<List<MaestroWorker>> start(final Class<MaestroWorker> clazz,
+                                                        Consumer<? super List<WorkerRuntimeInfo>> onWorkersStopped,
+                                                        List<? extends Evaluator<?>> evaluators,
+                                                        long startEpochMicros) {
         final int parallelCount = Integer.parseInt(workerOptions.getParallelCount());
+        final WorkerOptions workerOptions = this.workerOptions;
         this.workerRuntimeInfos.clear();
-        this.evaluator = evaluator;
+        this.workerClass = clazz;
+        this.evaluators = evaluators;
+        this.intervalLatencies = null;
+        this.startTime = null;
+        setUpMeasurementPhase(workerOptions.getDuration());
+        this.messageBudget = newMessageBudget(workerOptions.getDuration());
+
+        // Set before leaving, so that a stop request received at any time from now on is seen by the start thread
+        this.prepared = new CountDownLatch(parallelCount);
+        this.startSignal = new CountDownLatch(1);
+        this.stopSignal = new CountDownLatch(1);
+        this.starting = true;
+
+        final CompletableFuture<List<MaestroWorker>> started = new CompletableFuture<>();
+
+        startExecutor.execute(() -> {
+            try {
+                createAndStartWorkers(clazz, workerOptions, parallelCount, this.workerRuntimeInfos,
+                        onWorkersStopped, evaluators, startEpochMicros);
+
+                started.complete(this.workerRuntimeInfos.stream().map(info -> info.worker)
+                        .collect(Collectors.toList()));
+            } catch (Throwable t) {
+                //interrupt any workers
+                this.workerRuntimeInfos.forEach(WorkerRuntimeInfo::interrupt);
+                //cleanup
+                this.workerRuntimeInfos.clear();
+                started.completeExceptionally(t);
+            } finally {
+                starting = false;
+            }
+        });
+
+        return started;
+    }
+
+    /**
+     * Tests with a warm-up phase are only measured once all the workers complete the warm-up
+     */
+    private void setUpMeasurementPhase(final String durationSpec) {
+        this.warmUpDuration = null;
+        this.measurementPhase = MeasurementPhase.wholeTest();
+
+        if (durationSpec == null || !PhasedDuration.isPhased(durationSpec)) {
+            return;
+        }
+
         try {
-            createAndStartWorkers(clazz, workerOptions, parallelCount, this.workerRuntimeInfos, onWorkersStopped, evaluator);
-        } catch (Throwable t) {
-            //interrupt any workers
-            this.workerRuntimeInfos.forEach(info -> info.thread.interrupt());
-            //cleanup
-            this.workerRuntimeInfos.clear();
-            throw t;
-        }
-        //the workers are started
-        workers.addAll(this.workerRuntimeInfos.stream().map(info -> info.worker).collect(Collectors.toList()));
-        startTime = LocalDateTime.now();
+            this.warmUpDuration = new PhasedDuration(durationSpec).getWarmUpDuration();
+            this.measurementPhase = MeasurementPhase.afterWarmUp();
+        } catch (DurationParseException e) {
+            logger.error("Measuring the whole test because the duration {} is invalid: {}", durationSpec,
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * When configured to do so, the workers share a single message count instead of each one processing the
+     * whole count on its own: the senders stop once all of them together sent it and the receivers of a queue once
+     * all of them together received it. Workers added while the test is running share the same budget
+     * @param durationSpec the test duration
+     * @return the budget or null if the workers count their own messages
+     */
+    private static MessageBudget newMessageBudget(final String durationSpec) {
+        if (!ConfigurationWrapper.getConfig().getBoolean("maestro.worker.duration.count.shared", false)) {
+            return null;
+        }
+
+        try {
+            final TestDuration duration = TestDurationBuilder.build(durationSpec);
+
+            if (duration instanceof DurationCount) {
+                final int sliceSize = ConfigurationWrapper.getConfig().getInt("maestro.worker.duration.count.slice",
+                        64);
+
+                logger.info("The workers share a budget of {} messages", duration.getNumericDuration());
+                return new MessageBudget(duration.getNumericDuration(), sliceSize);
+            }
+        } catch (DurationParseException e) {
+            logger.error("Not sharing the message count because the duration {} is invalid: {}", durationSpec,
+                    e.getMessage());
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the measurement phase of the current test
+     * @return the measurement phase
+     */
+    public MeasurementPhase getMeasurementPhase() {
+        return measurementPhase;
     }
 
     private void createAndStartWorkers(final Class<MaestroWorker> clazz, WorkerOptions workerOptions, int workers,
                                        List<WorkerRuntimeInfo> workerRuntimeInfos,
                                        final Consumer<? super List<WorkerRuntimeInfo>> onWorkersStopped,
-                                       final Evaluator<?> evaluator) throws IllegalAccessException, InstantiationException {
+                                       final List<? extends Evaluator<?>> evaluators,
+                                       long startEpochMicros) throws IllegalAccessException, InstantiationException {
+        final List<LatencyRecorder> latencyRecorders = sharedLatencyRecorders(clazz, workerOptions, workers);
+        final CountDownLatch prepared = this.prepared;
+        final CountDownLatch startSignal = this.startSignal;
+        final CountDownLatch stopSignal = this.stopSignal;
+
         for (int i = 0; i < workers; i++) {
-            final WorkerRuntimeInfo ri = new WorkerRuntimeInfo();
-            ri.worker = clazz.newInstance();
-            ri.worker.setWorkerOptions(workerOptions);
-            ri.worker.setWorkerNumber(i);
-            ri.thread = new Thread(ri.worker);
-            ri.thread.start();
-            workerRuntimeInfos.add(ri);
+            final LatencyRecorder latencyRecorder = latencyRecorders != null ? latencyRecorders.get(i) : null;
+
+            workerRuntimeInfos.add(createAndSubmitWorker(clazz, workerOptions, i, latencyRecorder, prepared,
+                    startSignal));
+        }
+
+        awaitPrepared(prepared);
+        if (startEpochMicros > 0) {
+            awaitStartTime(startEpochMicros, workerOptions.getClockOffset(), stopSignal);
         }
 
-        workerWatchdog = new WorkerWatchdog(workerRuntimeInfos, endpoint, onWorkersStopped, evaluator);
+        if (stopSignal.getCount() == 0) {
+            // The workers created after the stop request were not stopped by it
+            logger.info("The test was stopped while starting: the workers are released only to finish");
+            workerRuntimeInfos.forEach(ri -> ri.worker.stop());
+        }
+
+        logger.debug("Releasing {} workers", workers);
+        startSignal.countDown();
+        //the workers are started: set before the watchdog, which enables the stats
+        startTime = LocalDateTime.now();
+
+        workerWatchdog = new WorkerWatchdog(this, workerRuntimeInfos, endpoint, onWorkersStopped, evaluators,
+                warmUpDuration, measurementPhase);
 
         watchDogThread = new Thread(workerWatchdog);
         watchDogThread.start();
     }
 
+    private WorkerRuntimeInfo createAndSubmitWorker(final Class<MaestroWorker> clazz, final WorkerOptions workerOptions,
+                                                    int workerNumber, final LatencyRecorder latencyRecorder,
+                                                    final CountDownLatch prepared, final CountDownLatch startSignal)
+            throws IllegalAccessException, InstantiationException {
+        final WorkerRuntimeInfo ri = new WorkerRuntimeInfo();
+
+        ri.worker = clazz.newInstance();
+        if (latencyRecorder != null) {
+            ((MaestroReceiverWorker) ri.worker).setLatencyRecorder(latencyRecorder);
+        }
+        ri.worker.setWorkerOptions(workerOptions);
+        final MessageBudget messageBudget = this.messageBudget;
+        if (messageBudget != null) {
+            ri.worker.setMessageBudget(messageBudget);
+        }
+        ri.worker.setWorkerNumber(workerNumber);
+        ri.future = workerExecutor.submit(() -> {
+            try {
+                // Pinning a virtual thread would pin its carrier thread instead
+                if (!virtualThreads) {
+                    affinity.pinWorker(workerNumber);
+                }
+                prepareAndRun(ri.worker, prepared, startSignal);
+            } finally {
+                ri.markFinished();
+
+                // The watchdog checks all the workers when it starts, so it is fine if it does not exist yet
+                final WorkerWatchdog watchdog = workerWatchdog;
+                if (watchdog != null) {
+                    watchdog.wakeUp();
+                }
+            }
+        });
+
+        return ri;
+    }
+
+    /**
+     * Adds or retires workers while the test is running, so that the number of active workers matches the given
+     * parallel count. The new workers start as soon as they are prepared, while the retired ones are stopped (the
+     * most recently created are retired first). The retired workers are kept, so that their data is still accounted
+     * for, and the new workers get the next worker numbers.
+     * @param parallelCount the new number of active workers
+     * @return the workers added (empty if scaled down)
+     * @throws IllegalAccessException if unable to access the worker constructor
+     * @throws InstantiationException if unable to instantiate the worker
+     */
+    public synchronized List<MaestroWorker> scale(int parallelCount)
+            throws IllegalAccessException, InstantiationException {
+        if (starting) {
+            throw new IllegalStateException("Can't scale the workers while the test is starting");
+        }
+
+        if (!isTestInProgress()) {
+            throw new IllegalStateException("Can't scale the workers if there is no test in progress");
+        }
+
+        final List<WorkerRuntimeInfo> active = workerRuntimeInfos.stream().filter(ri -> !ri.retired)
+                .collect(Collectors.toList());
+
+        final List<MaestroWorker> added = new ArrayList<>();
+
+        if (parallelCount < active.size()) {
+            logger.info("Retiring {} workers", active.size() - parallelCount);
+
+            for (int i = active.size() - 1; i >= parallelCount; i--) {
+                final WorkerRuntimeInfo ri = active.get(i);
+
+                ri.retired = true;
+                ri.worker.stop();
+            }
+        }
+        else if (parallelCount > active.size()) {
+            logger.info("Adding {} workers", parallelCount - active.size());
+
+            final List<WorkerRuntimeInfo> newWorkers = new ArrayList<>();
+            // Nothing to wait for: the test is already running
+            final CountDownLatch started = new CountDownLatch(0);
+
+            for (int i = active.size(); i < parallelCount; i++) {
+                final int workerNumber = workerRuntimeInfos.size() + newWorkers.size();
+
+                newWorkers.add(createAndSubmitWorker(workerClass, workerOptions, workerNumber, null,
+                        new CountDownLatch(1), started));
+            }
+
+            workerRuntimeInfos.addAll(newWorkers);
+            workerWatchdog.addWorkers(newWorkers);
+            newWorkers.forEach(ri -> added.add(ri.worker));
+        }
+
+        return added;
+    }
+
+    /**
+     * Prepares the worker (ie.: connecting to the SUT) and runs it as soon as all the workers are prepared, so
+     * that all of them start the test at the same time
+     */
+    private static void prepareAndRun(final MaestroWorker worker, final CountDownLatch prepared,
+                                      final CountDownLatch startSignal) {
+        boolean ready = false;
+
+        try {
+            worker.prepare();
+            ready = true;
+        } catch (Exception e) {
+            logger.error("Unable to prepare the worker: {}", e.getMessage(), e);
+            worker.getWorkerState().setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
+        } finally {
+            prepared.countDown();
+        }
+
+        try {
+            startSignal.await();
+        } catch (InterruptedException e) {
+            logger.warn("The worker was interrupted while waiting for the start signal");
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (ready) {
+            worker.run();
+        }
+    }
+
+    private static void awaitPrepared(final CountDownLatch prepared) {
+        final long timeout = ConfigurationWrapper.getConfig().getLong("maestro.worker.prepare.timeout", 30000);
+
+        try {
+            if (!prepared.await(timeout, TimeUnit.MILLISECONDS)) {
+                logger.warn("Not all the workers were prepared after {} ms: starting the test anyway. The remaining " +
+                        "workers will start as soon as they are prepared", timeout);
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for the workers to prepare: starting the test anyway");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the start instant scheduled for all the peers, so that their intervals are aligned. It returns
+     * earlier if the test is stopped meanwhile. The instant is read on the front-end clock, so the offset of this
+     * peer's clock is subtracted from the time read while waiting
+     */
+    private static void awaitStartTime(long startEpochMicros, long clockOffsetMicros,
+                                       final CountDownLatch stopSignal) {
+        logger.debug("Waiting to start the test at {} us since the epoch (clock offset of {} us)", startEpochMicros,
+                clockOffsetMicros);
+
+        final EpochMicroClock peerClock = EpochClocks.exclusiveMicro();
+        final EpochMicroClock clock = () -> peerClock.microTime() - clockOffsetMicros;
+
+        try {
+            // Most of the time is spent on the stop signal: only the last milliseconds are spent on the clock
+            final long waitMicros = startEpochMicros - clock.microTime() - TimeUnit.MILLISECONDS.toMicros(2);
+            if (waitMicros > 0 && stopSignal.await(waitMicros, TimeUnit.MICROSECONDS)) {
+                return;
+            }
+
+            final long lateMicros = EpochClocks.awaitMicroTime(clock, startEpochMicros);
+
+            // Workers are assumed to be prepared within a millisecond of the start instant or before it
+            if (lateMicros > TimeUnit.MILLISECONDS.toMicros(1)) {
+                logger.warn("The workers were prepared {} ms after the scheduled start time",
+                        TimeUnit.MICROSECONDS.toMillis(lateMicros));
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for the scheduled start time: starting the test anyway");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates the latency recorders shared by groups of receivers, if configured to do so
+     * @return the recorders indexed by the worker number or null if each worker should create its own
+     */
+    private static List<LatencyRecorder> sharedLatencyRecorders(final Class<MaestroWorker> clazz,
+                                                                final WorkerOptions workerOptions, int workers) {
+        if (!MaestroReceiverWorker.class.isAssignableFrom(clazz)) {
+            return null;
+        }
+
+        final int groupSize = ConfigurationWrapper.getConfig().getInt("maestro.worker.latency.recorder.group", 1);
+        if (groupSize < 2) {
+            return null;
+        }
+
+        return LatencyRecorder.striped(LatencyHistogramSettings.from(workerOptions), workers, groupSize);
+    }
+
     public void stop() {
+        // The start thread must not keep waiting for the workers to prepare or for the start instant
+        final CountDownLatch stopSignal = this.stopSignal;
+        if (stopSignal != null) {
+            stopSignal.countDown();
+        }
+
+        final CountDownLatch prepared = this.prepared;
+        if (prepared != null) {
+            while (prepared.getCount() > 0) {
+                prepared.countDown();
+            }
+        }
+
+        // Workers still waiting to start (ie.: stopped during the preparation) must not block forever
+        final CountDownLatch startSignal = this.startSignal;
+        if (startSignal != null) {
+            startSignal.countDown();
+        }
+
         for (WorkerRuntimeInfo ri : workerRuntimeInfos) {
             ri.worker.stop();
         }
@@ -144,14 +502,18 @@ public final class WorkerContainer {
      * @return
      */
     public boolean isTestInProgress() {
+        if (starting) {
+            return true;
+        }
+
         if (!watchdogRunning()) {
             return false;
         }
 
         for (WorkerRuntimeInfo ri : workerRuntimeInfos) {
             // A worker should only be in "not running" state if it is being
-            // shutdown
-            if (!ri.worker.isRunning()) {
+            // shutdown (or if it was retired while scaling down)
+            if (!ri.retired && !ri.worker.isRunning()) {
                 return false;
             }
         }
@@ -164,7 +526,8 @@ public final class WorkerContainer {
      * @return the throughput statistics
      */
     public ThroughputStats throughputStats() {
-        if (!watchdogRunning()) {
+        final LocalDateTime startTime = this.startTime;
+        if (!watchdogRunning() || startTime == null) {
             return null;
         }
 
@@ -185,25 +548,45 @@ public final class WorkerContainer {
 
 
 
+    /**
+     * Sets the latencies of the last reported interval (merged from all the workers)
+     * @param intervalLatencies the interval histogram. It must not be modified after being set
+     */
+    public void setIntervalLatencies(final Histogram intervalLatencies) {
+        this.intervalLatencies = intervalLatencies;
+    }
+
     /**
      * Gets the latency statistics
      * @return the latency statistics or null if not applicable for the work set in the container
      */
     public LatencyStats latencyStats() {
-        if (!watchdogRunning()) {
+        final LocalDateTime startTime = this.startTime;
+        if (!watchdogRunning() || startTime == null) {
             return null;
         }
 
-        if (evaluator instanceof LatencyEvaluator) {
+        final Histogram intervalLatencies = this.intervalLatencies;
+        final LatencyEvaluator latencyEvaluator = evaluators.stream()
+                .filter(e -> e instanceof LatencyEvaluator)
+                .map(e -> (LatencyEvaluator) e)
+                .findFirst().orElse(null);
+
+        if (latencyEvaluator != null || intervalLatencies != null) {
             LatencyStats ret = new LatencyStats();
-            
-            LatencyEvaluator latencyEvaluator = (LatencyEvaluator) evaluator;
 
             LocalDateTime now = LocalDateTime.now();
             Duration duration = Duration.between(startTime, now);
             ret.setDuration(duration);
 
-            ret.setLatency(latencyEvaluator.getMean());
+            if (latencyEvaluator != null) {
+                ret.setLatency(latencyEvaluator.getMean());
+            }
+            else {
+                ret.setLatency(intervalLatencies.getMean());
+            }
+
+            ret.setIntervalHistogram(intervalLatencies);
 
             return ret;
         }
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the executors that run the workers. The workers can either run on pooled platform threads, reused across
+ * tests, or on virtual threads (one per worker). Virtual threads are only available when running on Java 21 or newer
+ * and allow running a very large number of mostly idle workers: since the code targets older Java versions, they
+ * are created through reflection.
+ */
+final class WorkerExecutors {
+    private static final Logger logger = LoggerFactory.getLogger(WorkerExecutors.class);
+
+    static final String PLATFORM = "platform";
+    static final String VIRTUAL = "virtual";
+
+    private static final String THREAD_NAME_PREFIX = "maestro-worker-";
+
+    /**
+     * Names the pooled worker threads, which are reused across tests
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + count.getAndIncrement());
+
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private WorkerExecutors() {}
+
+    /**
+     * Creates an executor that runs each task on a new virtual thread
+     * @return the executor or null if virtual threads are not supported by the running JVM
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, THREAD_NAME_PREFIX + "virtual-", 0L);
+
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            final Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+                    ThreadFactory.class);
+
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        }
+        catch (ReflectiveOperationException e) {
+            logger.debug("Virtual threads are not available: {}", e.getMessage());
+
+            return null;
+        }
+    }
+
+    private static boolean virtualThreadsSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+
+            return true;
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether an executor created by {@link #newWorkerExecutor(String)} runs the workers on virtual threads.
+     * The platform threads are always pooled by a {@link ThreadPoolExecutor}, so that it also holds when the
+     * virtual threads were requested but not available (ie.: on Java 19 and 20, where they are a preview feature)
+     * @param executor the executor
+     * @return true if using virtual threads or false otherwise
+     */
+    static boolean isVirtual(final ExecutorService executor) {
+        return !(executor instanceof ThreadPoolExecutor);
+    }
+
+    /**
+     * Creates the executor that runs the workers
+     * @param mode the worker thread mode: either 'platform' or 'virtual'
+     * @return the executor
+     */
+    static ExecutorService newWorkerExecutor(final String mode) {
+        if (VIRTUAL.equalsIgnoreCase(mode) && virtualThreadsSupported()) {
+            final ExecutorService executor = newVirtualThreadExecutor();
+
+            if (executor != null) {
+                logger.info("The workers will run on virtual threads");
+                return executor;
+            }
+
+            logger.warn("Virtual threads require Java 21 or newer (running on {}): the workers will run on " +
+                    "platform threads", System.getProperty("java.version"));
+        }
+        else if (!PLATFORM.equalsIgnoreCase(mode)) {
+            logger.warn("Unknown worker thread mode {}: the workers will run on platform threads", mode);
+        }
+
+        return Executors.newCachedThreadPool(new WorkerThreadFactory());
+    }
+}
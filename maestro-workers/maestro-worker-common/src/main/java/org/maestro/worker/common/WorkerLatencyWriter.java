@@ -18,6 +18,7 @@ package org.maestro.worker.common;
 
 import org.HdrHistogram.Histogram;
 import org.maestro.common.evaluators.LatencyEvaluator;
+import org.maestro.common.worker.LatencyHistogramSettings;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.writers.LatencyWriter;
@@ -28,14 +29,19 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public final class WorkerLatencyWriter implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(WorkerLatencyWriter.class);
 
     private static final class WorkerIntervalReport {
         private final MaestroWorker worker;
+        private final int workerNumber;
         private final LatencyWriter latencyWriter;
         private long lastReportTime;
         private Histogram intervalHistogram;
@@ -43,10 +49,12 @@ public final class WorkerLatencyWriter implements Runnable {
         private final long startReportingTime;
         private final LatencyEvaluator latencyEvaluator;
 
-        public WorkerIntervalReport(LatencyWriter latencyWriter, MaestroWorker worker, boolean reportIntervalLatencies,
-                                    long globalStartReportingTime, LatencyEvaluator latencyEvaluator) {
+        public WorkerIntervalReport(LatencyWriter latencyWriter, MaestroWorker worker, int workerNumber,
+                                    boolean reportIntervalLatencies, long globalStartReportingTime,
+                                    LatencyEvaluator latencyEvaluator) {
             this.latencyWriter = latencyWriter;
             this.worker = worker;
+            this.workerNumber = workerNumber;
             this.intervalHistogram = null;
             //We can't be sure the worker is already up & running
             final long startedWorkerTime = worker.startedEpochMillis();
@@ -57,11 +65,13 @@ public final class WorkerLatencyWriter implements Runnable {
             this.latencyEvaluator = latencyEvaluator;
         }
 
-        public void updateReport() {
-            updateReport(false);
+        public void updateReport(final long reportTime) {
+            updateReport(reportTime, false);
+        }
 
-            // Latency evaluation is optional
-            if (this.latencyEvaluator != null) {
+        public void evaluate() {
+            // Latency evaluation is optional. Workers sharing a recorder with others may not report any latency
+            if (this.latencyEvaluator != null && this.intervalHistogram != null) {
                 logger.trace("Recording latency ...");
                 this.latencyEvaluator.record(this.intervalHistogram);
             }
@@ -71,10 +81,10 @@ public final class WorkerLatencyWriter implements Runnable {
         }
 
         /**
+         * @param reportTime the end time of the interval: it is shared by all the workers reported at once
          * @param snapshotLatencies {@code true} if is needed to force the snapshot of the interval latencies at the end of a test
          */
-        public void updateReport(final boolean snapshotLatencies) {
-            final long reportTime = System.currentTimeMillis();
+        public void updateReport(final long reportTime, final boolean snapshotLatencies) {
             if (snapshotLatencies || this.reportIntervalLatencies) {
                 final Histogram intervalHistogram = this.worker.takeLatenciesSnapshot(this.intervalHistogram);
                 //there are workers that doesn't support taking latencies histograms
@@ -94,19 +104,30 @@ public final class WorkerLatencyWriter implements Runnable {
             this.lastReportTime = reportTime;
         }
 
-        public void outputReport() {
+        public void mergeInto(final Histogram histogram) {
+            if (this.intervalHistogram != null) {
+                histogram.add(this.intervalHistogram);
+            }
+        }
+
+        public void outputReport(final boolean tagged) {
             if (this.intervalHistogram != null && this.intervalHistogram.getTotalCount() > 0) {
+                this.intervalHistogram.setTag(tagged ? LatencyWriter.workerTag(workerNumber) : null);
                 this.latencyWriter.outputIntervalHistogram(this.intervalHistogram);
             }
         }
     }
 
-    private final List<? extends MaestroWorker> workers;
+    private final List<MaestroWorker> workers;
     private final File reportFolder;
     private final long reportingIntervalMs;
     private final boolean reportIntervalLatencies;
     private LatencyEvaluator latencyEvaluator;
-
+    private LatencyHistogramSettings latencySettings = LatencyHistogramSettings.defaults();
+    private Consumer<? super Histogram> intervalLatenciesListener;
+    private boolean tagWorkerLatencies;
+    private final Queue<MaestroWorker> addedWorkers = new ConcurrentLinkedQueue<>();
+    private MeasurementPhase measurementPhase = MeasurementPhase.wholeTest();
 
     public WorkerLatencyWriter(File reportFolder, List<? extends MaestroWorker> workers) {
         this.reportFolder = reportFolder;
@@ -125,6 +146,115 @@ public final class WorkerLatencyWriter implements Runnable {
         this.reportIntervalLatencies = true;
     }
 
+    /**
+     * Sets the settings used by the workers to record the latencies, so that they are saved along with the data
+     * @param latencySettings the latency histogram settings
+     */
+    public void setLatencySettings(final LatencyHistogramSettings latencySettings) {
+        this.latencySettings = latencySettings;
+    }
+
+    /**
+     * Sets a listener notified with the latencies of each reported interval, merged from all the workers. The
+     * histogram is a copy owned by the listener
+     * @param intervalLatenciesListener the listener
+     */
+    public void setIntervalLatenciesListener(final Consumer<? super Histogram> intervalLatenciesListener) {
+        this.intervalLatenciesListener = intervalLatenciesListener;
+    }
+
+    /**
+     * Sets whether the interval histograms are tagged with the worker number. When tagged, the log also contains
+     * an untagged histogram per interval with the latencies of all the workers, so that tools unaware of the tags
+     * keep working
+     * @param tagWorkerLatencies true to tag the histograms of each worker or false otherwise
+     */
+    public void setTagWorkerLatencies(boolean tagWorkerLatencies) {
+        this.tagWorkerLatencies = tagWorkerLatencies;
+    }
+
+    /**
+     * Sets the measurement phase of the test. The intervals that end before it starts (or during which it starts)
+     * are discarded, so that the warm-up latencies are not reported nor evaluated
+     * @param measurementPhase the measurement phase
+     */
+    public void setMeasurementPhase(final MeasurementPhase measurementPhase) {
+        this.measurementPhase = measurementPhase;
+    }
+
+    /**
+     * Adds workers started while the test is running. Their latencies are reported from the next interval on
+     * @param newWorkers the workers to add
+     */
+    public void addWorkers(final List<? extends MaestroWorker> newWorkers) {
+        addedWorkers.addAll(newWorkers);
+    }
+
+    private void reportAddedWorkers(final LatencyWriter latencyWriter, final List<WorkerIntervalReport> workerReports,
+                                    final long globalStartReportingTime) {
+        MaestroWorker worker;
+
+        while ((worker = addedWorkers.poll()) != null) {
+            //the added workers get the next worker numbers
+            final int workerNumber = this.workers.size();
+
+            this.workers.add(worker);
+            if (worker instanceof MaestroReceiverWorker) {
+                workerReports.add(new WorkerIntervalReport(latencyWriter, worker, workerNumber,
+                        reportIntervalLatencies, globalStartReportingTime, latencyEvaluator));
+            }
+        }
+    }
+
+    private static Histogram mergeIntervalLatencies(final List<WorkerIntervalReport> workerReports,
+                                                    final int significantDigits, final long startTime,
+                                                    final long reportTime) {
+        final Histogram intervalLatencies = new Histogram(significantDigits);
+        workerReports.forEach(r -> r.mergeInto(intervalLatencies));
+        intervalLatencies.setStartTimeStamp(startTime);
+        intervalLatencies.setEndTimeStamp(reportTime);
+
+        return intervalLatencies;
+    }
+
+    private void outputReports(final LatencyWriter latencyWriter, final List<WorkerIntervalReport> workerReports,
+                               final long startTime, final long reportTime) {
+        Histogram intervalLatencies = null;
+
+        if (intervalLatenciesListener != null || tagWorkerLatencies) {
+            intervalLatencies = mergeIntervalLatencies(workerReports, latencySettings.getSignificantDigits(),
+                    startTime, reportTime);
+        }
+
+        if (tagWorkerLatencies && intervalLatencies.getTotalCount() > 0) {
+            latencyWriter.outputIntervalHistogram(intervalLatencies);
+        }
+
+        workerReports.forEach(r -> r.outputReport(tagWorkerLatencies));
+
+        if (intervalLatenciesListener != null) {
+            intervalLatenciesListener.accept(intervalLatencies);
+        }
+    }
+
+    /**
+     * Feeds the latencies of the interval just updated to the evaluator and closes the interval, so that it is
+     * evaluated right away (and not only when the next one is recorded)
+     */
+    private void evaluateReports(final List<WorkerIntervalReport> workerReports) {
+        if (latencyEvaluator != null) {
+            workerReports.forEach(WorkerIntervalReport::evaluate);
+            latencyEvaluator.intervalCompleted();
+        }
+    }
+
+    /**
+     * Whether the interval starting at the given time is within the measurement phase
+     */
+    boolean isMeasured(final long intervalStartTime) {
+        return measurementPhase.startEpochMillis() <= intervalStartTime;
+    }
+
     private static long getCurrentTimeMsecWithDelay(final long nextReportingTime) throws InterruptedException {
         final long now = System.currentTimeMillis();
         if (now < nextReportingTime)
@@ -142,15 +272,18 @@ public final class WorkerLatencyWriter implements Runnable {
         if (anyWorkers > 0) {
             try (LatencyWriter latencyWriter = new LatencyWriter(new File(reportFolder, "receiverd-latency.hdr"))) {
                 final long globalStartReportingTime = System.currentTimeMillis();
-                latencyWriter.outputLegend(globalStartReportingTime);
+                latencyWriter.outputLegend(globalStartReportingTime, latencySettings);
                 //TODO collect only receiver worker latencies: make it configurable or available on the MaestroWorker API
-                final List<WorkerIntervalReport> workerReports = this.workers.stream()
-                        .filter(w -> w instanceof MaestroReceiverWorker).map(w ->
-                                new WorkerIntervalReport(latencyWriter, w, reportIntervalLatencies, globalStartReportingTime, latencyEvaluator))
-                        .collect(Collectors.toList());
+                //the workers are listed in the order they were created, so the index is the worker number
+                final List<WorkerIntervalReport> workerReports = IntStream.range(0, this.workers.size())
+                        .filter(i -> this.workers.get(i) instanceof MaestroReceiverWorker).mapToObj(i ->
+                                new WorkerIntervalReport(latencyWriter, this.workers.get(i), i, reportIntervalLatencies,
+                                        globalStartReportingTime, latencyEvaluator))
+                        .collect(Collectors.toCollection(ArrayList::new));
                 final Thread currentThread = Thread.currentThread();
                 long startTime = System.currentTimeMillis();
                 long nextReportingTime = startTime + reportingIntervalMs;
+                long lastReportTime = globalStartReportingTime;
 
                 try {
                     while (!currentThread.isInterrupted()) {
@@ -158,9 +291,19 @@ public final class WorkerLatencyWriter implements Runnable {
                         if (now >= nextReportingTime) {
                             //the overall update + output process could take more than the reportingIntervalMs
                             //sample
-                            workerReports.forEach(WorkerIntervalReport::updateReport);
-                            //output sample
-                            workerReports.forEach(WorkerIntervalReport::outputReport);
+                            final long reportTime = System.currentTimeMillis();
+                            reportAddedWorkers(latencyWriter, workerReports, globalStartReportingTime);
+                            if (isMeasured(lastReportTime)) {
+                                workerReports.forEach(r -> r.updateReport(reportTime));
+                                evaluateReports(workerReports);
+                                //output sample
+                                outputReports(latencyWriter, workerReports, lastReportTime, reportTime);
+                            }
+                            else {
+                                //take the snapshot just to discard the warm-up latencies
+                                workerReports.forEach(r -> r.updateReport(reportTime, true));
+                            }
+                            lastReportTime = reportTime;
                             //move the new reporting time n reportingIntervalMs > now
                             while (now >= nextReportingTime) {
                                 nextReportingTime += reportingIntervalMs;
@@ -171,8 +314,14 @@ public final class WorkerLatencyWriter implements Runnable {
                     //it is legal
                 } finally {
                     //force a final snapshot of the latencies
-                    workerReports.forEach(r -> r.updateReport(true));
-                    workerReports.forEach(WorkerIntervalReport::outputReport);
+                    final long reportTime = System.currentTimeMillis();
+                    reportAddedWorkers(latencyWriter, workerReports, globalStartReportingTime);
+                    workerReports.forEach(r -> r.updateReport(reportTime, true));
+                    if (isMeasured(lastReportTime)) {
+                        //the last interval is evaluated too, before the test result is notified
+                        evaluateReports(workerReports);
+                        outputReports(latencyWriter, workerReports, lastReportTime, reportTime);
+                    }
                 }
             } catch (IOException ex) {
                 ex.printStackTrace();
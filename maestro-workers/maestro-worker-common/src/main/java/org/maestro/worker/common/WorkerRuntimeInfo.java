@@ -18,10 +18,62 @@ package org.maestro.worker.common;
 
 import org.maestro.common.worker.MaestroWorker;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 /**
  * Worker runtime information
  */
 public class WorkerRuntimeInfo {
-    public Thread thread;
+    public Future<?> future;
     public MaestroWorker worker;
-}
\ No newline at end of file
+    /**
+     * Whether the worker was retired while scaling down a running test
+     */
+    public volatile boolean retired;
+    private volatile boolean finished;
+
+    /**
+     * Marks the worker as finished. It is called by the thread running the worker, right before releasing it
+     */
+    void markFinished() {
+        finished = true;
+    }
+
+    /**
+     * Checks whether the worker is still running on its (pooled) thread
+     * @return true if the worker is running or false otherwise
+     */
+    public boolean isAlive() {
+        return !finished && future != null && !future.isDone();
+    }
+
+    /**
+     * Waits for the worker to finish running
+     * @param millis the maximum time to wait
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void join(long millis) throws InterruptedException {
+        if (future == null) {
+            return;
+        }
+
+        try {
+            future.get(millis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException | CancellationException e) {
+            // no op: the worker either finished or is still running
+        }
+    }
+
+    /**
+     * Interrupts the worker
+     */
+    public void interrupt() {
+        if (future != null) {
+            future.cancel(true);
+        }
+    }
+}
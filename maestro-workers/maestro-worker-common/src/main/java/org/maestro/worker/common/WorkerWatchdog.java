@@ -17,43 +17,69 @@
 package org.maestro.worker.common;
 
 import org.maestro.common.client.MaestroReceiver;
+import org.maestro.common.duration.TestDuration;
 import org.maestro.common.evaluators.Evaluator;
+import org.maestro.common.evaluators.ThroughputEvaluator;
+import org.maestro.common.worker.ThroughputStats;
 import org.maestro.common.worker.WorkerStateInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static org.maestro.worker.common.WorkerStateInfoUtil.isCleanExit;
 
 /**
  * The watchdog inspects the active workers to check whether they are still active, completed their job
- * or failed
+ * or failed. It is woken up as soon as a worker finishes or an evaluator fails, and otherwise periodically
+ * to sample the throughput
  */
 class WorkerWatchdog implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(WorkerWatchdog.class);
+    private static final long SAMPLING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
 
+    private final WorkerContainer container;
     private final List<WorkerRuntimeInfo> workers;
     private final MaestroReceiver endpoint;
     private volatile boolean running = false;
     private final Consumer<? super List<WorkerRuntimeInfo>> onWorkersStopped;
-    private Evaluator<?> evaluator;
+    private final List<Evaluator<?>> evaluators;
+    private final Semaphore wakeUpSignal = new Semaphore(0);
+    private final TestDuration warmUpDuration;
+    private final MeasurementPhase measurementPhase;
+    private long measurementStartCount;
+    private long measurementStartTime = System.nanoTime();
+    private boolean evaluationFailed;
 
 
     /**
      * Constructor
+     * @param container The container running the workers
      * @param workers A list of workers to inspect
      * @param endpoint The maestro endpoint that is to be notified of the worker status
+     * @param evaluators The evaluators checked while the test is running
+     * @param warmUpDuration The warm-up phase of the workers or null if the test has no warm-up phase
+     * @param measurementPhase The measurement phase, started by the watchdog once all the workers are warmed up
      */
-    public WorkerWatchdog(List<WorkerRuntimeInfo> workers, MaestroReceiver endpoint,
-                          Consumer<? super List<WorkerRuntimeInfo>> onWorkersStopped, final Evaluator<?> evaluator) {
-        this.workers = new ArrayList<>(workers);
+    public WorkerWatchdog(final WorkerContainer container, List<WorkerRuntimeInfo> workers, MaestroReceiver endpoint,
+                          Consumer<? super List<WorkerRuntimeInfo>> onWorkersStopped,
+                          final List<? extends Evaluator<?>> evaluators, final TestDuration warmUpDuration,
+                          final MeasurementPhase measurementPhase) {
+        this.container = container;
+        this.workers = new CopyOnWriteArrayList<>(workers);
         this.onWorkersStopped = onWorkersStopped;
         this.endpoint = endpoint;
-        this.evaluator = evaluator;
+        this.evaluators = new ArrayList<>(evaluators);
+        this.evaluators.forEach(e -> e.setFailureListener(this::wakeUp));
+        this.warmUpDuration = warmUpDuration;
+        this.measurementPhase = measurementPhase;
     }
 
 
@@ -63,12 +89,104 @@ class WorkerWatchdog implements Runnable {
      */
     public void setRunning(boolean running) {
         this.running = running;
+        wakeUp();
+    }
+
+    /**
+     * Wakes up the watchdog to check the workers and the evaluators right away (ie.: because a worker finished
+     * or an evaluator failed)
+     */
+    public void wakeUp() {
+        wakeUpSignal.release();
+    }
+
+    /**
+     * Adds workers started while the test is running
+     * @param newWorkers the workers to inspect from now on
+     */
+    public void addWorkers(final List<WorkerRuntimeInfo> newWorkers) {
+        workers.addAll(newWorkers);
     }
 
     private boolean workersRunning() {
-        for (int i = 0, size = workers.size(); i < size; i++) {
-            WorkerRuntimeInfo ri = workers.get(i);
-            if (!ri.thread.isAlive()) {
+        for (WorkerRuntimeInfo ri : workers) {
+            // The retired workers are expected to finish before the test does
+            if (!ri.isAlive() && !ri.retired) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private long messageCount() {
+        long messageCount = 0;
+        for (WorkerRuntimeInfo ri : workers) {
+            messageCount += ri.worker.messageCount();
+        }
+
+        return messageCount;
+    }
+
+    /**
+     * Whether all the workers completed the warm-up phase. The workers that already finished are done with it
+     */
+    private boolean warmedUp() {
+        for (WorkerRuntimeInfo ri : workers) {
+            if (ri.isAlive() && warmUpDuration.canContinue(ri.worker)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Starts the measurement phase if all the workers completed the warm-up. The throughput is sampled from then on,
+     * so the message count and the time it started are the baseline of the samples
+     * @param now the current time in nanoseconds (ie.: as returned by System.nanoTime())
+     * @return true if the measurement phase started or false if still warming up
+     */
+    boolean startMeasurementIfWarmedUp(final long now) {
+        if (!warmedUp()) {
+            return false;
+        }
+
+        logger.info("The workers completed the warm-up: starting the measurement phase");
+        measurementPhase.start();
+        measurementStartCount = messageCount();
+        measurementStartTime = now;
+
+        return true;
+    }
+
+    ThroughputStats throughputSample() {
+        ThroughputStats stats = new ThroughputStats();
+
+        stats.setCount(messageCount() - measurementStartCount);
+        stats.setDuration(Duration.ofNanos(System.nanoTime() - measurementStartTime));
+
+        return stats;
+    }
+
+    /**
+     * Checks all the evaluators, stopping the test on the first one that fails
+     * @param sample whether the throughput should be sampled and recorded
+     * @return true if all the evaluators succeeded or false otherwise
+     */
+    private boolean evaluate(boolean sample) {
+        for (int i = 0, size = evaluators.size(); i < size; i++) {
+            final Evaluator<?> evaluator = evaluators.get(i);
+
+            if (sample && evaluator instanceof ThroughputEvaluator) {
+                ((ThroughputEvaluator) evaluator).record(throughputSample());
+            }
+
+            if (!evaluator.eval()) {
+                endpoint.notifyFailure(evaluator.getFailureMessage());
+                evaluationFailed = true;
+                container.stop();
+
                 return false;
             }
         }
@@ -76,6 +194,23 @@ class WorkerWatchdog implements Runnable {
         return true;
     }
 
+    /**
+     * Gets the first evaluator that failed. The writers evaluate the last interval of the test after the workers
+     * stop, so it must be checked once they are flushed
+     * @return the evaluator that failed or null if none did
+     */
+    private Evaluator<?> failedEvaluator() {
+        for (int i = 0, size = evaluators.size(); i < size; i++) {
+            final Evaluator<?> evaluator = evaluators.get(i);
+
+            if (!evaluator.eval()) {
+                return evaluator;
+            }
+        }
+
+        return null;
+    }
+
     @Override
     public void run() {
         logger.info("Running the worker watchdog");
@@ -83,18 +218,31 @@ class WorkerWatchdog implements Runnable {
         boolean successful = true;
         String exceptionMessage = null;
 
+        measurementStartTime = System.nanoTime();
+        long nextSampleTime = measurementStartTime;
+
         try {
             while (running && workersRunning()) {
                 try {
-                    if (evaluator != null) {
-                        if (!evaluator.eval()) {
-                            endpoint.notifyFailure("The evaluation of the latency condition failed");
-                            WorkerContainer container = WorkerContainer.getInstance(null);
-                            container.stop();
+                    final long now = System.nanoTime();
+                    final boolean sample = now - nextSampleTime >= 0;
+
+                    if (sample) {
+                        nextSampleTime = now + SAMPLING_INTERVAL_NANOS;
+                    }
+
+                    // Nothing is evaluated while warming up: the throughput is sampled from the end of the warm-up
+                    if (measurementPhase.isWarmingUp()) {
+                        if (sample) {
+                            startMeasurementIfWarmedUp(now);
                         }
                     }
+                    else if (!evaluate(sample)) {
+                        break;
+                    }
 
-                    Thread.sleep(1000);
+                    wakeUpSignal.tryAcquire(nextSampleTime - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    wakeUpSignal.drainPermits();
                 } catch (InterruptedException e) {
                     logger.info("The worker thread was interrupted", e);
 
@@ -103,6 +251,14 @@ class WorkerWatchdog implements Runnable {
             }
 
 
+            // The workers added while the test was running started later than the others, so they must be
+            // stopped once the test is over
+            for (WorkerRuntimeInfo ri : workers) {
+                if (ri.isAlive() && ri.worker.isRunning()) {
+                    ri.worker.stop();
+                }
+            }
+
             // NOTE: flushing the data and creating the symlinks must happen before
             // the notification. Otherwise, the front-end risk collecting outdated
             // records/logs
@@ -123,7 +279,17 @@ class WorkerWatchdog implements Runnable {
             this.onWorkersStopped.accept(workers);
 
             if (successful) {
-                endpoint.notifySuccess("Test completed successfully");
+                // A failed evaluation has already been notified
+                if (!evaluationFailed) {
+                    final Evaluator<?> failedEvaluator = failedEvaluator();
+
+                    if (failedEvaluator != null) {
+                        endpoint.notifyFailure(failedEvaluator.getFailureMessage());
+                    }
+                    else {
+                        endpoint.notifySuccess("Test completed successfully");
+                    }
+                }
             }
             else {
                 if (exceptionMessage != null) {
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.maestro.client.notes.SetRequest;
+import org.maestro.client.notes.StartSender;
+import org.maestro.client.notes.StopSender;
+import org.maestro.common.worker.MaestroSenderWorker;
+import org.maestro.common.worker.MaestroWorker;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class ConcurrentWorkerManagerTest {
+
+    public static final class SlowPreparingSender implements MaestroSenderWorker {
+        static volatile CountDownLatch preparing;
+        static volatile CountDownLatch prepareCompletion;
+        static volatile CountDownLatch stopped;
+
+        private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
+
+        @Override
+        public void prepare() throws Exception {
+            preparing.countDown();
+            // Like connecting to an unresponsive SUT
+            prepareCompletion.await();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return workerStateInfo.isRunning();
+        }
+
+        @Override
+        public void setWorkerOptions(WorkerOptions workerOptions) {
+            // NO-OP
+        }
+
+        @Override
+        public WorkerStateInfo getWorkerState() {
+            return workerStateInfo;
+        }
+
+        @Override
+        public void start() {
+            // NO-OP
+        }
+
+        @Override
+        public void stop() {
+            stopped.countDown();
+        }
+
+        @Override
+        public void halt() {
+            stop();
+        }
+
+        @Override
+        public void run() {
+            // Stopped before it was released
+            workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_STOPPED, null);
+        }
+
+        @Override
+        public long startedEpochMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long messageCount() {
+            return 0;
+        }
+
+        @Override
+        public void setWorkerNumber(int number) {
+            // NO-OP
+        }
+    }
+
+    @Rule
+    public final TemporaryFolder tempTestFolder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        SlowPreparingSender.preparing = new CountDownLatch(1);
+        SlowPreparingSender.prepareCompletion = new CountDownLatch(1);
+        SlowPreparingSender.stopped = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() {
+        SlowPreparingSender.prepareCompletion.countDown();
+    }
+
+    private static SetRequest set(final Consumer<SetRequest> option) {
+        SetRequest setRequest = new SetRequest();
+
+        option.accept(setRequest);
+        return setRequest;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(timeout = 60_000L)
+    public void shouldStopWhilePreparing() throws Exception {
+        final File logDir = tempTestFolder.newFolder("logs");
+        // Not connected: the replies are just not delivered
+        final ConcurrentWorkerManager manager = new ConcurrentWorkerManager("mqtt://localhost:1883", "sender",
+                "localhost", logDir, (Class<MaestroWorker>) (Class<?>) SlowPreparingSender.class, null);
+
+        manager.handle(set(r -> r.setBroker("amqp://localhost/test")));
+        manager.handle(set(r -> r.setDurationType("10s")));
+        manager.handle(set(r -> r.setParallelCount("1")));
+        manager.handle(set(r -> r.setMessageSize("256")));
+        manager.handle(set(r -> r.setRate("0")));
+        manager.handle(set(r -> r.setFCL("0")));
+
+        final long startRequested = System.nanoTime();
+        manager.handle(new StartSender());
+        final long startHandledMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startRequested);
+
+        Assert.assertTrue("The worker never started to prepare",
+                SlowPreparingSender.preparing.await(10, TimeUnit.SECONDS));
+        // The preparation timeout is 30 seconds: the start request must not wait for it
+        Assert.assertTrue("The start request waited for the workers to prepare: " + startHandledMillis + " ms",
+                startHandledMillis < 10_000);
+
+        manager.handle(new StopSender());
+        Assert.assertTrue("The stop request was not handled while the workers were preparing",
+                SlowPreparingSender.stopped.await(10, TimeUnit.SECONDS));
+
+        // Once the worker gives up preparing, the test ends without waiting for the preparation timeout
+        SlowPreparingSender.prepareCompletion.countDown();
+
+        final File last = new File(logDir, "last");
+        final long deadline = System.currentTimeMillis() + 20_000;
+        while (!last.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        Assert.assertTrue("The stopped test did not end", last.exists());
+    }
+}
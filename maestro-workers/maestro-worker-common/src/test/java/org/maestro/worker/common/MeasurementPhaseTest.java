@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MeasurementPhaseTest {
+
+    @Test
+    public void testMeasuresTheWholeTest() {
+        final MeasurementPhase measurementPhase = MeasurementPhase.wholeTest();
+
+        assertFalse(measurementPhase.isWarmingUp());
+        assertEquals(0, measurementPhase.startEpochMillis());
+        assertEquals(0, measurementPhase.startEpochMicros());
+
+        // There is no warm-up to end
+        measurementPhase.start();
+        assertEquals(0, measurementPhase.startEpochMillis());
+    }
+
+    @Test
+    public void testStartsAfterTheWarmUp() throws Exception {
+        final MeasurementPhase measurementPhase = MeasurementPhase.afterWarmUp();
+
+        assertTrue(measurementPhase.isWarmingUp());
+        assertEquals(Long.MAX_VALUE, measurementPhase.startEpochMillis());
+        assertEquals(Long.MAX_VALUE, measurementPhase.startEpochMicros());
+
+        final long before = System.currentTimeMillis();
+        measurementPhase.start();
+        final long after = System.currentTimeMillis();
+
+        assertFalse(measurementPhase.isWarmingUp());
+        final long startEpochMillis = measurementPhase.startEpochMillis();
+        assertTrue(startEpochMillis >= before && startEpochMillis <= after);
+        assertEquals(TimeUnit.MILLISECONDS.toMicros(startEpochMillis), measurementPhase.startEpochMicros());
+
+        // Starting again does not move the start of the measurement
+        Thread.sleep(5);
+        measurementPhase.start();
+        assertEquals(startEpochMillis, measurementPhase.startEpochMillis());
+    }
+}
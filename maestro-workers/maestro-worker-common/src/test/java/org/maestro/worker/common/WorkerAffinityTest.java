@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.maestro.worker.common;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.junit.After;
+import org.junit.Test;
+import org.maestro.common.ConfigurationWrapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class WorkerAffinityTest {
+
+    private static WorkerAffinity affinity(final String workers) {
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        config.setProperty("maestro.worker.affinity.workers", workers);
+        config.setProperty("maestro.worker.affinity.writers", "8");
+        return WorkerAffinity.fromConfig();
+    }
+
+    @After
+    public void tearDown() {
+        final AbstractConfiguration config = ConfigurationWrapper.getConfig();
+
+        config.clearProperty("maestro.worker.affinity.workers");
+        config.clearProperty("maestro.worker.affinity.writers");
+    }
+
+    @Test
+    public void testSplitGivesEachPartItsOwnWorkerCores() {
+        final WorkerAffinity affinity = affinity("0-7");
+
+        assertEquals("workers=0-3;writers=8", affinity.split(2, 0).describe());
+        assertEquals("workers=4-7;writers=8", affinity.split(2, 1).describe());
+    }
+
+    @Test
+    public void testSplitUnevenCores() {
+        final WorkerAffinity affinity = affinity("0,2,4");
+
+        assertEquals("workers=0;writers=8", affinity.split(2, 0).describe());
+        assertEquals("workers=2,4;writers=8", affinity.split(2, 1).describe());
+    }
+
+    @Test
+    public void testSplitSharesASingleCore() {
+        final WorkerAffinity affinity = affinity("3");
+
+        assertSame(affinity, affinity.split(2, 0));
+        assertSame(affinity, affinity.split(2, 1));
+    }
+}
@@ -28,6 +28,7 @@ import org.maestro.common.writers.RateWriter;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -177,4 +178,37 @@ public class WorkerChannelWriterSanityTest {
         writerThread.join();
         Assert.assertEquals("No missed samples with a synchronized writing rate", 0, dummyReceiverWorker.workerChannel().missedSamples() + dummySenderWorker.workerChannel().missedSamples());
     }
+
+    private static long countRates(final File rateFile) throws IOException {
+        //the first line is the header
+        return Files.readAllLines(rateFile.toPath()).size() - 1;
+    }
+
+    @Test
+    public void shouldDiscardTheRatesRecordedWhileWarmingUp() throws IOException {
+        final DummySenderWorker dummySenderWorker = new DummySenderWorker(16);
+        final MeasurementPhase measurementPhase = MeasurementPhase.afterWarmUp();
+        final File rateFile;
+
+        try (RateWriter rateWriter = new RateWriter(tempTestFolder.newFolder("report"), true, false)) {
+            final WorkerChannelWriter.WorkerRateReport rateReport = new WorkerChannelWriter.WorkerRateReport(
+                    dummySenderWorker, rateWriter, measurementPhase);
+            final long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+
+            dummySenderWorker.workerChannel().emitRate(now, now);
+            Assert.assertEquals(1, rateReport.updateReport(16));
+
+            measurementPhase.start();
+            final long startEpochMicros = measurementPhase.startEpochMicros();
+            //a sample recorded right before the start, but read after it, is discarded too
+            dummySenderWorker.workerChannel().emitRate(startEpochMicros - 1, startEpochMicros - 1);
+            dummySenderWorker.workerChannel().emitRate(startEpochMicros, startEpochMicros);
+            dummySenderWorker.workerChannel().emitRate(startEpochMicros + 1, startEpochMicros + 1);
+            Assert.assertEquals(3, rateReport.updateReport(16));
+
+            rateFile = rateWriter.reportFile();
+        }
+
+        Assert.assertEquals("Only the rates recorded after the warm-up are written", 2, countRates(rateFile));
+    }
 }
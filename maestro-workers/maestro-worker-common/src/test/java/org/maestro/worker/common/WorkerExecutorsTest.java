@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorkerExecutorsTest {
+
+    private static boolean assertRunsWorkers(final String mode) throws Exception {
+        final ExecutorService executor = WorkerExecutors.newWorkerExecutor(mode);
+
+        try {
+            final String threadName = executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS);
+
+            assertTrue("Unexpected worker thread name: " + threadName, threadName.startsWith("maestro-worker-"));
+            // The flag must match the threads actually used, not the requested mode
+            assertEquals(threadName.startsWith("maestro-worker-virtual-"), WorkerExecutors.isVirtual(executor));
+
+            return WorkerExecutors.isVirtual(executor);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        assertFalse(assertRunsWorkers(WorkerExecutors.PLATFORM));
+    }
+
+    @Test
+    public void testVirtualThreads() throws Exception {
+        // Falls back to platform threads when running on Java versions without virtual threads
+        assertRunsWorkers(WorkerExecutors.VIRTUAL);
+    }
+}
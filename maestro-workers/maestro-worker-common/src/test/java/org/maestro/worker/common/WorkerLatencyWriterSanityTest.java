@@ -24,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
+import org.maestro.common.evaluators.SlidingWindowLatencyEvaluator;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.MaestroWorker;
 import org.maestro.common.worker.WorkerOptions;
@@ -32,6 +33,7 @@ import org.maestro.common.worker.WorkerStateInfo;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -161,4 +163,49 @@ public class WorkerLatencyWriterSanityTest {
         }
         Assert.assertEquals("The histogram number must be the same of the receivers", receivers, totalReports);
     }
+
+    @Test(timeout = 120_000L)
+    public void shouldEvaluateTheLastInterval() throws IOException, InterruptedException {
+        final DummyReceiverWorker dummyReceiverWorker = new DummyReceiverWorker();
+        dummyReceiverWorker.startedEpochMillis = System.currentTimeMillis();
+
+        final SlidingWindowLatencyEvaluator evaluator = new SlidingWindowLatencyEvaluator(
+                Collections.singletonList(SlidingWindowLatencyEvaluator.Slo.parse("p99<100us")),
+                TimeUnit.HOURS.toMillis(1), 1);
+        //the reporting interval never elapses: the only interval reported is the last one, when the writer stops
+        final WorkerLatencyWriter latencyWriter = new WorkerLatencyWriter(tempTestFolder.newFolder("report"),
+                Collections.singletonList(dummyReceiverWorker), evaluator, TimeUnit.HOURS.toMillis(1));
+        final Thread writerThread = new Thread(latencyWriter);
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        for (int i = 0; i < 100; i++) {
+            dummyReceiverWorker.recorder.recordValue(1000);
+        }
+
+        writerThread.interrupt();
+        writerThread.join();
+
+        Assert.assertFalse("The latencies of the last interval violate the objective", evaluator.eval());
+        Assert.assertEquals(1000, evaluator.getMean(), 1.0);
+    }
+
+    @Test
+    public void shouldOnlyMeasureTheIntervalsAfterTheWarmUp() throws IOException {
+        final WorkerLatencyWriter latencyWriter = new WorkerLatencyWriter(tempTestFolder.newFolder("report"),
+                Collections.emptyList());
+
+        Assert.assertTrue("Without a warm-up the whole test is measured", latencyWriter.isMeasured(0));
+
+        final MeasurementPhase measurementPhase = MeasurementPhase.afterWarmUp();
+        latencyWriter.setMeasurementPhase(measurementPhase);
+        Assert.assertFalse(latencyWriter.isMeasured(System.currentTimeMillis()));
+
+        measurementPhase.start();
+        final long startEpochMillis = measurementPhase.startEpochMillis();
+        Assert.assertFalse("An interval started while warming up is not measured",
+                latencyWriter.isMeasured(startEpochMillis - 1));
+        Assert.assertTrue(latencyWriter.isMeasured(startEpochMillis));
+        Assert.assertTrue(latencyWriter.isMeasured(startEpochMillis + 1));
+    }
 }
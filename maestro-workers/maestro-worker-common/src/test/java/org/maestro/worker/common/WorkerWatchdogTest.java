@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.common;
+
+import org.junit.Test;
+import org.maestro.common.duration.DurationCount;
+import org.maestro.common.worker.MaestroWorker;
+import org.maestro.common.worker.WorkerOptions;
+import org.maestro.common.worker.WorkerStateInfo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class WorkerWatchdogTest {
+
+    private static final class CountingWorker implements MaestroWorker {
+        private volatile long messageCount;
+
+        @Override
+        public boolean isRunning() {
+            return true;
+        }
+
+        @Override
+        public void setWorkerOptions(WorkerOptions workerOptions) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public WorkerStateInfo getWorkerState() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void start() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void stop() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void halt() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void run() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long startedEpochMillis() {
+            return 0;
+        }
+
+        @Override
+        public long messageCount() {
+            return messageCount;
+        }
+
+        @Override
+        public void setWorkerNumber(int number) {
+            // NO-OP
+        }
+    }
+
+    private static WorkerRuntimeInfo running(final MaestroWorker worker) {
+        final WorkerRuntimeInfo ri = new WorkerRuntimeInfo();
+
+        ri.worker = worker;
+        // Never completed: the worker is alive until marked as finished
+        ri.future = new CompletableFuture<>();
+        return ri;
+    }
+
+    @Test
+    public void testStartsMeasuringOnceAllTheWorkersWarmedUp() {
+        final CountingWorker first = new CountingWorker();
+        final CountingWorker second = new CountingWorker();
+        final MeasurementPhase measurementPhase = MeasurementPhase.afterWarmUp();
+        final WorkerWatchdog watchdog = new WorkerWatchdog(null, Arrays.asList(running(first), running(second)),
+                null, null, Collections.emptyList(), new DurationCount("100"), measurementPhase);
+
+        first.messageCount = 150;
+        second.messageCount = 50;
+        assertFalse(watchdog.startMeasurementIfWarmedUp(System.nanoTime()));
+        assertTrue(measurementPhase.isWarmingUp());
+
+        second.messageCount = 100;
+        assertTrue(watchdog.startMeasurementIfWarmedUp(System.nanoTime()));
+        assertFalse(measurementPhase.isWarmingUp());
+    }
+
+    @Test
+    public void testFinishedWorkersAreWarmedUp() {
+        final CountingWorker first = new CountingWorker();
+        final CountingWorker second = new CountingWorker();
+        final WorkerRuntimeInfo finished = running(second);
+        final MeasurementPhase measurementPhase = MeasurementPhase.afterWarmUp();
+        final WorkerWatchdog watchdog = new WorkerWatchdog(null, Arrays.asList(running(first), finished),
+                null, null, Collections.emptyList(), new DurationCount("100"), measurementPhase);
+
+        first.messageCount = 100;
+        second.messageCount = 10;
+        assertFalse(watchdog.startMeasurementIfWarmedUp(System.nanoTime()));
+
+        finished.markFinished();
+        assertTrue(watchdog.startMeasurementIfWarmedUp(System.nanoTime()));
+    }
+
+    @Test
+    public void testResetsTheThroughputBaseline() {
+        final CountingWorker first = new CountingWorker();
+        final CountingWorker second = new CountingWorker();
+        final WorkerWatchdog watchdog = new WorkerWatchdog(null, Arrays.asList(running(first), running(second)),
+                null, null, Collections.emptyList(), new DurationCount("100"), MeasurementPhase.afterWarmUp());
+
+        first.messageCount = 100;
+        second.messageCount = 120;
+        assertEquals("The baseline is 0 until the measurement starts", 220, watchdog.throughputSample().getCount());
+
+        final long start = System.nanoTime();
+        assertTrue(watchdog.startMeasurementIfWarmedUp(start));
+        assertEquals("The warm-up messages are not sampled", 0, watchdog.throughputSample().getCount());
+
+        first.messageCount += 30;
+        second.messageCount += 20;
+        final long before = System.nanoTime();
+        final long duration = watchdog.throughputSample().getDuration().toNanos();
+
+        assertEquals(50, watchdog.throughputSample().getCount());
+        assertTrue("The duration is sampled from the end of the warm-up", duration >= before - start);
+    }
+}
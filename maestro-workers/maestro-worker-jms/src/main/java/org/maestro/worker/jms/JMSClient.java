@@ -42,9 +42,21 @@ import java.net.URI;
 class JMSClient implements Client {
     private static final Logger logger = LoggerFactory.getLogger(JMSClient.class);
 
+    /**
+     * The minimum benchmark payload: the send timestamp
+     */
+    static final int TIMESTAMP_PAYLOAD_SIZE = Long.BYTES;
+
+    /**
+     * The benchmark payload used when the message is large enough: the send timestamp, the producer number and
+     * the producer sequence
+     */
+    static final int TRACE_PAYLOAD_SIZE = 3 * Long.BYTES;
+
     protected String url = null;
     protected Destination destination = null;
     protected Connection connection = null;
+    protected String destinationName = null;
 
     protected int number = -1;
 
@@ -76,6 +88,7 @@ class JMSClient implements Client {
 
         Destination destination;
         Connection connection = null;
+        String destinationName;
         try {
             final URI uri = new URI(url);
             final String path = uri.getPath();
@@ -89,7 +102,7 @@ class JMSClient implements Client {
             final ConnectionFactory factory = protocol.createConnectionFactory(connectionUrl);
             logger.trace("Connection factory created");
 
-            String destinationName = path.substring(1);
+            destinationName = path.substring(1);
             logger.debug("Requested destination name: {}", destinationName);
 
             final Integer configuredLimitDestinations = urlQuery.getInteger("limitDestinations", null);
@@ -138,6 +151,7 @@ class JMSClient implements Client {
             throw t;
         }
         this.destination = destination;
+        this.destinationName = destinationName;
         this.connection = connection;
         this.connection.start();
     }
@@ -152,6 +166,11 @@ class JMSClient implements Client {
         }
     }
 
+    @Override
+    public String getDestinationName() {
+        return destinationName;
+    }
+
     @Override
     public void setUrl(String url) {
         this.url = url;
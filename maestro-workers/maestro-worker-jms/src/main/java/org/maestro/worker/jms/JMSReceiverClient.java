@@ -20,6 +20,7 @@ import org.maestro.common.content.ContentStrategy;
 import org.maestro.common.jms.ReceiverClient;
 
 import javax.jms.BytesMessage;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.MessageConsumer;
 import javax.jms.Session;
@@ -27,10 +28,12 @@ import java.nio.ByteBuffer;
 
 final class JMSReceiverClient extends JMSClient implements ReceiverClient {
     private static final long RECEIVE_TIMEOUT_MILLIS = 1000L;
-    private static final int PAYLOAD_SIZE = Long.BYTES;
     private Session session;
     private MessageConsumer consumer;
     private ByteBuffer payloadBytes;
+    private BytesMessage lastMessage;
+    private long lastProducerId = -1;
+    private long lastSequence = -1;
 
     @Override
     public void start() throws Exception {
@@ -38,7 +41,7 @@ final class JMSReceiverClient extends JMSClient implements ReceiverClient {
         try {
             session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
             consumer = session.createConsumer(destination);
-            payloadBytes = ByteBuffer.allocate(PAYLOAD_SIZE).order(ContentStrategy.CONTENT_ENDIANNESS);
+            payloadBytes = ByteBuffer.allocate(TRACE_PAYLOAD_SIZE).order(ContentStrategy.CONTENT_ENDIANNESS);
         } catch (Throwable t) {
             JMSResourceUtil.capturingClose(consumer);
             this.consumer = null;
@@ -58,21 +61,54 @@ final class JMSReceiverClient extends JMSClient implements ReceiverClient {
             return ReceiverClient.noMessagePayload();
         }
         final BytesMessage bytesMessage = (BytesMessage) message;
-        //just read the benchmark minimum payload
-        final int readBytes = bytesMessage.readBytes(payloadBytes.array(), PAYLOAD_SIZE);
-        if (readBytes == PAYLOAD_SIZE || readBytes == -1) {
+        lastMessage = bytesMessage;
+        //just read the benchmark payload
+        final int readBytes = bytesMessage.readBytes(payloadBytes.array(), TRACE_PAYLOAD_SIZE);
+        if (readBytes == TRACE_PAYLOAD_SIZE) {
+            lastProducerId = payloadBytes.getLong(Long.BYTES);
+            lastSequence = payloadBytes.getLong(2 * Long.BYTES);
+        } else {
+            lastProducerId = -1;
+            lastSequence = -1;
+        }
+
+        if (readBytes >= TIMESTAMP_PAYLOAD_SIZE || readBytes == -1) {
             //can read the timestamp using the default endianness of the content strategy
             return payloadBytes.getLong(0);
         }
         throw new IllegalStateException("the received message hasn't any benchmark payload");
     }
 
+    @Override
+    public long lastMessageSize() {
+        if (lastMessage == null) {
+            return -1;
+        }
+
+        try {
+            return lastMessage.getBodyLength();
+        } catch (JMSException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public long lastProducerId() {
+        return lastProducerId;
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+
     @Override
     public void stop() {
         JMSResourceUtil.capturingClose(consumer);
         this.consumer = null;
         JMSResourceUtil.capturingClose(session);
         this.session = null;
+        this.lastMessage = null;
         super.stop();
     }
 }
@@ -17,21 +17,26 @@
 package org.maestro.worker.jms;
 
 import org.HdrHistogram.Histogram;
-import org.HdrHistogram.SingleWriterRecorder;
+import org.maestro.common.URLQuery;
 import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.MessageBudget;
 import org.maestro.common.duration.TestDuration;
 import org.maestro.common.duration.TestDurationBuilder;
 import org.maestro.common.exceptions.DurationParseException;
 import org.maestro.common.jms.ReceiverClient;
+import org.maestro.common.worker.LatencyHistogramSettings;
+import org.maestro.common.worker.LatencyRecorder;
 import org.maestro.common.worker.MaestroReceiverWorker;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
+import org.maestro.common.worker.WorkerUtils;
+import org.maestro.common.writers.OneToOneTraceChannel;
 import org.maestro.common.writers.OneToOneWorkerChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.TimeUnit;
+import java.net.URISyntaxException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
@@ -46,23 +51,32 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
     private TestDuration duration;
     private final AtomicLong messageCount = new AtomicLong(0);
     private volatile long startedEpochMillis = Long.MIN_VALUE;
-    //TODO it could be injected by outside because the precision could be improved using ad-hoc clock timers
-    private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.HOURS.toMicros(1);
-    private final SingleWriterRecorder latencyRecorder = new SingleWriterRecorder(HIGHEST_TRACKABLE_VALUE, 3);
+    private LatencyHistogramSettings latencySettings = LatencyHistogramSettings.defaults();
+    private volatile LatencyRecorder latencyRecorder;
+    // The offset (in microseconds) between the clock of this receiver and the clocks of the senders
+    private long clockCorrection;
     //TODO the size need to be configured
     private final OneToOneWorkerChannel workerChannel = new OneToOneWorkerChannel(128 * 1024);
+    private final long traceSamplingInterval = WorkerUtils.getTraceSamplingInterval();
+    private final OneToOneTraceChannel traceChannel = traceSamplingInterval > 0 ? new OneToOneTraceChannel(8 * 1024) : null;
 
     private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
 
     private String url;
     private final Supplier<? extends ReceiverClient> clientFactory;
     private int number;
+    private ReceiverClient preparedClient;
 
     @Override
     public OneToOneWorkerChannel workerChannel() {
         return workerChannel;
     }
 
+    @Override
+    public OneToOneTraceChannel traceChannel() {
+        return traceChannel;
+    }
+
     @Override
     public long messageCount() {
         return messageCount.get();
@@ -108,6 +122,45 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
     public void setWorkerOptions(WorkerOptions workerOptions) {
         setBroker(workerOptions.getBrokerURL());
         setDuration(workerOptions.getDuration());
+        setLatencySettings(LatencyHistogramSettings.from(workerOptions));
+        this.clockCorrection = workerOptions.getClockCorrection();
+    }
+
+    /**
+     * The receivers of a queue split the messages among them, so they share the count they receive. The receivers
+     * of a topic receive all the messages sent, so each one keeps counting its own
+     * @param messageBudget the message budget
+     */
+    @Override
+    public void setMessageBudget(MessageBudget messageBudget) {
+        if (isQueue()) {
+            this.duration = MessageBudget.shareReceived(duration, messageBudget);
+        }
+        else {
+            logger.debug("Not sharing the message count because the receivers of a topic receive all the messages");
+        }
+    }
+
+    private boolean isQueue() {
+        try {
+            return "queue".equals(new URLQuery(url).getString("type", "queue"));
+        } catch (URISyntaxException e) {
+            // The client fails on it once started
+            return false;
+        }
+    }
+
+    @Override
+    public void setLatencyRecorder(final LatencyRecorder latencyRecorder) {
+        this.latencyRecorder = latencyRecorder;
+    }
+
+    private void setLatencySettings(final LatencyHistogramSettings latencySettings) {
+        logger.debug("Recording latencies using {}", latencySettings);
+        this.latencySettings = latencySettings;
+        if (this.latencyRecorder == null) {
+            this.latencyRecorder = LatencyRecorder.exclusive(latencySettings);
+        }
     }
 
     private static void handleNegativeSampleError(final long sendTimeEpochMicros, final long nowInMicros) {
@@ -115,10 +168,11 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
                 sendTimeEpochMicros, nowInMicros);
     }
 
-    private static void handleHugeSampleError(final long sendTimeEpochMicros, final long nowInMicros) {
-        logger.error("Normalized sample: (ReceivedTimeEpochMicros {} - SendTimeEpochMicros {}) > " +
-                        HIGHEST_TRACKABLE_VALUE,
-                nowInMicros, sendTimeEpochMicros);
+    private static void handleHugeSampleError(final long sendTimeEpochMicros, final long nowInMicros,
+                                              final long highestTrackableValue) {
+        logger.warn("Normalized sample: (ReceivedTimeEpochMicros {} - SendTimeEpochMicros {}) > {}. Further " +
+                        "samples out of range will only be counted: consider raising the latency highest value",
+                nowInMicros, sendTimeEpochMicros, highestTrackableValue);
     }
 
     private static void handleInvalidLatency(long sendTimeEpochMicros, long nowInMicros, long elapsedMicros) {
@@ -130,14 +184,31 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
         }
     }
 
+    @Override
+    public void prepare() throws Exception {
+        final ReceiverClient client = clientFactory.get();
+
+        try {
+            doClientStartup(client);
+        } catch (Exception e) {
+            client.stop();
+            throw e;
+        }
+
+        this.preparedClient = client;
+    }
+
     public void start() {
         startedEpochMillis = System.currentTimeMillis();
         logger.info("Starting the JMS receiver worker");
 
-        final ReceiverClient client = clientFactory.get();
         final long id = Thread.currentThread().getId();
+        ReceiverClient client = this.preparedClient;
         try {
-            doClientStartup(client);
+            if (client == null) {
+                client = clientFactory.get();
+                doClientStartup(client);
+            }
 
             runReceiveLoop(client);
 
@@ -156,26 +227,39 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
             workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
         } finally {
             //the test could be considered already stopped here, but cleaning up JMS resources could take some time anyway
-            client.stop();
+            if (client != null) {
+                client.stop();
+            }
             logger.info("Finalized worker {} after receiving {} messages", id, messageCount);
         }
     }
 
     private void runReceiveLoop(final ReceiverClient client) throws Exception {
         final EpochMicroClock epochMicroClock = EpochClocks.exclusiveMicro();
+        LatencyRecorder latencyRecorder = this.latencyRecorder;
+        if (latencyRecorder == null) {
+            latencyRecorder = LatencyRecorder.exclusive(latencySettings);
+            this.latencyRecorder = latencyRecorder;
+        }
+        final boolean clampLatencies = !latencySettings.isAutoResize();
+        final long highestTrackableValue = latencySettings.getHighestTrackableValue();
         long count = 0;
+        long normalizedSamples = 0;
 
         while (duration.canContinue(this) && isRunning()) {
             final long sendTimeEpochMicros = client.receiveMessages();
 
             if (sendTimeEpochMicros != ReceiverClient.noMessagePayload()) {
-                final long nowInMicros = epochMicroClock.microTime();
+                final long nowInMicros = epochMicroClock.microTime() - clockCorrection;
                 long elapsedMicros = nowInMicros - sendTimeEpochMicros;
 
                 if (elapsedMicros >= 0) {
-                    if (elapsedMicros > HIGHEST_TRACKABLE_VALUE) {
-                        handleHugeSampleError(sendTimeEpochMicros, nowInMicros);
-                        elapsedMicros = HIGHEST_TRACKABLE_VALUE;
+                    if (clampLatencies && elapsedMicros > highestTrackableValue) {
+                        if (normalizedSamples == 0) {
+                            handleHugeSampleError(sendTimeEpochMicros, nowInMicros, highestTrackableValue);
+                        }
+                        normalizedSamples++;
+                        elapsedMicros = highestTrackableValue;
                     }
 
                     latencyRecorder.recordValue(elapsedMicros);
@@ -185,10 +269,29 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
                 }
 
                 workerChannel.emitRate(sendTimeEpochMicros, nowInMicros);
+                if (traceChannel != null) {
+                    trace(client, count, sendTimeEpochMicros, nowInMicros);
+                }
                 count++;
                 messageCount.lazySet(count);
             }
         }
+
+        if (normalizedSamples > 0) {
+            logger.warn("A total of {} samples were normalized to the latency highest value of {}", normalizedSamples,
+                    highestTrackableValue);
+        }
+    }
+
+    private void trace(final ReceiverClient client, long count, long sendTimeEpochMicros, long nowInMicros) {
+        final long sequence = client.lastSequence();
+        //samples the same messages traced by the sender, when it is possible to know them
+        final long sampled = sequence >= 0 ? sequence : count;
+
+        if ((sampled % traceSamplingInterval) == 0) {
+            traceChannel.emitTrace(client.lastProducerId(), sequence, client.lastMessageSize(), sendTimeEpochMicros,
+                    nowInMicros);
+        }
     }
 
     private void doClientStartup(final ReceiverClient client) throws Exception {
@@ -197,10 +300,19 @@ public class JMSReceiverWorker implements MaestroReceiverWorker {
         workerStateInfo.setState(true, null, null);
         client.setNumber(number);
         client.start();
+
+        if (traceChannel != null) {
+            traceChannel.setDestination(client.getDestinationName());
+        }
     }
 
     @Override
     public Histogram takeLatenciesSnapshot(Histogram intervalHistogram) {
+        final LatencyRecorder latencyRecorder = this.latencyRecorder;
+        if (latencyRecorder == null) {
+            return null;
+        }
+
         return latencyRecorder.getIntervalHistogram(intervalHistogram);
     }
 
@@ -29,6 +29,8 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
     private ContentStrategy contentStrategy;
     private Session session;
     private MessageProducer producer;
+    private long sequence = 0;
+    private int lastMessageSize = -1;
 
     @Override
     public void start() throws Exception {
@@ -73,10 +75,22 @@ final class JMSSenderClient extends JMSClient implements SenderClient {
         final int length = content.remaining();
         //the timestamp is part of the message content
         content.putLong(position, sendTimeEpochInMicros);
+        //when there is enough room, the producer number and sequence are too: they are used to trace the messages
+        if (length >= TRACE_PAYLOAD_SIZE) {
+            content.putLong(position + Long.BYTES, number);
+            content.putLong(position + (2 * Long.BYTES), sequence);
+        }
+        sequence++;
         final BytesMessage message = session.createBytesMessage();
         //copy the whole message content (including the benchmark payload ie timestamp)
         message.writeBytes(bytes, offset, length);
         producer.send(message);
+        lastMessageSize = length;
+    }
+
+    @Override
+    public int lastMessageSize() {
+        return lastMessageSize;
     }
 
     @Override
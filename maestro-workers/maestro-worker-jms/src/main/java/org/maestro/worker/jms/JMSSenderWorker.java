@@ -20,6 +20,7 @@ import org.maestro.common.content.ContentStrategy;
 import org.maestro.common.content.ContentStrategyFactory;
 import org.maestro.common.duration.EpochClocks;
 import org.maestro.common.duration.EpochMicroClock;
+import org.maestro.common.duration.MessageBudget;
 import org.maestro.common.duration.TestDuration;
 import org.maestro.common.duration.TestDurationBuilder;
 import org.maestro.common.exceptions.DurationParseException;
@@ -29,6 +30,7 @@ import org.maestro.common.worker.MaestroSenderWorker;
 import org.maestro.common.worker.WorkerOptions;
 import org.maestro.common.worker.WorkerStateInfo;
 import org.maestro.common.worker.WorkerUtils;
+import org.maestro.common.writers.OneToOneTraceChannel;
 import org.maestro.common.writers.OneToOneWorkerChannel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,12 +47,15 @@ public class JMSSenderWorker implements MaestroSenderWorker {
     private ContentStrategy contentStrategy;
     private TestDuration duration;
     private final OneToOneWorkerChannel workerChannel;
+    private final OneToOneTraceChannel traceChannel;
+    private final long traceSamplingInterval;
     private final AtomicLong messageCount = new AtomicLong(0);
     private volatile long startedEpochMillis = Long.MIN_VALUE;
 
     private String url;
     private long rate = 0;
     private int number;
+    private SenderClient preparedClient;
 
     private final Supplier<? extends SenderClient> clientFactory;
 
@@ -61,6 +66,8 @@ public class JMSSenderWorker implements MaestroSenderWorker {
     public JMSSenderWorker(Supplier<? extends SenderClient> clientFactory, int channelCapacity) {
         this.clientFactory = clientFactory;
         this.workerChannel = new OneToOneWorkerChannel(channelCapacity);
+        this.traceSamplingInterval = WorkerUtils.getTraceSamplingInterval();
+        this.traceChannel = traceSamplingInterval > 0 ? new OneToOneTraceChannel(8 * 1024) : null;
     }
 
     @Override
@@ -68,6 +75,11 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         return workerChannel;
     }
 
+    @Override
+    public OneToOneTraceChannel traceChannel() {
+        return traceChannel;
+    }
+
     private final WorkerStateInfo workerStateInfo = new WorkerStateInfo();
 
     @Override
@@ -121,6 +133,11 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         setMessageSize(workerOptions.getMessageSize());
     }
 
+    @Override
+    public void setMessageBudget(MessageBudget messageBudget) {
+        this.duration = MessageBudget.share(duration, messageBudget);
+    }
+
     private static long waitNanoInterval(final long expectedFireTime, final long intervalInNanos) {
         assert intervalInNanos > 0;
         long now;
@@ -133,14 +150,31 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         return now;
     }
 
+    @Override
+    public void prepare() throws Exception {
+        final SenderClient client = this.clientFactory.get();
+
+        try {
+            doClientStartup(client);
+        } catch (Exception e) {
+            client.stop();
+            throw e;
+        }
+
+        this.preparedClient = client;
+    }
+
     public void start() {
         startedEpochMillis = System.currentTimeMillis();
         logger.info("Starting the JMS sender worker");
 
-        final SenderClient client = this.clientFactory.get();
         final long id = Thread.currentThread().getId();
+        SenderClient client = this.preparedClient;
         try {
-            doClientStartup(client);
+            if (client == null) {
+                client = this.clientFactory.get();
+                doClientStartup(client);
+            }
 
             runLoadLoop(client);
 
@@ -158,7 +192,9 @@ public class JMSSenderWorker implements MaestroSenderWorker {
             workerStateInfo.setState(false, WorkerStateInfo.WorkerExitStatus.WORKER_EXIT_FAILURE, e);
         } finally {
             //the test could be considered already stopped here, but cleaning up JMS resources could take some time anyway
-            client.stop();
+            if (client != null) {
+                client.stop();
+            }
             logger.info("Finalized worker {} after sending {} messages", id, messageCount);
         }
     }
@@ -195,6 +231,9 @@ public class JMSSenderWorker implements MaestroSenderWorker {
 
             client.sendMessages(sendTimeEpochMicros);
             workerChannel.emitRate(expectedSendTimeEpochMicros, sendTimeEpochMicros);
+            if (traceChannel != null && (count % traceSamplingInterval) == 0) {
+                traceChannel.emitTrace(number, count, client.lastMessageSize(), sendTimeEpochMicros, -1);
+            }
             count++;
             //update message sent count
             this.messageCount.lazySet(count);
@@ -212,6 +251,10 @@ public class JMSSenderWorker implements MaestroSenderWorker {
         workerStateInfo.setState(true, null, null);
         client.setNumber(number);
         client.start();
+
+        if (traceChannel != null) {
+            traceChannel.setDestination(client.getDestinationName());
+        }
     }
 
     private long getIntervalInNanos() {
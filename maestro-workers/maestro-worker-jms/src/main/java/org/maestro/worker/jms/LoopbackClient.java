@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.agrona.concurrent.ManyToManyConcurrentArrayQueue;
+import org.maestro.common.URLQuery;
+import org.maestro.common.jms.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A client that exchanges the messages through lock-free queues in this JVM, instead of through a broker. It is
+ * meant to measure the overhead of the workers themselves. The URL format is loopback://localhost/destination,
+ * optionally with the capacity of the destination queue (ie.: ?capacity=65536). A destination lives only while
+ * there are clients using it: once the last one stops, it is removed along with any message left, so that a test
+ * never receives the messages sent by a previous one.
+ */
+abstract class LoopbackClient implements Client {
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackClient.class);
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+    private static final ConcurrentMap<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    private static final class Destination {
+        private final Queue<byte[]> queue;
+        private final int capacity;
+        private int clients = 0;
+
+        private Destination(int capacity) {
+            this.queue = new ManyToManyConcurrentArrayQueue<>(capacity);
+            this.capacity = capacity;
+        }
+    }
+
+    protected String url = null;
+    protected int number = -1;
+    protected String destinationName = null;
+    protected Queue<byte[]> destination = null;
+
+    @Override
+    public void start() throws Exception {
+        final URI uri = new URI(url);
+        final URLQuery urlQuery = new URLQuery(uri);
+        final String path = uri.getPath();
+
+        if (path == null || path.length() < 2) {
+            throw new IllegalArgumentException("The loopback URL does not contain a destination name: " + url);
+        }
+
+        final int capacity = urlQuery.getInteger("capacity", DEFAULT_CAPACITY);
+
+        final String name = path.substring(1);
+        final Destination acquired = destinations.compute(name, (key, existing) -> {
+            if (existing == null) {
+                logger.debug("Creating the loopback destination {} with a capacity of {} messages", key, capacity);
+
+                existing = new Destination(capacity);
+            }
+            else if (existing.capacity != capacity) {
+                throw new IllegalArgumentException("The loopback destination " + key + " already exists with a "
+                        + "capacity of " + existing.capacity + " messages: unable to use it with a capacity of "
+                        + capacity);
+            }
+
+            existing.clients++;
+            return existing;
+        });
+
+        destinationName = name;
+        destination = acquired.queue;
+    }
+
+    @Override
+    public void stop() {
+        if (destination == null) {
+            return;
+        }
+
+        destination = null;
+        destinations.computeIfPresent(destinationName, (key, existing) -> {
+            existing.clients--;
+            if (existing.clients > 0) {
+                return existing;
+            }
+
+            final int discarded = existing.queue.size();
+            if (discarded > 0) {
+                logger.warn("Removing the loopback destination {} with {} messages not received", key, discarded);
+            }
+            else {
+                logger.debug("Removing the loopback destination {}", key);
+            }
+
+            return null;
+        });
+    }
+
+    @Override
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    @Override
+    public String getDestinationName() {
+        return destinationName;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.jms.ReceiverClient;
+
+import java.nio.ByteBuffer;
+
+final class LoopbackReceiverClient extends LoopbackClient implements ReceiverClient {
+    private long lastMessageSize = -1;
+    private long lastProducerId = -1;
+    private long lastSequence = -1;
+
+    @Override
+    public long receiveMessages() {
+        final byte[] message = destination.poll();
+
+        if (message == null) {
+            //there is no timeout to wait on: let the senders run
+            Thread.yield();
+            return ReceiverClient.noMessagePayload();
+        }
+
+        final ByteBuffer payload = ByteBuffer.wrap(message).order(ContentStrategy.CONTENT_ENDIANNESS);
+        lastMessageSize = message.length;
+        if (message.length >= JMSClient.TRACE_PAYLOAD_SIZE) {
+            lastProducerId = payload.getLong(Long.BYTES);
+            lastSequence = payload.getLong(2 * Long.BYTES);
+        } else {
+            lastProducerId = -1;
+            lastSequence = -1;
+        }
+
+        if (message.length >= JMSClient.TIMESTAMP_PAYLOAD_SIZE) {
+            return payload.getLong(0);
+        }
+        throw new IllegalStateException("the received message hasn't any benchmark payload");
+    }
+
+    @Override
+    public long lastMessageSize() {
+        return lastMessageSize;
+    }
+
+    @Override
+    public long lastProducerId() {
+        return lastProducerId;
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.maestro.common.content.ContentStrategy;
+import org.maestro.common.jms.SenderClient;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+final class LoopbackSenderClient extends LoopbackClient implements SenderClient {
+    private static final long SEND_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private ContentStrategy contentStrategy;
+    private long sequence = 0;
+    private int lastMessageSize = -1;
+
+    @Override
+    public void sendMessages(long sendTimeEpochInMicros) throws Exception {
+        //prepare the message content
+        final ByteBuffer content = contentStrategy.prepareContent();
+        final int position = content.position();
+        final int offset = content.arrayOffset() + position;
+        final int length = content.remaining();
+        //the timestamp is part of the message content
+        content.putLong(position, sendTimeEpochInMicros);
+        //when there is enough room, the producer number and sequence are too: they are used to trace the messages
+        if (length >= JMSClient.TRACE_PAYLOAD_SIZE) {
+            content.putLong(position + Long.BYTES, number);
+            content.putLong(position + (2 * Long.BYTES), sequence);
+        }
+        sequence++;
+        //copy the whole message content, as a client would do when creating the message
+        final byte[] message = Arrays.copyOfRange(content.array(), offset, offset + length);
+
+        if (!destination.offer(message)) {
+            //the queue is full: wait for the receivers, as a broker applying flow control would do
+            final long deadline = System.nanoTime() + SEND_TIMEOUT_NANOS;
+
+            do {
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new IllegalStateException("The loopback destination " + destinationName
+                            + " is full: the receivers must run on the same JVM");
+                }
+
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+
+                Thread.yield();
+            } while (!destination.offer(message));
+        }
+        lastMessageSize = length;
+    }
+
+    @Override
+    public int lastMessageSize() {
+        return lastMessageSize;
+    }
+
+    @Override
+    public void setContentStrategy(ContentStrategy contentStrategy) {
+        this.contentStrategy = contentStrategy;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Otavio R. Piske <angusyoung@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.maestro.worker.jms;
+
+import org.junit.Test;
+import org.maestro.common.content.ContentStrategyFactory;
+import org.maestro.common.jms.ReceiverClient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+public class LoopbackClientTest {
+    private static final String URL = "loopback://localhost/test.loopback";
+
+    private static LoopbackSenderClient newSender(final String url) throws Exception {
+        final LoopbackSenderClient sender = new LoopbackSenderClient();
+
+        sender.setUrl(url);
+        sender.setNumber(0);
+        sender.setContentStrategy(ContentStrategyFactory.parse("256"));
+        sender.start();
+        return sender;
+    }
+
+    private static LoopbackReceiverClient newReceiver(final String url) throws Exception {
+        final LoopbackReceiverClient receiver = new LoopbackReceiverClient();
+
+        receiver.setUrl(url);
+        receiver.setNumber(0);
+        receiver.start();
+        return receiver;
+    }
+
+    @Test
+    public void testsRunBackToBack() throws Exception {
+        // First test: stops without receiving all the messages
+        LoopbackSenderClient sender = newSender(URL);
+        LoopbackReceiverClient receiver = newReceiver(URL);
+
+        sender.sendMessages(1);
+        sender.sendMessages(2);
+        sender.sendMessages(3);
+        assertEquals(1, receiver.receiveMessages());
+
+        sender.stop();
+        // The destination is kept while a client is still using it
+        assertEquals(2, receiver.receiveMessages());
+        receiver.stop();
+
+        // Second test: the messages left by the first one are gone
+        receiver = newReceiver(URL);
+        sender = newSender(URL);
+
+        assertEquals(ReceiverClient.noMessagePayload(), receiver.receiveMessages());
+        sender.sendMessages(4);
+        assertEquals(4, receiver.receiveMessages());
+
+        sender.stop();
+        receiver.stop();
+    }
+
+    @Test
+    public void rejectConflictingCapacity() throws Exception {
+        final LoopbackSenderClient sender = newSender(URL + "?capacity=1024");
+
+        try {
+            newReceiver(URL + "?capacity=2048");
+            fail("A receiver with a conflicting capacity must be rejected");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // The rejected client does not hold the destination
+        sender.stop();
+
+        final LoopbackReceiverClient receiver = newReceiver(URL + "?capacity=2048");
+        assertNotEquals(null, receiver.getDestinationName());
+        receiver.stop();
+    }
+}